@@ -0,0 +1,110 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.number;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>JMH micro-benchmarks that measure the read throughput of adjustable
+ * parameter generators when a single instance is shared by many threads,
+ * which is how they are used as distribution parameters.  The lock-based
+ * implementation used prior to version 1.3 is included as a baseline.</p>
+ *
+ * <p>The number of reader threads is set with JMH's {@literal -t} option,
+ * for example {@literal ant benchmark -Djmh.args="-t 64 AdjustableNumberGeneratorBenchmark"}.
+ * Repeat with 1, 2, 4 ... 64 threads to see how each implementation scales.</p>
+ * @author Daniel Dyer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class AdjustableNumberGeneratorBenchmark
+{
+    private final LockingNumberGenerator<Double> locking = new LockingNumberGenerator<Double>(1d);
+    private final AdjustableNumberGenerator<Double> boxed = new AdjustableNumberGenerator<Double>(1d);
+    private final AdjustableDoubleGenerator primitive = new AdjustableDoubleGenerator(1d);
+
+
+    @Benchmark
+    public Double lockingNextValue()
+    {
+        return locking.nextValue();
+    }
+
+
+    @Benchmark
+    public Double nextValue()
+    {
+        return boxed.nextValue();
+    }
+
+
+    @Benchmark
+    public double primitiveNextDouble()
+    {
+        return primitive.nextDouble();
+    }
+
+
+    @Benchmark
+    public long getVersion()
+    {
+        return boxed.getVersion();
+    }
+
+
+    /**
+     * The read-write lock implementation of {@link AdjustableNumberGenerator}
+     * from earlier versions, for comparison.
+     */
+    private static final class LockingNumberGenerator<T extends Number> implements NumberGenerator<T>
+    {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final T value;
+
+        LockingNumberGenerator(T value)
+        {
+            this.value = value;
+        }
+
+        public T nextValue()
+        {
+            try
+            {
+                lock.readLock().lock();
+                return value;
+            }
+            finally
+            {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
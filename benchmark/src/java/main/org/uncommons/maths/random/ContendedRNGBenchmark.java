@@ -0,0 +1,34 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Runs the same benchmarks as {@link RNGBenchmark} but with several threads
+ * sharing a single RNG instance.  This measures the cost of the locking that
+ * makes the RNGs thread-safe, which is the dominant cost when a generator is
+ * shared by a pool of workers.
+ * @author Daniel Dyer
+ */
+@State(Scope.Benchmark)
+@Threads(4)
+public class ContendedRNGBenchmark extends RNGBenchmark
+{
+    // All benchmark methods are inherited, only the state scope and thread count differ.
+}
@@ -0,0 +1,190 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>JMH micro-benchmarks that measure the throughput of each of the primitive
+ * methods of the {@link RepeatableRNG} implementations.  Each benchmark thread
+ * has its own RNG instance, so these figures reflect the uncontended cost of
+ * generating values.  See {@link ContendedRNGBenchmark} for the cost when many
+ * threads share a single instance.</p>
+ *
+ * <p>Run via the {@literal benchmark} target of the Ant build, which also enables
+ * the GC profiler so that allocation rates are reported alongside throughput.</p>
+ * @author Daniel Dyer
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RNGBenchmark
+{
+    private static final int BOUND = 1000;
+    private static final int BULK_SIZE = 1024;
+
+    @Param({"MersenneTwisterRNG",
+            "MersenneTwister64RNG",
+            "AESCounterRNG",
+            "CellularAutomatonRNG",
+            "CMWC4096RNG",
+            "XORShiftRNG",
+            "MultiLaneXORShiftRNG",
+            "PhiloxRNG",
+            "ThreefryRNG",
+            "SplitMix64RNG",
+            "Xoroshiro128PlusRNG",
+            "Xoshiro256StarStarRNG",
+            "PCG32RNG",
+            "PCG64RNG",
+            "JavaRNG"})
+    public String rngType; // Must be public so that JMH can inject values.
+
+    /**
+     * Whether the RNG locks its state (see {@link AbstractRNG}).  Since each thread has its
+     * own RNG, comparing the two modes shows the uncontended cost of locking.  JavaRNG has
+     * no such option, so it is measured as it is in both cases.
+     */
+    @Param({"true", "false"})
+    public boolean threadSafe;
+
+    private Random rng;
+
+
+    /**
+     * Creates the RNG under test.  Seed data comes from {@link SecureRandomSeedGenerator}
+     * so that set-up never blocks waiting for entropy.
+     * @throws Exception If the RNG cannot be instantiated.
+     */
+    @Setup
+    public void createRNG() throws Exception
+    {
+        Class<? extends Random> rngClass = Class.forName(getClass().getPackage().getName() + '.' + rngType)
+                                                .asSubclass(Random.class);
+        // Seeding via the SeedGenerator constructor gets a seed of the right size for the RNG.
+        rng = rngClass.getConstructor(SeedGenerator.class).newInstance(new SecureRandomSeedGenerator());
+        if (rng instanceof AbstractRNG)
+        {
+            byte[] seed = ((RepeatableRNG) rng).getSeed();
+            rng = rngClass.getConstructor(byte[].class, boolean.class).newInstance(seed, threadSafe);
+        }
+    }
+
+
+    @Benchmark
+    public int nextInt()
+    {
+        return rng.nextInt();
+    }
+
+
+    @Benchmark
+    public int nextIntBounded()
+    {
+        return rng.nextInt(BOUND);
+    }
+
+
+    @Benchmark
+    public long nextLong()
+    {
+        return rng.nextLong();
+    }
+
+
+    @Benchmark
+    public boolean nextBoolean()
+    {
+        return rng.nextBoolean();
+    }
+
+
+    @Benchmark
+    public float nextFloat()
+    {
+        return rng.nextFloat();
+    }
+
+
+    @Benchmark
+    public double nextDouble()
+    {
+        return rng.nextDouble();
+    }
+
+
+    @Benchmark
+    public double nextGaussian()
+    {
+        return rng.nextGaussian();
+    }
+
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public int[] nextIntsBulk(Buffers buffers)
+    {
+        ((BulkRNG) rng).nextInts(buffers.ints);
+        return buffers.ints;
+    }
+
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public long[] nextLongsBulk(Buffers buffers)
+    {
+        ((BulkRNG) rng).nextLongs(buffers.longs);
+        return buffers.longs;
+    }
+
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public double[] nextDoublesBulk(Buffers buffers)
+    {
+        ((BulkRNG) rng).nextDoubles(buffers.doubles);
+        return buffers.doubles;
+    }
+
+
+    /**
+     * Per-thread output arrays for the bulk generation benchmarks.  Results are
+     * reported per value generated rather than per array.
+     */
+    @State(Scope.Thread)
+    public static class Buffers
+    {
+        public final int[] ints = new int[BULK_SIZE];
+        public final long[] longs = new long[BULK_SIZE];
+        public final double[] doubles = new double[BULK_SIZE];
+    }
+}
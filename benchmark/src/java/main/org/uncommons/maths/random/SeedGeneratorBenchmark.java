@@ -0,0 +1,81 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Measures the time taken to generate a single seed with each of the local
+ * {@link SeedGenerator} implementations.  The seed size matches that needed by the
+ * {@link MersenneTwisterRNG}.  {@link RandomDotOrgSeedGenerator} is not included
+ * because its latency is dominated by the network.</p>
+ *
+ * <p>The {@link DevRandomSeedGenerator} may block when the kernel's entropy pool is
+ * exhausted, so its figures vary a lot between systems.  The {@link DerivedSeedGenerator}
+ * performs no I/O and is included for comparison.</p>
+ * @author Daniel Dyer
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SeedGeneratorBenchmark
+{
+    private static final int SEED_SIZE_BYTES = 16;
+
+    @Param({"DevURandomSeedGenerator",
+            "DevRandomSeedGenerator",
+            "SecureRandomSeedGenerator",
+            "DerivedSeedGenerator"})
+    public String generatorType; // Must be public so that JMH can inject values.
+
+    private SeedGenerator generator;
+
+
+    @Setup
+    public void createGenerator() throws Exception
+    {
+        if (generatorType.equals("DerivedSeedGenerator"))
+        {
+            // Needs a master seed, so can't be created reflectively.
+            generator = new DerivedSeedGenerator(new SecureRandomSeedGenerator().generateSeed(SEED_SIZE_BYTES));
+            return;
+        }
+        generator = Class.forName(getClass().getPackage().getName() + '.' + generatorType)
+                         .asSubclass(SeedGenerator.class)
+                         .newInstance();
+    }
+
+
+    @Benchmark
+    public byte[] generateSeed() throws SeedException
+    {
+        return generator.generateSeed(SEED_SIZE_BYTES);
+    }
+}
@@ -0,0 +1,81 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.number;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Equivalent of {@link AdjustableNumberGenerator} for {@literal double} values.
+ * The value is held as a primitive, so neither {@link #nextDouble()} nor
+ * {@link #setValue(double)} allocate any objects.  This class is thread-safe
+ * and does not use locks.
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+public class AdjustableDoubleGenerator implements DoubleGenerator, VersionedNumberGenerator<Double>
+{
+    private volatile double value;
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * @param value The initial value returned by all invocations of {@link #nextDouble()}
+     * (until it is modified by a call to {@link #setValue(double)}.
+     */
+    public AdjustableDoubleGenerator(double value)
+    {
+        this.value = value;
+    }
+
+
+    /**
+     * Change the value that is returned by this generator.
+     * @param value The new value to return.
+     */
+    public void setValue(double value)
+    {
+        this.value = value;
+        // Incremented after the value is set so that anybody who observes
+        // the new version is guaranteed to see the new value.
+        version.incrementAndGet();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public long getVersion()
+    {
+        return version.get();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public double nextDouble()
+    {
+        return value;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public Double nextValue()
+    {
+        return value;
+    }
+}
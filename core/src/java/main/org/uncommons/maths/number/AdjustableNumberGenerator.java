@@ -15,8 +15,7 @@
 // ============================================================================
 package org.uncommons.maths.number;
 
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Implementation of {@link NumberGenerator} that works similarly to
@@ -27,13 +26,17 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  * for their parameters.  This can be achieved by creating UI components (e.g.
  * sliders and spinners) that invoke {@link #setValue(Number)} when their state
  * changes. 
+ * This class is thread-safe and does not use locks, so reading the value from
+ * many threads at once does not cause contention.
  * @param <T> The type of number generated by this number generator.
  * @author Daniel Dyer
+ * @see AdjustableDoubleGenerator
+ * @see AdjustableIntGenerator
  */
-public class AdjustableNumberGenerator<T extends Number> implements NumberGenerator<T>
+public class AdjustableNumberGenerator<T extends Number> implements VersionedNumberGenerator<T>
 {
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
-    private T value;
+    private volatile T value;
+    private final AtomicLong version = new AtomicLong();
 
     /**
      * @param value The initial value returned by all invocations of {@link #nextValue()}
@@ -51,15 +54,20 @@ public class AdjustableNumberGenerator<T extends Number> implements NumberGenera
      */
     public void setValue(T value)
     {
-        try
-        {
-            lock.writeLock().lock();
-            this.value = value;
-        }
-        finally
-        {
-            lock.writeLock().unlock();
-        }
+        this.value = value;
+        // Incremented after the value is set so that anybody who observes
+        // the new version is guaranteed to see the new value.
+        version.incrementAndGet();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     * @since 1.3
+     */
+    public long getVersion()
+    {
+        return version.get();
     }
 
 
@@ -68,14 +76,6 @@ public class AdjustableNumberGenerator<T extends Number> implements NumberGenera
      */
     public T nextValue()
     {
-        try
-        {
-            lock.readLock().lock();
-            return value;
-        }
-        finally
-        {
-            lock.readLock().unlock();
-        }
+        return value;
     }
 }
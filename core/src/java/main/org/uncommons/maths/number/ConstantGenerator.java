@@ -21,7 +21,7 @@ package org.uncommons.maths.number;
  * @param <T> The numeric type (Integer, Long, Double, etc.) of the constant.
  * @author Daniel Dyer
  */
-public class ConstantGenerator<T extends Number> implements NumberGenerator<T>
+public class ConstantGenerator<T extends Number> implements VersionedNumberGenerator<T>
 {
     private final T constant;
 
@@ -43,4 +43,13 @@ public class ConstantGenerator<T extends Number> implements NumberGenerator<T>
     {
         return constant;
     }
+
+    /**
+     * @return Always zero, since the value never changes.
+     * @since 1.3
+     */
+    public long getVersion()
+    {
+        return 0;
+    }
 }
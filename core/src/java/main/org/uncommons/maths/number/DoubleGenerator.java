@@ -0,0 +1,34 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.number;
+
+/**
+ * A {@link NumberGenerator} that can also provide its values as primitive
+ * {@literal double}s.  Callers that know they are dealing with one of these can
+ * use {@link #nextDouble()} instead of {@link #nextValue()} to avoid allocating a
+ * new {@link Double} for every value.
+ * @author Daniel Dyer
+ * @since 1.3
+ * @see PrimitiveGenerators
+ */
+public interface DoubleGenerator extends NumberGenerator<Double>
+{
+    /**
+     * Returns the same sequence as {@link #nextValue()}, without boxing.
+     * @return The next value from the generator.
+     */
+    double nextDouble();
+}
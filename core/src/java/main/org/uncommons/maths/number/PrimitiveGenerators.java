@@ -0,0 +1,316 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.number;
+
+/**
+ * Factory methods for {@link DoubleGenerator}, {@link IntGenerator} and
+ * {@link LongGenerator} instances.  Classes that accept {@link NumberGenerator}
+ * parameters can use the {@literal as...} methods to convert them once, on
+ * construction, so that retrieving each parameter value does not need a
+ * {@link Number} object.  Constants and adapted {@link VersionedNumberGenerator}s
+ * also implement {@link VersionedNumberGenerator}.
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+public final class PrimitiveGenerators
+{
+    private PrimitiveGenerators()
+    {
+        // Prevents instantiation of utility class.
+    }
+
+
+    /**
+     * @param constant The value to be returned by the generator.
+     * @return A generator that always returns the specified value.
+     */
+    public static DoubleGenerator constant(double constant)
+    {
+        return new DoubleConstant(constant);
+    }
+
+
+    /**
+     * @param constant The value to be returned by the generator.
+     * @return A generator that always returns the specified value.
+     */
+    public static IntGenerator constant(int constant)
+    {
+        return new IntConstant(constant);
+    }
+
+
+    /**
+     * @param constant The value to be returned by the generator.
+     * @return A generator that always returns the specified value.
+     */
+    public static LongGenerator constant(long constant)
+    {
+        return new LongConstant(constant);
+    }
+
+
+    /**
+     * Adapts an arbitrary {@link NumberGenerator} to the {@link DoubleGenerator}
+     * interface.
+     * @param generator The generator to adapt.
+     * @return The generator itself if it is already a {@link DoubleGenerator},
+     * otherwise a view of it that unboxes each value.
+     */
+    public static DoubleGenerator asDoubleGenerator(final NumberGenerator<Double> generator)
+    {
+        if (generator instanceof DoubleGenerator)
+        {
+            return (DoubleGenerator) generator;
+        }
+        else if (generator instanceof VersionedNumberGenerator)
+        {
+            return new VersionedDoubleAdapter((VersionedNumberGenerator<Double>) generator);
+        }
+        return new DoubleGenerator()
+        {
+            public double nextDouble()
+            {
+                return generator.nextValue();
+            }
+
+            public Double nextValue()
+            {
+                return generator.nextValue();
+            }
+        };
+    }
+
+
+    /**
+     * Adapts an arbitrary {@link NumberGenerator} to the {@link IntGenerator}
+     * interface.
+     * @param generator The generator to adapt.
+     * @return The generator itself if it is already an {@link IntGenerator},
+     * otherwise a view of it that unboxes each value.
+     */
+    public static IntGenerator asIntGenerator(final NumberGenerator<Integer> generator)
+    {
+        if (generator instanceof IntGenerator)
+        {
+            return (IntGenerator) generator;
+        }
+        else if (generator instanceof VersionedNumberGenerator)
+        {
+            return new VersionedIntAdapter((VersionedNumberGenerator<Integer>) generator);
+        }
+        return new IntGenerator()
+        {
+            public int nextInt()
+            {
+                return generator.nextValue();
+            }
+
+            public Integer nextValue()
+            {
+                return generator.nextValue();
+            }
+        };
+    }
+
+
+    /**
+     * Adapts an arbitrary {@link NumberGenerator} to the {@link LongGenerator}
+     * interface.
+     * @param generator The generator to adapt.
+     * @return The generator itself if it is already a {@link LongGenerator},
+     * otherwise a view of it that unboxes each value.
+     */
+    public static LongGenerator asLongGenerator(final NumberGenerator<Long> generator)
+    {
+        if (generator instanceof LongGenerator)
+        {
+            return (LongGenerator) generator;
+        }
+        else if (generator instanceof VersionedNumberGenerator)
+        {
+            return new VersionedLongAdapter((VersionedNumberGenerator<Long>) generator);
+        }
+        return new LongGenerator()
+        {
+            public long nextLong()
+            {
+                return generator.nextValue();
+            }
+
+            public Long nextValue()
+            {
+                return generator.nextValue();
+            }
+        };
+    }
+
+
+    private static final class DoubleConstant implements DoubleGenerator, VersionedNumberGenerator<Double>
+    {
+        private final double constant;
+
+        DoubleConstant(double constant)
+        {
+            this.constant = constant;
+        }
+
+        public double nextDouble()
+        {
+            return constant;
+        }
+
+        public Double nextValue()
+        {
+            return constant;
+        }
+
+        public long getVersion()
+        {
+            return 0;
+        }
+    }
+
+
+    private static final class IntConstant implements IntGenerator, VersionedNumberGenerator<Integer>
+    {
+        private final int constant;
+
+        IntConstant(int constant)
+        {
+            this.constant = constant;
+        }
+
+        public int nextInt()
+        {
+            return constant;
+        }
+
+        public Integer nextValue()
+        {
+            return constant;
+        }
+
+        public long getVersion()
+        {
+            return 0;
+        }
+    }
+
+
+    private static final class LongConstant implements LongGenerator, VersionedNumberGenerator<Long>
+    {
+        private final long constant;
+
+        LongConstant(long constant)
+        {
+            this.constant = constant;
+        }
+
+        public long nextLong()
+        {
+            return constant;
+        }
+
+        public Long nextValue()
+        {
+            return constant;
+        }
+
+        public long getVersion()
+        {
+            return 0;
+        }
+    }
+
+
+    private static final class VersionedDoubleAdapter implements DoubleGenerator, VersionedNumberGenerator<Double>
+    {
+        private final VersionedNumberGenerator<Double> generator;
+
+        VersionedDoubleAdapter(VersionedNumberGenerator<Double> generator)
+        {
+            this.generator = generator;
+        }
+
+        public double nextDouble()
+        {
+            return generator.nextValue();
+        }
+
+        public Double nextValue()
+        {
+            return generator.nextValue();
+        }
+
+        public long getVersion()
+        {
+            return generator.getVersion();
+        }
+    }
+
+
+    private static final class VersionedIntAdapter implements IntGenerator, VersionedNumberGenerator<Integer>
+    {
+        private final VersionedNumberGenerator<Integer> generator;
+
+        VersionedIntAdapter(VersionedNumberGenerator<Integer> generator)
+        {
+            this.generator = generator;
+        }
+
+        public int nextInt()
+        {
+            return generator.nextValue();
+        }
+
+        public Integer nextValue()
+        {
+            return generator.nextValue();
+        }
+
+        public long getVersion()
+        {
+            return generator.getVersion();
+        }
+    }
+
+
+    private static final class VersionedLongAdapter implements LongGenerator, VersionedNumberGenerator<Long>
+    {
+        private final VersionedNumberGenerator<Long> generator;
+
+        VersionedLongAdapter(VersionedNumberGenerator<Long> generator)
+        {
+            this.generator = generator;
+        }
+
+        public long nextLong()
+        {
+            return generator.nextValue();
+        }
+
+        public Long nextValue()
+        {
+            return generator.nextValue();
+        }
+
+        public long getVersion()
+        {
+            return generator.getVersion();
+        }
+    }
+}
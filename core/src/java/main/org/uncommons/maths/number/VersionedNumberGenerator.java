@@ -0,0 +1,44 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.number;
+
+/**
+ * A {@link NumberGenerator} whose value only changes in response to an explicit
+ * modification, such as a call to {@link AdjustableNumberGenerator#setValue(Number)}.
+ * Each change increments the generator's version.  Classes that derive
+ * expensive constants from a parameter generator (logarithms, square roots,
+ * lookup tables, etc.) can therefore check the version, which is cheap,
+ * and only read the value and recalculate when it has changed.
+ * @param <T> The type of number generated.
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+public interface VersionedNumberGenerator<T extends Number> extends NumberGenerator<T>
+{
+    /**
+     * Returns the number of times that the value of this generator has changed.
+     * The version never decreases.  Each new value becomes visible before the
+     * version is incremented, so once this method has returned version {@literal v},
+     * {@link #nextValue()} returns the value from change {@literal v} or from a later
+     * change.  A caller that caches something derived from the value should
+     * therefore read the version first and the value second, and then only
+     * needs to refresh its cache when the version changes.  The converse does
+     * not hold: while a change is in progress, {@link #nextValue()} may return the
+     * new value even though the version has not yet been incremented.
+     * @return The current version of the generator's value.
+     */
+    long getVersion();
+}
@@ -15,10 +15,13 @@
 // ============================================================================
 package org.uncommons.maths.random;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.security.GeneralSecurityException;
 import java.util.Arrays;
 import java.util.Random;
-import java.util.concurrent.locks.ReentrantLock;
 import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
 import org.uncommons.maths.binary.BinaryUtils;
@@ -38,24 +41,33 @@ import org.uncommons.maths.binary.BinaryUtils;
  * from {@link Random}.  Calls to this method will have no effect.
  * Instead the seed must be set by a constructor.</em></p>
  *
- * <p><em>NOTE: THIS CLASS IS NOT SERIALIZABLE</em></p>
+ * <p>Since each block of output depends only on the key and the value of the counter,
+ * the RNG can seek directly to any position in its output (see {@link SeekableRNG}).
+ * The counter is a 128-bit little-endian value that is incremented before each block is
+ * generated, so the first block is generated from a counter value of one.</p>
+ *
+ * <p>Output is generated 4KB at a time, by encrypting a batch of successive counter
+ * values with a single call to the cipher.  This is much faster than encrypting one
+ * block at a time but the output is identical.</p>
  * 
  * @author Daniel Dyer
  */
-public class AESCounterRNG extends Random implements RepeatableRNG
+public class AESCounterRNG extends AbstractRNG implements SeekableRNG
 {
     private static final int DEFAULT_SEED_SIZE_BYTES = 16;
+    private static final int BLOCK_SIZE_BYTES = 16;
+    // Number of blocks to encrypt with each call to the cipher (4KB of output).
+    private static final int BLOCKS_PER_BATCH = 256;
 
-    private final byte[] seed;
-    private final Cipher cipher; // TO DO: This field is not Serializable.
-    private final byte[] counter = new byte[16]; // 128-bit counter.
-
-    // Lock to prevent concurrent modification of the RNG's internal state.
-    private final ReentrantLock lock = new ReentrantLock();
+    private byte[] seed;
+    private transient Cipher cipher; // Re-created from the seed when de-serialised.
+    private final byte[] counter = new byte[BLOCK_SIZE_BYTES]; // 128-bit counter.
 
-
-    private byte[] currentBlock = null;
-    private int index = 0;
+    // Successive counter values are encrypted in batches to amortise the overhead
+    // of calling the cipher.  Both buffers are re-used for every batch.
+    private transient byte[] counterBlocks = new byte[BLOCK_SIZE_BYTES * BLOCKS_PER_BATCH];
+    private final byte[] buffer = new byte[BLOCK_SIZE_BYTES * BLOCKS_PER_BATCH];
+    private int index = buffer.length; // Index of the next unused byte in the buffer.
 
 
     /**
@@ -105,14 +117,53 @@ public class AESCounterRNG extends Random implements RepeatableRNG
      */
     public AESCounterRNG(byte[] seed) throws GeneralSecurityException
     {
+        this(seed, true);
+    }
+
+
+    /**
+     * Creates an RNG and seeds it with the specified seed data.
+     * @param seed The seed data used to initialise the RNG.
+     * @param threadSafe Whether the RNG's state should be protected by a lock.  If false, the RNG
+     * must be confined to a single thread (see {@link AbstractRNG}).
+     * @throws GeneralSecurityException If there is a problem initialising the AES cipher.
+     */
+    public AESCounterRNG(byte[] seed, boolean threadSafe) throws GeneralSecurityException
+    {
+        super(threadSafe);
         if (seed == null)
         {
             throw new IllegalArgumentException("AES RNG requires a 128-bit, 192-bit or 256-bit seed.");
         }
         this.seed = seed.clone();
 
-        cipher = Cipher.getInstance("AES/ECB/NoPadding");
-        cipher.init(Cipher.ENCRYPT_MODE, new AESKey(this.seed));
+        cipher = createCipher(this.seed);
+    }
+
+
+    private static Cipher createCipher(byte[] key) throws GeneralSecurityException
+    {
+        Cipher cipher = Cipher.getInstance("AES/ECB/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, new AESKey(key));
+        return cipher;
+    }
+
+
+    /**
+     * The cipher is not serializable so it is re-created from the seed.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+    {
+        in.defaultReadObject();
+        counterBlocks = new byte[BLOCK_SIZE_BYTES * BLOCKS_PER_BATCH];
+        try
+        {
+            cipher = createCipher(seed);
+        }
+        catch (GeneralSecurityException ex)
+        {
+            throw new IllegalStateException("Failed re-creating AES cipher.", ex);
+        }
     }
 
 
@@ -125,6 +176,136 @@ public class AESCounterRNG extends Random implements RepeatableRNG
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    public long getPosition()
+    {
+        try
+        {
+            getLock().lock();
+            long blocks = 0;
+            for (int i = 7; i >= 0; i--)
+            {
+                blocks = (blocks << 8) | (counter[i] & 0xFF);
+            }
+            // The counter is the value used for the last block in the buffer.  Each block
+            // is 16 bytes, i.e. four 32-bit values.
+            return (blocks << 2) - ((buffer.length - index) >> 2);
+        }
+        finally
+        {
+            getLock().unlock();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void seek(long position)
+    {
+        if (position < 0)
+        {
+            throw new IllegalArgumentException("Position must be non-negative.");
+        }
+        try
+        {
+            getLock().lock();
+            // Set the counter to the number of complete blocks that precede the position.
+            long blocks = position >>> 2;
+            for (int i = 0; i < counter.length; i++)
+            {
+                counter[i] = (byte) blocks;
+                blocks >>>= 8;
+            }
+            index = buffer.length;
+            int offset = (int) (position & 3);
+            if (offset != 0)
+            {
+                nextBatch();
+                index = offset << 2;
+            }
+        }
+        catch (GeneralSecurityException ex)
+        {
+            // Should never happen.  If initialisation succeeds without exceptions
+            // we should be able to proceed indefinitely without exceptions.
+            throw new IllegalStateException("Failed creating next random block.", ex);
+        }
+        finally
+        {
+            getLock().unlock();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void writeState(DataOutput out) throws IOException
+    {
+        writeBytes(out, seed);
+        // Rather than the buffered output, save the number of blocks that have been consumed
+        // and the offset into the next block.
+        byte[] consumedBlocks = counter.clone();
+        addToCounter(consumedBlocks, (index / BLOCK_SIZE_BYTES) - BLOCKS_PER_BATCH);
+        out.write(consumedBlocks);
+        out.writeByte(index % BLOCK_SIZE_BYTES);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void readState(DataInput in) throws IOException
+    {
+        byte[] newSeed = readBytes(in, 16, 32);
+        byte[] newCounter = new byte[BLOCK_SIZE_BYTES];
+        in.readFully(newCounter);
+        int offset = in.readByte();
+        if (offset < 0 || offset >= BLOCK_SIZE_BYTES || offset % 4 != 0)
+        {
+            throw new IllegalArgumentException("Invalid block offset: " + offset);
+        }
+        Cipher newCipher;
+        try
+        {
+            newCipher = createCipher(newSeed);
+        }
+        catch (GeneralSecurityException ex)
+        {
+            throw new IllegalArgumentException("Invalid AES key in RNG state.", ex);
+        }
+        seed = newSeed;
+        cipher = newCipher;
+        System.arraycopy(newCounter, 0, counter, 0, BLOCK_SIZE_BYTES);
+        index = buffer.length;
+        if (offset != 0)
+        {
+            refill();
+            index = offset;
+        }
+    }
+
+
+    /**
+     * Adds a (possibly negative) value to a 128-bit little-endian counter.
+     */
+    private static void addToCounter(byte[] counter, long delta)
+    {
+        long carry = delta;
+        for (int i = 0; i < counter.length && carry != 0; i++)
+        {
+            long sum = (counter[i] & 0xFF) + carry;
+            counter[i] = (byte) sum;
+            carry = sum >> 8;
+        }
+    }
+
+
     private void incrementCounter()
     {
         for (int i = 0; i < counter.length; i++)
@@ -139,15 +320,19 @@ public class AESCounterRNG extends Random implements RepeatableRNG
 
 
     /**
-     * Generates a single 128-bit block (16 bytes).
+     * Refills the buffer with the next batch of 128-bit blocks.
      * @throws GeneralSecurityException If there is a problem with the cipher
      * that generates the random data.
-     * @return A 16-byte block of random data.
      */
-    private byte[] nextBlock() throws GeneralSecurityException
+    private void nextBatch() throws GeneralSecurityException
     {
-        incrementCounter();
-        return cipher.doFinal(counter);
+        for (int i = 0; i < counterBlocks.length; i += BLOCK_SIZE_BYTES)
+        {
+            incrementCounter();
+            System.arraycopy(counter, 0, counterBlocks, i, BLOCK_SIZE_BYTES);
+        }
+        cipher.doFinal(counterBlocks, 0, counterBlocks.length, buffer, 0);
+        index = 0;
     }
 
 
@@ -155,34 +340,57 @@ public class AESCounterRNG extends Random implements RepeatableRNG
      * {@inheritDoc}
      */
     @Override
-    protected final int next(int bits)
+    protected final int nextWord()
     {
-        int result;
-        try
+        if (index >= buffer.length)
         {
-            lock.lock();
-            if (currentBlock == null || currentBlock.length - index < 4)
+            refill();
+        }
+        int result = BinaryUtils.convertBytesToInt(buffer, index);
+        index += 4;
+        return result;
+    }
+
+
+    /**
+     * Over-ridden to convert whole runs of the buffer at a time rather than
+     * checking whether it needs refilling before every value.
+     * @param values The array to fill.
+     * @param fromIndex The index of the first element (inclusive) to fill.
+     * @param toIndex The index of the last element (exclusive) to fill.
+     */
+    @Override
+    protected void nextWords(int[] values, int fromIndex, int toIndex)
+    {
+        int i = fromIndex;
+        while (i < toIndex)
+        {
+            if (index >= buffer.length)
             {
-                try
-                {
-                    currentBlock = nextBlock();
-                    index = 0;
-                }
-                catch (GeneralSecurityException ex)
-                {
-                    // Should never happen.  If initialisation succeeds without exceptions
-                    // we should be able to proceed indefinitely without exceptions.
-                    throw new IllegalStateException("Failed creating next random block.", ex);
-                }
+                refill();
+            }
+            int end = Math.min(toIndex, i + ((buffer.length - index) >> 2));
+            while (i < end)
+            {
+                values[i++] = BinaryUtils.convertBytesToInt(buffer, index);
+                index += 4;
             }
-            result = BinaryUtils.convertBytesToInt(currentBlock, index);
-            index += 4;
         }
-        finally
+    }
+
+
+    private void refill()
+    {
+        try
+        {
+            nextBatch();
+        }
+        catch (GeneralSecurityException ex)
         {
-            lock.unlock();
+            // Should never happen.  If initialisation succeeds without exceptions
+            // we should be able to proceed indefinitely without exceptions.
+            throw new IllegalStateException("Failed creating next random block.", ex);
         }
-        return result >>> (32 - bits);
     }
 
 
@@ -209,9 +417,14 @@ public class AESCounterRNG extends Random implements RepeatableRNG
             return "RAW";
         }
 
+        /**
+         * Returns a copy of the key data.  Some cipher providers over-write the
+         * array once they have finished with it, which would otherwise destroy the
+         * RNG's seed.
+         */
         public byte[] getEncoded()
         {
-            return keyData;
+            return keyData.clone();
         }
 
 
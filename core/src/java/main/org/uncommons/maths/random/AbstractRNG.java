@@ -0,0 +1,625 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.uncommons.maths.binary.BinaryUtils;
+
+/**
+ * <p>Common base class for RNGs that produce 32 bits of output per state update.
+ * Sub-classes implement {@link #nextWord()} to advance their internal state and this
+ * class takes care of guarding the state against concurrent modification.</p>
+ *
+ * <p>By default each instance uses its own lock so that it can safely be shared between
+ * threads.  Each RNG also has a constructor that takes a {@code threadSafe} flag.
+ * Instances created with that flag set to false do not lock at all, which makes them
+ * considerably faster, but they must be confined to a single thread (for example by
+ * giving each worker its own RNG or by using a {@link ThreadLocalRNG}).  Both kinds of
+ * instance produce identical output from identical seeds.</p>
+ *
+ * <p>Methods that need more than 32 random bits (such as {@link #nextLong()} and
+ * {@link #nextDouble()}) acquire the lock only once, rather than once per
+ * 32 bits as in {@link Random}.  RNGs that natively generate 64 bits per state
+ * update can over-ride {@link #nextLongWord()} and {@link #nextUnitDouble()} so that
+ * these methods need only a single state update.  This class also implements the
+ * {@link BulkRNG} operations, generating each array of values while holding the lock
+ * only once.  Bounded integers ({@link #nextInt(int)} and {@link #nextLong(long)}) are
+ * generated with a multiplication rather than a division.</p>
+ *
+ * <p>Sub-classes implement {@link #writeState(DataOutput)} and {@link #readState(DataInput)}
+ * to support checkpointing (see {@link CheckpointableRNG}).  This class takes care of
+ * locking and of the extra Gaussian value that is cached by {@link #nextGaussian()}.</p>
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+public abstract class AbstractRNG extends Random implements BulkRNG, CheckpointableRNG
+{
+    // Identifies the format of the data returned by getState().
+    private static final byte STATE_FORMAT_VERSION = 1;
+
+    // Multiplier for converting 53 random bits into a double in the range [0, 1).
+    static final double DOUBLE_UNIT = 1.0 / (1L << 53);
+
+    // Lock to prevent concurrent modification of the RNG's internal state.
+    private final Lock lock;
+
+    // The second of each pair of values from nextGaussian().  This duplicates the private
+    // fields of java.util.Random so that they can be included in checkpoints.
+    private double nextNextGaussian;
+    private boolean haveNextNextGaussian = false;
+
+
+    /**
+     * @param threadSafe Whether or not the RNG's state should be protected from
+     * concurrent modification.  If false, the RNG must only ever be used by one
+     * thread at a time.
+     */
+    protected AbstractRNG(boolean threadSafe)
+    {
+        this.lock = threadSafe ? new ReentrantLock() : NullLock.INSTANCE;
+    }
+
+
+    /**
+     * Provides access to the lock that guards the RNG's state, for sub-classes that need to
+     * read or modify that state other than via {@link #nextWord()} and the related methods.
+     * For instances that are not thread-safe the lock does nothing.
+     * @return The lock for this RNG.
+     */
+    protected final Lock getLock()
+    {
+        return lock;
+    }
+
+
+    /**
+     * @return True if this RNG's state is protected by a lock, false if it must be
+     * confined to a single thread.
+     */
+    protected final boolean isThreadSafe()
+    {
+        return !(lock instanceof NullLock);
+    }
+
+
+    /**
+     * Advance the internal state of the RNG and return the next 32 bits of output.
+     * This method is always called with the RNG's lock held so implementations
+     * should not do any locking of their own.
+     * @return 32 random bits.
+     */
+    protected abstract int nextWord();
+
+
+    /**
+     * Advance the internal state of the RNG and return the next 64 bits of output.
+     * The default implementation combines two successive values from {@link #nextWord()}
+     * in the same way as {@link Random#nextLong()}.  RNGs that natively generate 64 bits
+     * at a time should over-ride this method.  It is always called with the RNG's lock held.
+     * @return 64 random bits.
+     */
+    protected long nextLongWord()
+    {
+        return ((long) nextWord() << 32) + nextWord();
+    }
+
+
+    /**
+     * Advance the internal state of the RNG and return a uniformly distributed double
+     * in the range 0 (inclusive) to 1 (exclusive).  The default implementation uses 26 bits
+     * from one call to {@link #nextWord()} and 27 bits from the next, exactly as
+     * {@link Random#nextDouble()} does.  RNGs that natively generate 64 bits at a time
+     * should over-ride this method to take all 53 bits from one call to
+     * {@link #nextLongWord()}.  It is always called with the RNG's lock held.
+     * @return A random double in the range [0, 1).
+     */
+    protected double nextUnitDouble()
+    {
+        return (((long) (nextWord() >>> 6) << 27) + (nextWord() >>> 5)) * DOUBLE_UNIT;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int next(int bits)
+    {
+        int result;
+        try
+        {
+            lock.lock();
+            result = nextWord();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+        return result >>> (32 - bits);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long nextLong()
+    {
+        try
+        {
+            lock.lock();
+            return nextLongWord();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Over-ridden to use Lemire's multiply-shift method, which avoids the division that
+     * {@link Random#nextInt(int)} performs for each value.  The results are uniformly
+     * distributed but differ from those of {@link Random#nextInt(int)}.
+     * @param bound The (exclusive) upper bound.  Must be positive.
+     * @return A random int in the range [0, bound).
+     */
+    @Override
+    public int nextInt(int bound)
+    {
+        return BoundedIntegers.nextInt(this, bound);
+    }
+
+
+    /**
+     * Generates a uniformly distributed long in a bounded range, using the same
+     * multiply-shift method as {@link #nextInt(int)}.  Usually consumes one value
+     * from {@link #nextLongWord()}.
+     * @param bound The (exclusive) upper bound.  Must be positive.
+     * @return A random long in the range [0, bound).
+     */
+    public long nextLong(long bound)
+    {
+        return BoundedIntegers.nextLong(this, bound);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double nextDouble()
+    {
+        try
+        {
+            lock.lock();
+            return nextUnitDouble();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public float nextFloat()
+    {
+        return next(24) / ((float) (1 << 24));
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean nextBoolean()
+    {
+        return next(1) != 0;
+    }
+
+
+    /**
+     * Over-ridden so that the cached second value is part of the RNG's saved state.
+     * Uses the same polar method as {@link Random#nextGaussian()} and produces the same values.
+     * @return A normally distributed value with mean 0 and standard deviation 1.
+     */
+    @Override
+    public double nextGaussian()
+    {
+        try
+        {
+            lock.lock();
+            if (haveNextNextGaussian)
+            {
+                haveNextNextGaussian = false;
+                return nextNextGaussian;
+            }
+            double v1;
+            double v2;
+            double s;
+            do
+            {
+                v1 = 2 * nextUnitDouble() - 1; // Between -1 and 1.
+                v2 = 2 * nextUnitDouble() - 1; // Between -1 and 1.
+                s = v1 * v1 + v2 * v2;
+            } while (s >= 1 || s == 0);
+            double multiplier = StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+            nextNextGaussian = v2 * multiplier;
+            haveNextNextGaussian = true;
+            return v1 * multiplier;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Over-ridden to fill the entire array while holding the lock only once.
+     * @param bytes The array to fill.
+     */
+    @Override
+    public void nextBytes(byte[] bytes)
+    {
+        try
+        {
+            lock.lock();
+            int i = 0;
+            while (i < bytes.length)
+            {
+                // Same byte order as Random.nextBytes(byte[]).
+                int word = nextWord();
+                for (int n = Math.min(bytes.length - i, 4); n > 0; n--)
+                {
+                    bytes[i++] = (byte) word;
+                    word >>= 8;
+                }
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Fills a range of an array with successive values from {@link #nextWord()}.
+     * Like {@link #nextWord()}, this method is always called with the RNG's lock held.
+     * Sub-classes may over-ride it if they can generate blocks of values more efficiently
+     * than one at a time.
+     * @param values The array to fill.
+     * @param fromIndex The index of the first element (inclusive) to fill.
+     * @param toIndex The index of the last element (exclusive) to fill.
+     */
+    protected void nextWords(int[] values, int fromIndex, int toIndex)
+    {
+        for (int i = fromIndex; i < toIndex; i++)
+        {
+            values[i] = nextWord();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void nextInts(int[] values)
+    {
+        nextInts(values, 0, values.length);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void nextInts(int[] values, int fromIndex, int toIndex)
+    {
+        checkRange(values.length, fromIndex, toIndex);
+        try
+        {
+            lock.lock();
+            nextWords(values, fromIndex, toIndex);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void nextLongs(long[] values)
+    {
+        nextLongs(values, 0, values.length);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void nextLongs(long[] values, int fromIndex, int toIndex)
+    {
+        checkRange(values.length, fromIndex, toIndex);
+        try
+        {
+            lock.lock();
+            for (int i = fromIndex; i < toIndex; i++)
+            {
+                values[i] = nextLongWord();
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void nextDoubles(double[] values)
+    {
+        nextDoubles(values, 0, values.length);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void nextDoubles(double[] values, int fromIndex, int toIndex)
+    {
+        checkRange(values.length, fromIndex, toIndex);
+        try
+        {
+            lock.lock();
+            for (int i = fromIndex; i < toIndex; i++)
+            {
+                values[i] = nextUnitDouble();
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public byte[] getState()
+    {
+        try
+        {
+            lock.lock();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(STATE_FORMAT_VERSION);
+            out.writeBoolean(haveNextNextGaussian);
+            out.writeDouble(haveNextNextGaussian ? nextNextGaussian : 0);
+            writeState(out);
+            out.flush();
+            return bytes.toByteArray();
+        }
+        catch (IOException ex)
+        {
+            // Should never happen when writing to a byte array.
+            throw new IllegalStateException("Failed saving RNG state.", ex);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void setState(byte[] state)
+    {
+        try
+        {
+            lock.lock();
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(state));
+            if (in.readByte() != STATE_FORMAT_VERSION)
+            {
+                throw new IllegalArgumentException("Unrecognised RNG state format.");
+            }
+            boolean haveGaussian = in.readBoolean();
+            double gaussian = in.readDouble();
+            // readState() only validates the data that it reads, so keep a copy of the
+            // current state in case the new state turns out to have trailing data.
+            ByteArrayOutputStream previous = new ByteArrayOutputStream();
+            writeState(new DataOutputStream(previous));
+            readState(in);
+            if (in.available() > 0)
+            {
+                readState(new DataInputStream(new ByteArrayInputStream(previous.toByteArray())));
+                throw new IllegalArgumentException("RNG state has unexpected trailing data.");
+            }
+            haveNextNextGaussian = haveGaussian;
+            nextNextGaussian = gaussian;
+        }
+        catch (IOException ex)
+        {
+            throw new IllegalArgumentException("Invalid RNG state.", ex);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Writes the RNG's seed and the current values of all of its state variables.
+     * Called with the RNG's lock held.
+     * @param out The destination for the state.
+     * @throws IOException If there is a problem writing the data.
+     */
+    protected abstract void writeState(DataOutput out) throws IOException;
+
+
+    /**
+     * Replaces the RNG's seed and state with data previously written by
+     * {@link #writeState(DataOutput)}.  Implementations must read and validate all of the data
+     * before modifying any fields so that invalid data does not leave the RNG in an
+     * inconsistent state.  Called with the RNG's lock held.
+     * @param in The source of the state.
+     * @throws IOException If there is a problem reading the data (including if there is not
+     * enough of it).
+     * @throws IllegalArgumentException If the data is not a valid state for this RNG.
+     */
+    protected abstract void readState(DataInput in) throws IOException;
+
+
+    /**
+     * Writes a length-prefixed array of bytes, such as a seed.
+     */
+    static void writeBytes(DataOutput out, byte[] bytes) throws IOException
+    {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+
+    /**
+     * Reads an array of bytes written by {@link #writeBytes(DataOutput, byte[])}.
+     * @param minLength The minimum valid length of the array.
+     * @param maxLength The maximum valid length of the array.
+     */
+    static byte[] readBytes(DataInput in, int minLength, int maxLength) throws IOException
+    {
+        int length = in.readInt();
+        if (length < minLength || length > maxLength)
+        {
+            throw new IllegalArgumentException("Invalid length in RNG state: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+
+    /**
+     * Checks that a range is valid for an array of the specified length.
+     * @param length The length of the array.
+     * @param fromIndex The index of the first element (inclusive) in the range.
+     * @param toIndex The index of the last element (exclusive) in the range.
+     */
+    static void checkRange(int length, int fromIndex, int toIndex)
+    {
+        if (fromIndex > toIndex)
+        {
+            throw new IllegalArgumentException("fromIndex(" + fromIndex + ") > toIndex(" + toIndex + ")");
+        }
+        if (fromIndex < 0)
+        {
+            throw new ArrayIndexOutOfBoundsException(fromIndex);
+        }
+        if (toIndex > length)
+        {
+            throw new ArrayIndexOutOfBoundsException(toIndex);
+        }
+    }
+
+
+    /**
+     * Converts eight bytes of a seed into a long using the big-endian convention.
+     * Unlike {@link BinaryUtils#convertBytesToLong(byte[], int)}, which sign-extends
+     * negative bytes (and must continue to do so in order to preserve {@link JavaRNG}
+     * seeds), every bit of the seed contributes to the result.
+     * @param seed The seed data.
+     * @param offset The position of the first of the eight bytes.
+     * @return The 64-bit value represented by the eight bytes.
+     */
+    static long seedToLong(byte[] seed, int offset)
+    {
+        return ((long) BinaryUtils.convertBytesToInt(seed, offset) << 32)
+               | (BinaryUtils.convertBytesToInt(seed, offset + 4) & 0xFFFFFFFFL);
+    }
+
+
+    /**
+     * A lock that does nothing, used by RNGs that are confined to a single thread.
+     * Stateless, so a single instance is shared by all RNGs.
+     */
+    private static final class NullLock implements Lock, Serializable
+    {
+        private static final NullLock INSTANCE = new NullLock();
+
+        public void lock()
+        {
+            // Nothing to do.
+        }
+
+        public void lockInterruptibly()
+        {
+            // Nothing to do.
+        }
+
+        public boolean tryLock()
+        {
+            return true;
+        }
+
+        public boolean tryLock(long time, TimeUnit unit)
+        {
+            return true;
+        }
+
+        public void unlock()
+        {
+            // Nothing to do.
+        }
+
+        public Condition newCondition()
+        {
+            throw new UnsupportedOperationException("RNGs that are not thread-safe do not support conditions.");
+        }
+
+        /**
+         * Preserve the singleton when de-serialising.
+         * @return The shared instance.
+         */
+        private Object readResolve()
+        {
+            return INSTANCE;
+        }
+    }
+}
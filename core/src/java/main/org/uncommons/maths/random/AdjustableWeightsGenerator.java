@@ -0,0 +1,243 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.util.Random;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.uncommons.maths.number.IntGenerator;
+
+/**
+ * Discrete random sequence that follows an arbitrary distribution over the
+ * integers {@literal 0 ... n - 1}, specified by an array of relative weights
+ * that may be modified between values.  The weights are stored in a
+ * <a href="http://en.wikipedia.org/wiki/Fenwick_tree" target="_top">Fenwick
+ * tree</a> so that both generating a value and changing a weight take O(log n)
+ * time.  If the weights never change, {@link AliasMethodGenerator} is faster.
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+public class AdjustableWeightsGenerator implements IntGenerator
+{
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Random rng;
+
+    private final double[] weights;
+    // One-based Fenwick tree.  Element i holds the sum of the weights in the
+    // range (i - lowestOneBit(i), i].
+    private final double[] tree;
+    private final int highestStep;
+
+    // Each update adds a small rounding error to the tree, so it is rebuilt
+    // from scratch after every n updates.
+    private int updatesSinceRebuild = 0;
+
+    private int nonZeroCount = 0;
+
+
+    /**
+     * Creates a generator of values from the specified discrete distribution.
+     * @param weights The initial relative weights of each value (the probability
+     * of value i being generated is {@literal weights[i] / sum(weights)}).  Weights
+     * must be non-negative and finite, and at least one must be greater than
+     * zero.  The array is copied, so subsequent changes to it have no effect
+     * on this generator.
+     * @param rng The source of randomness.
+     */
+    public AdjustableWeightsGenerator(double[] weights,
+                                      Random rng)
+    {
+        AliasMethodGenerator.checkWeights(weights);
+        this.rng = rng;
+        this.weights = weights.clone();
+        this.tree = new double[weights.length + 1];
+        this.highestStep = Integer.highestOneBit(weights.length);
+        for (double weight : weights)
+        {
+            if (weight > 0)
+            {
+                ++nonZeroCount;
+            }
+        }
+        rebuild();
+    }
+
+
+    /**
+     * Recalculates the whole tree from the weights in O(n) time.
+     */
+    private void rebuild()
+    {
+        for (int i = 1; i < tree.length; i++)
+        {
+            tree[i] = weights[i - 1];
+        }
+        for (int i = 1; i < tree.length; i++)
+        {
+            int parent = i + Integer.lowestOneBit(i);
+            if (parent < tree.length)
+            {
+                tree[parent] += tree[i];
+            }
+        }
+        updatesSinceRebuild = 0;
+    }
+
+
+    /**
+     * Change the relative weight of a single value.
+     * @param index The value to modify the weight of.
+     * @param weight The new weight, which must be non-negative and finite.
+     * @throws IllegalArgumentException If the weight is invalid, or if setting
+     * it would leave all of the weights as zero.
+     */
+    public void setWeight(int index, double weight)
+    {
+        if (weight < 0 || Double.isInfinite(weight) || Double.isNaN(weight))
+        {
+            throw new IllegalArgumentException("Weights must be non-negative and finite: " + weight);
+        }
+        try
+        {
+            lock.writeLock().lock();
+            double oldWeight = weights[index];
+            if (oldWeight > 0 && weight == 0)
+            {
+                if (nonZeroCount == 1)
+                {
+                    throw new IllegalArgumentException("At least one weight must be greater than zero.");
+                }
+                --nonZeroCount;
+            }
+            else if (oldWeight == 0 && weight > 0)
+            {
+                ++nonZeroCount;
+            }
+
+            weights[index] = weight;
+            if (++updatesSinceRebuild >= weights.length)
+            {
+                rebuild();
+            }
+            else
+            {
+                double delta = weight - oldWeight;
+                for (int i = index + 1; i < tree.length; i += Integer.lowestOneBit(i))
+                {
+                    tree[i] += delta;
+                }
+            }
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    /**
+     * @param index The value to look up the weight of.
+     * @return The current relative weight of the specified value.
+     */
+    public double getWeight(int index)
+    {
+        try
+        {
+            lock.readLock().lock();
+            return weights[index];
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * @return The sum of all of the weights.
+     */
+    public double getTotalWeight()
+    {
+        try
+        {
+            lock.readLock().lock();
+            return getTotalWeightUnlocked();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    private double getTotalWeightUnlocked()
+    {
+        double total = 0;
+        for (int i = weights.length; i > 0; i -= Integer.lowestOneBit(i))
+        {
+            total += tree[i];
+        }
+        return total;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int nextInt()
+    {
+        try
+        {
+            lock.readLock().lock();
+            double total = getTotalWeightUnlocked();
+            while (true)
+            {
+                // Descend the tree to find the value whose cumulative weight
+                // range contains the target.
+                double target = rng.nextDouble() * total;
+                int index = 0;
+                for (int step = highestStep; step > 0; step >>= 1)
+                {
+                    int next = index + step;
+                    if (next < tree.length && tree[next] <= target)
+                    {
+                        index = next;
+                        target -= tree[next];
+                    }
+                }
+                // Rounding errors could, very rarely, take us past the last
+                // non-zero weight, in which case just try again.
+                if (index < weights.length && weights[index] > 0)
+                {
+                    return index;
+                }
+            }
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public Integer nextValue()
+    {
+        return nextInt();
+    }
+}
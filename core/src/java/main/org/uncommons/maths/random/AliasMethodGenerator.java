@@ -0,0 +1,162 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.util.Random;
+import org.uncommons.maths.number.IntGenerator;
+
+/**
+ * Discrete random sequence that follows an arbitrary distribution over the
+ * integers {@literal 0 ... n - 1}, specified by an array of relative weights.
+ * Values are generated using Vose's version of the
+ * <a href="http://en.wikipedia.org/wiki/Alias_method" target="_top">alias method</a>,
+ * which takes O(n) time to set up and O(1) time to generate each value,
+ * regardless of the number of weights or their distribution.
+ * If the weights need to change after construction, use
+ * {@link AdjustableWeightsGenerator} instead.
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+public class AliasMethodGenerator implements IntGenerator
+{
+    private final Random rng;
+
+    // Column i of the table yields i with probability probabilities[i], and
+    // aliases[i] otherwise.
+    private final double[] probabilities;
+    private final int[] aliases;
+
+
+    /**
+     * Creates a generator of values from the specified discrete distribution.
+     * @param weights The relative weights of each value (the probability of
+     * value i being generated is {@literal weights[i] / sum(weights)}).  Weights
+     * must be non-negative and finite, and at least one must be greater than
+     * zero.  The array is copied, so subsequent changes to it have no effect
+     * on this generator.
+     * @param rng The source of randomness.
+     */
+    public AliasMethodGenerator(double[] weights,
+                                Random rng)
+    {
+        this.rng = rng;
+        int n = weights.length;
+        double total = checkWeights(weights);
+
+        this.probabilities = new double[n];
+        this.aliases = new int[n];
+
+        // Scale the weights so that the average is 1, then partition the
+        // columns into those that are under-full and those that are over-full.
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++)
+        {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1)
+            {
+                small[smallCount++] = i;
+            }
+            else
+            {
+                large[largeCount++] = i;
+            }
+        }
+
+        // Fill each under-full column with some of the excess from an
+        // over-full column.
+        while (smallCount > 0 && largeCount > 0)
+        {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probabilities[less] = scaled[less];
+            aliases[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1;
+            if (scaled[more] < 1)
+            {
+                small[smallCount++] = more;
+            }
+            else
+            {
+                large[largeCount++] = more;
+            }
+        }
+
+        // Anything left over is full (the only exceptions are due to rounding
+        // errors).
+        while (largeCount > 0)
+        {
+            int index = large[--largeCount];
+            probabilities[index] = 1;
+            aliases[index] = index;
+        }
+        while (smallCount > 0)
+        {
+            int index = small[--smallCount];
+            probabilities[index] = 1;
+            aliases[index] = index;
+        }
+    }
+
+
+    /**
+     * Makes sure that the weights describe a valid distribution.
+     * @return The sum of the weights.
+     */
+    static double checkWeights(double[] weights)
+    {
+        if (weights.length == 0)
+        {
+            throw new IllegalArgumentException("At least one weight must be specified.");
+        }
+        double total = 0;
+        for (double weight : weights)
+        {
+            if (weight < 0 || Double.isInfinite(weight) || Double.isNaN(weight))
+            {
+                throw new IllegalArgumentException("Weights must be non-negative and finite: " + weight);
+            }
+            total += weight;
+        }
+        if (total <= 0 || Double.isInfinite(total))
+        {
+            throw new IllegalArgumentException("Sum of weights must be positive and finite: " + total);
+        }
+        return total;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int nextInt()
+    {
+        int column = rng.nextInt(probabilities.length);
+        return rng.nextDouble() < probabilities[column] ? column : aliases[column];
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public Integer nextValue()
+    {
+        return nextInt();
+    }
+}
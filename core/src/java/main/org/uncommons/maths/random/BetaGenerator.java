@@ -0,0 +1,112 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.util.Random;
+import org.uncommons.maths.number.DoubleGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.number.PrimitiveGenerators;
+
+/**
+ * Continuous random sequence that follows a
+ * <a href="http://en.wikipedia.org/wiki/Beta_distribution" target="_top">beta
+ * distribution</a>, with values in the range 0 - 1.  Each value is generated
+ * from a pair of gamma-distributed values, {@literal X / (X + Y)} where
+ * {@literal X ~ Gamma(alpha, 1)} and {@literal Y ~ Gamma(beta, 1)}.
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+public class BetaGenerator implements DoubleGenerator
+{
+    private final Random rng;
+    private final DoubleGenerator alpha;
+    private final DoubleGenerator beta;
+
+
+    /**
+     * <p>Creates a generator of beta-distributed values.  The shape parameters
+     * are determined by the provided {@link NumberGenerator}s.  This means that
+     * the statistical parameters of this generator may change over time.</p>
+     * <p>To create a beta generator with constant parameters, use the
+     * {@link #BetaGenerator(double, double, Random)} constructor instead.</p>
+     * @param alpha A {@link NumberGenerator} that provides the first shape
+     * parameter of the distribution used for the next generated value.
+     * This generator must only return positive values.
+     * @param beta A {@link NumberGenerator} that provides the second shape
+     * parameter of the distribution used for the next generated value.
+     * This generator must only return positive values.
+     * @param rng The source of randomness.
+     */
+    public BetaGenerator(NumberGenerator<Double> alpha,
+                         NumberGenerator<Double> beta,
+                         Random rng)
+    {
+        this.alpha = PrimitiveGenerators.asDoubleGenerator(alpha);
+        this.beta = PrimitiveGenerators.asDoubleGenerator(beta);
+        this.rng = rng;
+    }
+
+
+    /**
+     * Creates a generator of beta-distributed values from a distribution
+     * with the specified parameters.  The mean of this distribution is
+     * {@literal alpha / (alpha + beta)}.
+     * @param alpha The first shape parameter of the distribution.
+     * @param beta The second shape parameter of the distribution.
+     * @param rng The source of randomness.
+     */
+    public BetaGenerator(double alpha,
+                         double beta,
+                         Random rng)
+    {
+        this(PrimitiveGenerators.constant(alpha),
+             PrimitiveGenerators.constant(beta),
+             rng);
+        if (alpha <= 0 || beta <= 0)
+        {
+            throw new IllegalArgumentException("Alpha and beta must be positive values.");
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public double nextDouble()
+    {
+        double currentAlpha = alpha.nextDouble();
+        double currentBeta = beta.nextDouble();
+        while (true)
+        {
+            double x = GammaGenerator.nextStandardGamma(rng, currentAlpha);
+            double y = GammaGenerator.nextStandardGamma(rng, currentBeta);
+            // For very small shape parameters, both values can underflow.
+            if (x + y > 0)
+            {
+                return x / (x + y);
+            }
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public Double nextValue()
+    {
+        return nextDouble();
+    }
+}
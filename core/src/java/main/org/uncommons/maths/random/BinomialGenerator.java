@@ -16,10 +16,10 @@
 package org.uncommons.maths.random;
 
 import java.util.Random;
-import org.uncommons.maths.binary.BinaryUtils;
-import org.uncommons.maths.binary.BitString;
-import org.uncommons.maths.number.ConstantGenerator;
+import org.uncommons.maths.number.DoubleGenerator;
+import org.uncommons.maths.number.IntGenerator;
 import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.number.PrimitiveGenerators;
 
 /**
  * Discrete random sequence that follows a
@@ -27,17 +27,20 @@ import org.uncommons.maths.number.NumberGenerator;
  * distribution</a>.
  * @author Daniel Dyer
  */
-public class BinomialGenerator implements NumberGenerator<Integer>
+public class BinomialGenerator implements IntGenerator
 {
+    // If n * min(p, 1 - p) is below this threshold, the inversion algorithm
+    // is used, otherwise BTPE is used.
+    private static final double BTPE_THRESHOLD = 30;
+
     private final Random rng;
-    private final NumberGenerator<Integer> n;
-    private final NumberGenerator<Double> p;
+    private final IntGenerator n;
+    private final DoubleGenerator p;
+    private final ParameterVersion parameterVersion;
 
-    // Cache the fixed-point representation of p to avoid having to
-    // recalculate it for each value generated.  Only calculate it
-    // if and when p changes.
-    private transient BitString pBits;
-    private transient double lastP;
+    // Cache the set-up constants to avoid having to recalculate them for each
+    // value generated.  Only calculate them if and when n or p changes.
+    private transient Parameters parameters;
 
 
     /**
@@ -63,9 +66,10 @@ public class BinomialGenerator implements NumberGenerator<Integer>
                              NumberGenerator<Double> p,
                              Random rng)
     {
-        this.n = n;
-        this.p = p;
+        this.n = PrimitiveGenerators.asIntGenerator(n);
+        this.p = PrimitiveGenerators.asDoubleGenerator(p);
         this.rng = rng;
+        this.parameterVersion = new ParameterVersion(this.n, this.p);
     }
 
 
@@ -81,8 +85,8 @@ public class BinomialGenerator implements NumberGenerator<Integer>
                              double p,
                              Random rng)
     {
-        this(new ConstantGenerator<Integer>(n),
-             new ConstantGenerator<Double>(p),
+        this(PrimitiveGenerators.constant(n),
+             PrimitiveGenerators.constant(p),
              rng);
         if (n <= 0)
         {
@@ -97,50 +101,274 @@ public class BinomialGenerator implements NumberGenerator<Integer>
 
     /**
      * Generate the next binomial value from the current values of
-     * {@literal n} and {@literal p}.  The algorithm used is from
-     * The Art of Computer Programming Volume 2 (Seminumerical Algorithms)
-     * by Donald Knuth (page 589 in the Third Edition) where it is
-     * credited to J.H. Ahrens. 
+     * {@literal n} and {@literal p}.  The algorithms used are from
+     * <em>"Binomial random variate generation"</em> by Voratas Kachitvichyanukul
+     * and Bruce W. Schmeiser (1988).  When the expected number of successes is
+     * small, the sequential search inversion algorithm is used.  Otherwise
+     * the BTPE (Binomial, Triangle, Parallelogram, Exponential) rejection
+     * algorithm is used, which takes constant expected time regardless of
+     * {@literal n}.  Neither allocates any memory, except when the parameters
+     * change.
+     */
+    public int nextInt()
+    {
+        // If the parameter generators are versioned and have not changed, there
+        // is no need to read them.  Otherwise, only recalculate the set-up
+        // constants if the parameters are actually different.
+        long version = parameterVersion.current();
+        Parameters current = parameters;
+        if (current == null || version == ParameterVersion.UNVERSIONED || version != current.version)
+        {
+            int currentN = n.nextInt();
+            double currentP = p.nextDouble();
+            if (current == null || current.n != currentN || current.p != currentP || version != current.version)
+            {
+                current = new Parameters(currentN, currentP, version);
+                parameters = current;
+            }
+        }
+
+        // Both algorithms work with the smaller of p and 1 - p, so the result
+        // must be reflected if p is greater than a half.
+        int successes = current.btpe ? nextIntByRejection(current) : nextIntByInversion(current);
+        return current.p > 0.5 ? current.n - successes : successes;
+    }
+
+
+    /**
+     * {@inheritDoc}
      */
     public Integer nextValue()
     {
-        // Regenerate the fixed point representation of p if it has changed.
-        double newP = p.nextValue();
-        if (pBits == null || newP != lastP)
+        return nextInt();
+    }
+
+
+    /**
+     * Sequential search through the cumulative distribution function, starting
+     * at zero.  The expected number of iterations is proportional to {@literal n * p}.
+     */
+    private int nextIntByInversion(Parameters parameters)
+    {
+        int x = 0;
+        double px = parameters.qn;
+        double u = rng.nextDouble();
+        while (u > px)
         {
-            lastP = newP;
-            pBits = BinaryUtils.convertDoubleToFixedPointBits(newP);
+            ++x;
+            if (x > parameters.bound)
+            {
+                // Accumulated rounding errors mean that we have run off the end
+                // of the distribution, so start again.
+                x = 0;
+                px = parameters.qn;
+                u = rng.nextDouble();
+            }
+            else
+            {
+                u -= px;
+                px = ((parameters.n - x + 1) * parameters.r * px) / (x * parameters.q);
+            }
         }
+        return x;
+    }
 
-        int trials = n.nextValue();
-        int totalSuccesses = 0;
-        int pIndex = pBits.getLength() - 1;
 
-        while (trials > 0 && pIndex >= 0)
+    /**
+     * The BTPE algorithm.  The distribution is covered by a triangle in the
+     * centre, parallelograms either side of it and exponential tails.  Values
+     * that fall within the triangle are accepted immediately.  Others must be
+     * checked against the binomial probability, which is done either by a
+     * recursive evaluation or, far from the mode, with a squeeze and Stirling's
+     * approximation.
+     */
+    private int nextIntByRejection(Parameters parameters)
+    {
+        final double m = parameters.m;
+        while (true)
         {
-            int successes = binomialWithEvenProbability(trials);
-            trials -= successes;
-            if (pBits.getBit(pIndex))
+            double u = rng.nextDouble() * parameters.p4;
+            double v = rng.nextDouble();
+            double y;
+            if (u <= parameters.p1) // Triangular region.
             {
-                totalSuccesses += successes;
+                return (int) Math.floor(parameters.xm - parameters.p1 * v + u);
+            }
+            else if (u <= parameters.p2) // Parallelogram region.
+            {
+                double x = parameters.xl + (u - parameters.p1) / parameters.c;
+                v = v * parameters.c + 1 - Math.abs(m - x + 0.5) / parameters.p1;
+                if (v > 1)
+                {
+                    continue;
+                }
+                y = Math.floor(x);
+            }
+            else if (u <= parameters.p3) // Left exponential tail.
+            {
+                y = Math.floor(parameters.xl + Math.log(v) / parameters.lambdaL);
+                if (y < 0 || v == 0)
+                {
+                    continue;
+                }
+                v *= (u - parameters.p2) * parameters.lambdaL;
+            }
+            else // Right exponential tail.
+            {
+                y = Math.floor(parameters.xr - Math.log(v) / parameters.lambdaR);
+                if (y > parameters.n || v == 0)
+                {
+                    continue;
+                }
+                v *= (u - parameters.p3) * parameters.lambdaR;
+            }
+
+            double k = Math.abs(y - m);
+            if (k <= 20 || k >= parameters.nrq / 2 - 1)
+            {
+                // Explicit evaluation of f(y) / f(m) by recursion.
+                double s = parameters.r / parameters.q;
+                double a = s * (parameters.n + 1);
+                double f = 1;
+                if (m < y)
+                {
+                    for (double i = m + 1; i <= y; i++)
+                    {
+                        f *= a / i - s;
+                    }
+                }
+                else if (m > y)
+                {
+                    for (double i = y + 1; i <= m; i++)
+                    {
+                        f /= a / i - s;
+                    }
+                }
+                if (v <= f)
+                {
+                    return (int) y;
+                }
+            }
+            else
+            {
+                // Squeeze using upper and lower bounds on log(f(y)).
+                double rho = (k / parameters.nrq) * ((k * (k / 3 + 0.625) + 1d / 6) / parameters.nrq + 0.5);
+                double t = -k * k / (2 * parameters.nrq);
+                double logV = Math.log(v);
+                if (logV < t - rho)
+                {
+                    return (int) y;
+                }
+                if (logV <= t + rho)
+                {
+                    // Final acceptance/rejection test using Stirling's formula.
+                    double x1 = y + 1;
+                    double f1 = m + 1;
+                    double z = parameters.n + 1 - m;
+                    double w = parameters.n - y + 1;
+                    double bound = parameters.xm * Math.log(f1 / x1)
+                                   + (parameters.n - m + 0.5) * Math.log(z / w)
+                                   + (y - m) * Math.log(w * parameters.r / (x1 * parameters.q))
+                                   + stirlingCorrection(f1)
+                                   + stirlingCorrection(z)
+                                   + stirlingCorrection(x1)
+                                   + stirlingCorrection(w);
+                    if (logV <= bound)
+                    {
+                        return (int) y;
+                    }
+                }
             }
-            --pIndex;
         }
+    }
+
 
-        return totalSuccesses;
+    /**
+     * The correction term from Stirling's series, 1/12x - 1/360x^3 + ...
+     */
+    private static double stirlingCorrection(double x)
+    {
+        double x2 = x * x;
+        return (13860 - (462 - (132 - (99 - 140 / x2) / x2) / x2) / x2) / x / 166320;
     }
 
 
     /**
-     * Generating binomial values when {@literal p = 0.5} is straightforward.
-     * It simply a case of generating {@literal n} random bits and
-     * counting how many are 1s.
-     * @param n The number of trials.
-     * @return The number of successful outcomes from {@literal n} trials.
+     * Set-up constants for one combination of {@literal n} and {@literal p}.
+     * These are grouped together in an immutable object so that they can be
+     * replaced atomically when the parameters change.
      */
-    private int binomialWithEvenProbability(int n)
+    private static final class Parameters
     {
-        BitString bits = new BitString(n, rng);
-        return bits.countSetBits();
+        private final int n;
+        private final double p;
+        private final long version;
+        private final double r; // The smaller of p and 1 - p.
+        private final double q; // 1 - r.
+        private final boolean btpe;
+
+        // Inversion constants.
+        private final double qn;
+        private final double bound;
+
+        // BTPE constants.
+        private final double nrq;
+        private final double m;
+        private final double xm;
+        private final double xl;
+        private final double xr;
+        private final double c;
+        private final double lambdaL;
+        private final double lambdaR;
+        private final double p1;
+        private final double p2;
+        private final double p3;
+        private final double p4;
+
+        Parameters(int n, double p, long version)
+        {
+            this.n = n;
+            this.p = p;
+            this.version = version;
+            this.r = Math.min(p, 1 - p);
+            this.q = 1 - r;
+            this.nrq = n * r * q;
+            this.btpe = n * r >= BTPE_THRESHOLD;
+            if (btpe)
+            {
+                double fm = n * r + r;
+                this.m = Math.floor(fm);
+                this.p1 = Math.floor(2.195 * Math.sqrt(nrq) - 4.6 * q) + 0.5;
+                this.xm = m + 0.5;
+                this.xl = xm - p1;
+                this.xr = xm + p1;
+                this.c = 0.134 + 20.5 / (15.3 + m);
+                double a = (fm - xl) / (fm - xl * r);
+                this.lambdaL = a * (1 + a / 2);
+                a = (xr - fm) / (xr * q);
+                this.lambdaR = a * (1 + a / 2);
+                this.p2 = p1 * (1 + 2 * c);
+                this.p3 = p2 + c / lambdaL;
+                this.p4 = p3 + c / lambdaR;
+                this.qn = 0;
+                this.bound = 0;
+            }
+            else
+            {
+                this.qn = Math.exp(n * Math.log(q));
+                this.bound = Math.min(n, n * r + 10 * Math.sqrt(nrq + 1));
+                this.m = 0;
+                this.p1 = 0;
+                this.xm = 0;
+                this.xl = 0;
+                this.xr = 0;
+                this.c = 0;
+                this.lambdaL = 0;
+                this.lambdaR = 0;
+                this.p2 = 0;
+                this.p3 = 0;
+                this.p4 = 0;
+            }
+        }
     }
 }
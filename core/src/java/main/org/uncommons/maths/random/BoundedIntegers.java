@@ -0,0 +1,147 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.util.Random;
+
+/**
+ * <p>Generates uniformly distributed integers in a bounded range using Lemire's
+ * multiply-shift method.  A random word is multiplied by the size of the range and
+ * the high half of the product is the result.  The low half reveals whether the word
+ * falls in the small biased region that must be rejected, so the (slow) division that
+ * {@link Random#nextInt(int)} performs for every value is only needed on the rare
+ * occasions that the low half is less than the size of the range.</p>
+ *
+ * <p>Reference: Daniel Lemire, <em>Fast Random Integer Generation in an Interval</em>,
+ * ACM Transactions on Modeling and Computer Simulation 29(1), 2019.</p>
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+final class BoundedIntegers
+{
+    private static final long WORD_MASK = 0xFFFFFFFFL;
+    private static final long TWO_TO_THE_32 = 1L << 32;
+
+    private BoundedIntegers()
+    {
+        // Prevents instantiation of utility class.
+    }
+
+
+    /**
+     * Returns a uniformly distributed int in the range 0 (inclusive) to {@literal bound}
+     * (exclusive), consuming one value from {@link Random#nextInt()} (occasionally more).
+     * @param rng The source of randomness.
+     * @param bound The (exclusive) upper bound.  Must be positive.
+     * @return A random int in the range [0, bound).
+     */
+    static int nextInt(Random rng, int bound)
+    {
+        if (bound <= 0)
+        {
+            throw new IllegalArgumentException("Bound must be positive: " + bound);
+        }
+        return (int) nextWord(rng, bound);
+    }
+
+
+    /**
+     * Returns a uniformly distributed value in the range 0 (inclusive) to {@literal range}
+     * (exclusive).  The range may be as large as 2<sup>32</sup>, in which case every
+     * 32-bit word is a valid result, so this method can generate ints over any interval.
+     * @param rng The source of randomness.
+     * @param range The number of possible values, between 1 and 2<sup>32</sup>.
+     * @return A random value in the range [0, range), to be interpreted as an unsigned
+     * 32-bit integer.
+     */
+    static long nextWord(Random rng, long range)
+    {
+        long product = (rng.nextInt() & WORD_MASK) * range;
+        long low = product & WORD_MASK;
+        if (low < range)
+        {
+            long threshold = (TWO_TO_THE_32 - range) % range;
+            while (low < threshold)
+            {
+                product = (rng.nextInt() & WORD_MASK) * range;
+                low = product & WORD_MASK;
+            }
+        }
+        return product >>> 32;
+    }
+
+
+    /**
+     * Returns a uniformly distributed long in the range 0 (inclusive) to {@literal bound}
+     * (exclusive), consuming one value from {@link Random#nextLong()} (occasionally more).
+     * @param rng The source of randomness.
+     * @param bound The (exclusive) upper bound.  Must be positive.
+     * @return A random long in the range [0, bound).
+     */
+    static long nextLong(Random rng, long bound)
+    {
+        if (bound <= 0)
+        {
+            throw new IllegalArgumentException("Bound must be positive: " + bound);
+        }
+        long word = rng.nextLong();
+        long low = word * bound;
+        if (unsignedLessThan(low, bound))
+        {
+            long threshold = twoToThe64Mod(bound);
+            while (unsignedLessThan(low, threshold))
+            {
+                word = rng.nextLong();
+                low = word * bound;
+            }
+        }
+        return multiplyHigh(word, bound);
+    }
+
+
+    /**
+     * Returns the high 64 bits of the 128-bit product of two unsigned longs.
+     */
+    static long multiplyHigh(long a, long b)
+    {
+        long a0 = a & WORD_MASK;
+        long a1 = a >>> 32;
+        long b0 = b & WORD_MASK;
+        long b1 = b >>> 32;
+        long t = a1 * b0 + ((a0 * b0) >>> 32);
+        long middle = a0 * b1 + (t & WORD_MASK);
+        return a1 * b1 + (t >>> 32) + (middle >>> 32);
+    }
+
+
+    /**
+     * Calculates 2<sup>64</sup> mod {@literal n} for positive n without 128-bit arithmetic.
+     */
+    private static long twoToThe64Mod(long n)
+    {
+        long half = (Long.MAX_VALUE % n + 1) % n; // 2^63 mod n.
+        long twice = half << 1;
+        // Both operands are less than n so at most one subtraction is needed.  If the
+        // shift overflowed, the unsigned subtraction still gives the right answer.
+        return twice < 0 || twice >= n ? twice - n : twice;
+    }
+
+
+    private static boolean unsignedLessThan(long a, long b)
+    {
+        return a + Long.MIN_VALUE < b + Long.MIN_VALUE;
+    }
+}
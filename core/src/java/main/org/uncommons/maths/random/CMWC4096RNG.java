@@ -15,8 +15,10 @@
 // ============================================================================
 package org.uncommons.maths.random;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Random;
-import java.util.concurrent.locks.ReentrantLock;
 import org.uncommons.maths.binary.BinaryUtils;
 
 /**
@@ -35,24 +37,21 @@ import org.uncommons.maths.binary.BinaryUtils;
  * possible to seed this RNG using the {@link #setSeed(long)} method inherited
  * from {@link Random}.  Calls to this method will have no effect.
  * Instead the seed must be set by a constructor.</em></p>
- *  
+ *
  * @author Daniel Dyer
  * @since 1.2
  */
-public class CMWC4096RNG extends Random implements RepeatableRNG
+public class CMWC4096RNG extends AbstractRNG implements RepeatableRNG
 {
     private static final int SEED_SIZE_BYTES = 16384; // Needs 4,096 32-bit integers.
 
     private static final long A = 18782L;
 
-    private final byte[] seed;
+    private byte[] seed;
     private final int[] state;
     private int carry = 362436; // TO DO: This should be randomly generated.
     private int index = 4095;
 
-    // Lock to prevent concurrent modification of the RNG's internal state.
-    private final ReentrantLock lock = new ReentrantLock();
-    
 
     /**
      * Creates a new RNG and seeds it using the default seeding strategy.
@@ -82,6 +81,19 @@ public class CMWC4096RNG extends Random implements RepeatableRNG
      */
     public CMWC4096RNG(byte[] seed)
     {
+        this(seed, true);
+    }
+
+
+    /**
+     * Creates an RNG and seeds it with the specified seed data.
+     * @param seed The seed data used to initialise the RNG.
+     * @param threadSafe Whether the RNG's state should be protected by a lock.  If false, the RNG
+     * must be confined to a single thread (see {@link AbstractRNG}).
+     */
+    public CMWC4096RNG(byte[] seed, boolean threadSafe)
+    {
+        super(threadSafe);
         if (seed == null || seed.length != SEED_SIZE_BYTES)
         {
             throw new IllegalArgumentException("CMWC RNG requires 16kb of seed data.");
@@ -104,26 +116,59 @@ public class CMWC4096RNG extends Random implements RepeatableRNG
      * {@inheritDoc}
      */
     @Override
-    protected int next(int bits)
+    protected void writeState(DataOutput out) throws IOException
     {
-        try
+        writeBytes(out, seed);
+        for (int value : state)
         {
-            lock.lock();
-            index = (index + 1) & 4095;
-            long t = A * (state[index] & 0xFFFFFFFFL) + carry;
-            carry = (int) (t >> 32);
-            int x = ((int) t) + carry;
-            if (x < carry)
-            {
-                x++;
-                carry++;
-            }
-            state[index] = 0xFFFFFFFE - x;
-            return state[index] >>> (32 - bits);
+            out.writeInt(value);
         }
-        finally
+        out.writeInt(carry);
+        out.writeShort(index);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void readState(DataInput in) throws IOException
+    {
+        byte[] newSeed = readBytes(in, SEED_SIZE_BYTES, SEED_SIZE_BYTES);
+        int[] newState = new int[state.length];
+        for (int i = 0; i < newState.length; i++)
+        {
+            newState[i] = in.readInt();
+        }
+        int newCarry = in.readInt();
+        int newIndex = in.readShort();
+        if (newIndex < 0 || newIndex >= state.length)
+        {
+            throw new IllegalArgumentException("Invalid state index: " + newIndex);
+        }
+        seed = newSeed;
+        System.arraycopy(newState, 0, state, 0, state.length);
+        carry = newCarry;
+        index = newIndex;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int nextWord()
+    {
+        index = (index + 1) & 4095;
+        long t = A * (state[index] & 0xFFFFFFFFL) + carry;
+        carry = (int) (t >> 32);
+        int x = ((int) t) + carry;
+        if (x < carry)
         {
-            lock.unlock();
+            x++;
+            carry++;
         }
+        state[index] = 0xFFFFFFFE - x;
+        return state[index];
     }
 }
@@ -0,0 +1,253 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>A {@link SeedGenerator} that fetches seed data from another generator in large
+ * blocks and hands out each seed as a slice of the current block.  Creating thousands
+ * of RNGs then needs only a handful of requests to the underlying source, which
+ * matters when each request means I/O (or, for {@link RandomDotOrgSeedGenerator}, a
+ * round trip over the network).</p>
+ *
+ * <p>Seeds are taken from the current block without locking: each caller atomically
+ * claims the next range of bytes, so no byte is ever handed out twice.  When the unclaimed
+ * part of the block drops below the low-water mark, the next block is fetched in the
+ * background so that it is usually ready by the time it is needed.  If it is not (or if
+ * the background fetch failed) the caller that finds the block exhausted fetches the
+ * next one itself.  Requests for more bytes than a block holds are passed straight to
+ * the delegate.</p>
+ *
+ * <p>Note that cached seed data is held in memory until it is used, which may be a
+ * concern if seeds are used for security purposes.</p>
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+public class CachingSeedGenerator implements SeedGenerator
+{
+    private static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    // Used by all instances that are not given an executor.  Its thread is created on
+    // demand and does not prevent the JVM from exiting.
+    private static final ExecutorService DEFAULT_EXECUTOR = Executors.newSingleThreadExecutor(new ThreadFactory()
+    {
+        public Thread newThread(Runnable runnable)
+        {
+            Thread thread = new Thread(runnable, "CachingSeedGenerator-refill");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final SeedGenerator delegate;
+    private final int blockSize;
+    private final int lowWaterMark;
+    private final Executor executor;
+
+    private final AtomicReference<Block> current = new AtomicReference<Block>();
+    private final AtomicReference<Block> spare = new AtomicReference<Block>();
+    private final AtomicBoolean refilling = new AtomicBoolean(false);
+
+
+    /**
+     * Creates a seed cache that fetches 4KB at a time from the delegate and fetches
+     * the next block in the background once a quarter of the current block is left.
+     * @param delegate The source of seed data.
+     */
+    public CachingSeedGenerator(SeedGenerator delegate)
+    {
+        this(delegate, DEFAULT_BLOCK_SIZE, DEFAULT_BLOCK_SIZE / 4);
+    }
+
+
+    /**
+     * @param delegate The source of seed data.
+     * @param blockSize The number of bytes to fetch from the delegate at once.
+     * @param lowWaterMark The number of unclaimed bytes in the current block below
+     * which the next block is fetched in the background.
+     */
+    public CachingSeedGenerator(SeedGenerator delegate, int blockSize, int lowWaterMark)
+    {
+        this(delegate, blockSize, lowWaterMark, DEFAULT_EXECUTOR);
+    }
+
+
+    /**
+     * @param delegate The source of seed data.
+     * @param blockSize The number of bytes to fetch from the delegate at once.
+     * @param lowWaterMark The number of unclaimed bytes in the current block below
+     * which the next block is fetched in the background.
+     * @param executor Runs the background fetches.
+     */
+    public CachingSeedGenerator(SeedGenerator delegate, int blockSize, int lowWaterMark, Executor executor)
+    {
+        if (blockSize <= 0)
+        {
+            throw new IllegalArgumentException("Block size must be positive.");
+        }
+        if (lowWaterMark < 0 || lowWaterMark >= blockSize)
+        {
+            throw new IllegalArgumentException("Low-water mark must be non-negative and less than the block size.");
+        }
+        this.delegate = delegate;
+        this.blockSize = blockSize;
+        this.lowWaterMark = lowWaterMark;
+        this.executor = executor;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     * @throws SeedException If the delegate fails when the cache needs to be replenished.
+     */
+    public byte[] generateSeed(int length) throws SeedException
+    {
+        if (length < 0)
+        {
+            throw new IllegalArgumentException("Seed length must not be negative.");
+        }
+        if (length > blockSize)
+        {
+            return delegate.generateSeed(length);
+        }
+        while (true)
+        {
+            Block block = current.get();
+            if (block != null)
+            {
+                byte[] seed = block.claim(length);
+                if (seed != null)
+                {
+                    if (block.remaining() < lowWaterMark)
+                    {
+                        scheduleRefill();
+                    }
+                    return seed;
+                }
+            }
+            // The block is exhausted (or there isn't one yet), so replace it.  If another
+            // thread gets there first, keep the new block for later rather than waste it.
+            Block replacement = spare.getAndSet(null);
+            if (replacement == null)
+            {
+                replacement = new Block(delegate.generateSeed(blockSize));
+            }
+            if (!current.compareAndSet(block, replacement))
+            {
+                spare.compareAndSet(null, replacement);
+            }
+        }
+    }
+
+
+    /**
+     * Fetches the next block in the background, unless it has already been fetched or
+     * is being fetched.
+     */
+    private void scheduleRefill()
+    {
+        if (spare.get() == null && refilling.compareAndSet(false, true))
+        {
+            Runnable refill = new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        spare.compareAndSet(null, new Block(delegate.generateSeed(blockSize)));
+                    }
+                    catch (SeedException ex)
+                    {
+                        // Ignore, the block will be fetched when it is needed instead.
+                    }
+                    finally
+                    {
+                        refilling.set(false);
+                    }
+                }
+            };
+            try
+            {
+                executor.execute(refill);
+            }
+            catch (RejectedExecutionException ex)
+            {
+                // The executor is shut down or saturated.  The caller has already claimed
+                // its seed, so don't fail the request.  The block will be fetched when it
+                // is needed instead, and a later request can try to schedule a refill again.
+                refilling.set(false);
+            }
+        }
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return "Cached " + delegate;
+    }
+
+
+    /**
+     * Seed data fetched from the delegate, of which the bytes before the
+     * position have been claimed.
+     */
+    private static final class Block
+    {
+        private final byte[] data;
+        private final AtomicInteger position = new AtomicInteger(0);
+
+        Block(byte[] data)
+        {
+            this.data = data;
+        }
+
+
+        /**
+         * @return The next {@literal length} bytes of the block, or null if there
+         * are not enough left.
+         */
+        byte[] claim(int length)
+        {
+            int start;
+            do
+            {
+                start = position.get();
+                if (data.length - start < length)
+                {
+                    return null;
+                }
+            } while (!position.compareAndSet(start, start + length));
+            byte[] seed = new byte[length];
+            System.arraycopy(data, start, seed, 0, length);
+            return seed;
+        }
+
+
+        int remaining()
+        {
+            return data.length - position.get();
+        }
+    }
+}
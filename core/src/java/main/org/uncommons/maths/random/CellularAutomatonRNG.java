@@ -15,8 +15,10 @@
 // ============================================================================
 package org.uncommons.maths.random;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Random;
-import java.util.concurrent.locks.ReentrantLock;
 import org.uncommons.maths.binary.BinaryUtils;
 
 /**
@@ -31,7 +33,7 @@ import org.uncommons.maths.binary.BinaryUtils;
  * @author Tony Pasqualoni (original C version)
  * @author Daniel Dyer (Java port)
  */
-public class CellularAutomatonRNG extends Random implements RepeatableRNG
+public class CellularAutomatonRNG extends AbstractRNG implements RepeatableRNG
 {
     private static final int SEED_SIZE_BYTES = 4;
     private static final int AUTOMATON_LENGTH = 2056;
@@ -73,12 +75,9 @@ public class CellularAutomatonRNG extends Random implements RepeatableRNG
     };
 
 
-    private final byte[] seed;
+    private byte[] seed;
     private final int[] cells = new int[AUTOMATON_LENGTH];
 
-    // Lock to prevent concurrent modification of the RNG's internal state.
-    private final ReentrantLock lock = new ReentrantLock();
-
     private int currentCellIndex = AUTOMATON_LENGTH - 1;
 
     
@@ -109,6 +108,19 @@ public class CellularAutomatonRNG extends Random implements RepeatableRNG
      */
     public CellularAutomatonRNG(byte[] seed)
     {
+        this(seed, true);
+    }
+
+
+    /**
+     * Creates an RNG and seeds it with the specified seed data.
+     * @param seed The seed data used to initialise the RNG.
+     * @param threadSafe Whether the RNG's state should be protected by a lock.  If false, the RNG
+     * must be confined to a single thread (see {@link AbstractRNG}).
+     */
+    public CellularAutomatonRNG(byte[] seed, boolean threadSafe)
+    {
+        super(threadSafe);
         if (seed == null || seed.length != SEED_SIZE_BYTES)
         {
             throw new IllegalArgumentException("Cellular Automaton RNG requires a 32-bit (4-byte) seed.");
@@ -145,38 +157,38 @@ public class CellularAutomatonRNG extends Random implements RepeatableRNG
     @Override
     public int next(int bits)
     {
-        int result;
-        try
+        return super.next(bits);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int nextWord()
+    {
+        // Set cell addresses using address of current cell.
+        int cellC = currentCellIndex - 1;
+        int cellB = cellC - 1;
+        int cellA = cellB - 1;
+
+        // Update cell states using rule table.
+        cells[currentCellIndex] = RNG_RULE[cells[cellC] + cells[currentCellIndex]];
+        cells[cellC] = RNG_RULE[cells[cellB] + cells[cellC]];
+        cells[cellB] = RNG_RULE[cells[cellA] + cells[cellB]];
+
+        // Update the state of cellA and shift current cell to the left by 4 bytes.
+        if (cellA == 0)
         {
-            lock.lock();
-            // Set cell addresses using address of current cell.
-            int cellC = currentCellIndex - 1;
-            int cellB = cellC - 1;
-            int cellA = cellB - 1;
-
-            // Update cell states using rule table.
-            cells[currentCellIndex] = RNG_RULE[cells[cellC] + cells[currentCellIndex]];
-            cells[cellC] = RNG_RULE[cells[cellB] + cells[cellC]];
-            cells[cellB] = RNG_RULE[cells[cellA] + cells[cellB]];
-
-            // Update the state of cellA and shift current cell to the left by 4 bytes.
-            if (cellA == 0)
-            {
-                cells[cellA] = RNG_RULE[cells[cellA]];
-                currentCellIndex = AUTOMATON_LENGTH - 1;
-            }
-            else
-            {
-                cells[cellA] = RNG_RULE[cells[cellA - 1] + cells[cellA]];
-                currentCellIndex -= 4;
-            }
-            result = convertCellsToInt(cells, cellA);
+            cells[cellA] = RNG_RULE[cells[cellA]];
+            currentCellIndex = AUTOMATON_LENGTH - 1;
         }
-        finally
+        else
         {
-            lock.unlock();
+            cells[cellA] = RNG_RULE[cells[cellA - 1] + cells[cellA]];
+            currentCellIndex -= 4;
         }
-        return result >>> (32 - bits);
+        return convertCellsToInt(cells, cellA);
     }
 
 
@@ -189,6 +201,46 @@ public class CellularAutomatonRNG extends Random implements RepeatableRNG
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void writeState(DataOutput out) throws IOException
+    {
+        writeBytes(out, seed);
+        // Each cell is an 8-bit value.
+        for (int cell : cells)
+        {
+            out.writeByte(cell);
+        }
+        out.writeShort(currentCellIndex);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void readState(DataInput in) throws IOException
+    {
+        byte[] newSeed = readBytes(in, SEED_SIZE_BYTES, SEED_SIZE_BYTES);
+        int[] newCells = new int[AUTOMATON_LENGTH];
+        for (int i = 0; i < AUTOMATON_LENGTH; i++)
+        {
+            newCells[i] = in.readUnsignedByte();
+        }
+        int newIndex = in.readShort();
+        // The generator only ever visits every fourth cell, counting down from the last.
+        if (newIndex < 0 || newIndex >= AUTOMATON_LENGTH || (newIndex & 3) != 3)
+        {
+            throw new IllegalArgumentException("Invalid cell index: " + newIndex);
+        }
+        seed = newSeed;
+        System.arraycopy(newCells, 0, cells, 0, AUTOMATON_LENGTH);
+        currentCellIndex = newIndex;
+    }
+
+
     private static int convertCellsToInt(int[] cells, int offset)
     {
         return cells[offset]
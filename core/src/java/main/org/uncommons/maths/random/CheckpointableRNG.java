@@ -0,0 +1,50 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+/**
+ * <p>An RNG whose complete internal state can be saved and later restored.  This makes it
+ * possible to checkpoint a long-running simulation and resume it from where it left off,
+ * without having to replay the RNG's output from the start.</p>
+ *
+ * <p>The state is a compact binary snapshot, roughly the size of the RNG's internal
+ * state, that includes the seed.  It can be restored into any instance of the same class,
+ * whatever that instance was seeded with.  Thread-safe and unsynchronized versions of the
+ * same RNG share a format, so state saved from one may be restored into the other.</p>
+ *
+ * <p>All of the RNGs in this package implement this interface except for
+ * {@link JavaRNG}, whose state is private to {@link java.util.Random}.</p>
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+public interface CheckpointableRNG
+{
+    /**
+     * @return A snapshot of the RNG's current state, including its seed.
+     */
+    byte[] getState();
+
+
+    /**
+     * Restores the RNG to a previously saved state.  Afterwards the RNG reports the seed
+     * that was in use when the state was saved and generates exactly the same sequence of
+     * values that the original RNG did after the state was saved.
+     * @param state A snapshot returned by {@link #getState()} on an RNG of the same type.
+     * @throws IllegalArgumentException If the state is not valid for this type of RNG.
+     * In this case the RNG's state is unchanged.
+     */
+    void setState(byte[] state);
+}
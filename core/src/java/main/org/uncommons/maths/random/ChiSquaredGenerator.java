@@ -0,0 +1,94 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.util.Random;
+import org.uncommons.maths.number.DoubleGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.number.PrimitiveGenerators;
+
+/**
+ * Continuous random sequence that follows a
+ * <a href="http://en.wikipedia.org/wiki/Chi-squared_distribution" target="_top">chi-squared
+ * distribution</a>.  Rather than summing the squares of {@literal k} normal
+ * values, each value is generated in constant time as twice a gamma-distributed
+ * value with shape {@literal k / 2}.
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+public class ChiSquaredGenerator implements DoubleGenerator
+{
+    private final Random rng;
+    private final DoubleGenerator degreesOfFreedom;
+
+
+    /**
+     * <p>Creates a generator of chi-squared-distributed values.  The number of
+     * degrees of freedom is determined by the provided {@link NumberGenerator}.
+     * This means that the statistical parameters of this generator may change
+     * over time.</p>
+     * <p>To create a chi-squared generator with a constant number of degrees of
+     * freedom, use the {@link #ChiSquaredGenerator(double, Random)} constructor
+     * instead.</p>
+     * @param degreesOfFreedom A {@link NumberGenerator} that provides the number
+     * of degrees of freedom ({@literal k}) of the distribution used for the next
+     * generated value.  This generator must only return positive values.
+     * @param rng The source of randomness.
+     */
+    public ChiSquaredGenerator(NumberGenerator<Double> degreesOfFreedom,
+                               Random rng)
+    {
+        this.degreesOfFreedom = PrimitiveGenerators.asDoubleGenerator(degreesOfFreedom);
+        this.rng = rng;
+    }
+
+
+    /**
+     * Creates a generator of chi-squared-distributed values from a distribution
+     * with the specified number of degrees of freedom.  The mean of this
+     * distribution is {@literal k} and the variance is {@literal 2k}.
+     * @param degreesOfFreedom The number of degrees of freedom ({@literal k}),
+     * which need not be an integer.
+     * @param rng The source of randomness.
+     */
+    public ChiSquaredGenerator(double degreesOfFreedom,
+                               Random rng)
+    {
+        this(PrimitiveGenerators.constant(degreesOfFreedom), rng);
+        if (degreesOfFreedom <= 0)
+        {
+            throw new IllegalArgumentException("Degrees of freedom must be a positive value.");
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public double nextDouble()
+    {
+        return 2 * GammaGenerator.nextStandardGamma(rng, degreesOfFreedom.nextDouble() / 2);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public Double nextValue()
+    {
+        return nextDouble();
+    }
+}
@@ -16,14 +16,14 @@
 package org.uncommons.maths.random;
 
 import java.util.Random;
-import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.number.DoubleGenerator;
 
 /**
  * Continuous, uniformly distributed random sequence.  Generates
  * values in the range {@literal mininum (inclusive) ... maximum (exclusive)}.
  * @author Daniel Dyer
  */
-public class ContinuousUniformGenerator implements NumberGenerator<Double>
+public class ContinuousUniformGenerator implements DoubleGenerator
 {
     private final Random rng;
     private final double range;
@@ -42,8 +42,17 @@ public class ContinuousUniformGenerator implements NumberGenerator<Double>
     /**
      * {@inheritDoc}
      */
-    public Double nextValue()
+    public double nextDouble()
     {
         return rng.nextDouble() * range + minimumValue;
     }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public Double nextValue()
+    {
+        return nextDouble();
+    }
 }
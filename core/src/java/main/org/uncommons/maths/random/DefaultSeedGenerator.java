@@ -15,33 +15,207 @@
 // ============================================================================
 package org.uncommons.maths.random;
 
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import org.uncommons.maths.binary.BinaryUtils;
 
 /**
- * Seed generator that maintains multiple strategies for seed
+ * <p>Seed generator that maintains multiple strategies for seed
  * generation and will delegate to the best one available for the
- * current operating environment.
+ * current operating environment.</p>
+ *
+ * <p>The default strategies, in order of preference, are {@link DevURandomSeedGenerator},
+ * {@link DevRandomSeedGenerator}, {@link RandomDotOrgSeedGenerator} and
+ * {@link SecureRandomSeedGenerator}.  A different chain can be used for the singleton
+ * instance by setting the {@literal org.uncommons.maths.random.seedGenerators} system
+ * property to a comma-separated list of class names (classes in this package may be
+ * given without the package name).  Each class must have a public no-argument
+ * constructor.  Alternatively, instances with any chain can be created directly.</p>
+ *
+ * <p>A strategy that fails is skipped for a back-off period (one minute by default,
+ * or the number of milliseconds given by the
+ * {@literal org.uncommons.maths.random.seedBackOff} system property), so that callers
+ * do not pay the cost of a slow failure, such as a network timeout, on every request.
+ * The period doubles with each consecutive failure, up to 64 times its initial length.
+ * If every strategy fails or is backing off, those that are backing off are tried
+ * anyway rather than giving up.  {@link #getStatistics()} reports how each strategy
+ * has performed.</p>
  * @author Daniel Dyer
  */
 public final class DefaultSeedGenerator implements SeedGenerator
 {
     private static final String DEBUG_PROPERTY = "org.uncommons.maths.random.debug";
-    
+    private static final String GENERATORS_PROPERTY = "org.uncommons.maths.random.seedGenerators";
+    private static final String BACK_OFF_PROPERTY = "org.uncommons.maths.random.seedBackOff";
+
+    private static final long DEFAULT_BACK_OFF_MS = 60000;
+    /** The back-off period stops doubling after this many consecutive failures. */
+    private static final int MAX_BACK_OFF_DOUBLINGS = 6;
+    /** Longest delay (in nanoseconds) that can be added to System.nanoTime() and compared safely. */
+    private static final long MAX_BACK_OFF_NANOS = Long.MAX_VALUE >> 1;
+
     /** Singleton instance. */
-    private static final DefaultSeedGenerator INSTANCE = new DefaultSeedGenerator();
+    private static final DefaultSeedGenerator INSTANCE = createInstance();
+
+    /** Delegate generators, wrapped to record their performance. */
+    private final Source[] sources;
+    private final long backOffNanos;
+
+
+    /**
+     * Creates a seed generator that delegates to the specified strategies.  Most
+     * applications should use the singleton instance instead.
+     * @param backOffMillis How long (in milliseconds) to skip a strategy after it
+     * first fails.  Zero means that strategies are never skipped.
+     * @param generators The strategies to try, in order of preference.
+     */
+    public DefaultSeedGenerator(long backOffMillis, SeedGenerator... generators)
+    {
+        if (backOffMillis < 0)
+        {
+            throw new IllegalArgumentException("Back-off period must not be negative.");
+        }
+        if (generators.length == 0)
+        {
+            throw new IllegalArgumentException("At least one seed generator is required.");
+        }
+        this.backOffNanos = TimeUnit.MILLISECONDS.toNanos(backOffMillis);
+        this.sources = new Source[generators.length];
+        for (int i = 0; i < generators.length; i++)
+        {
+            sources[i] = new Source(generators[i]);
+        }
+    }
+
+
+    /**
+     * Creates the singleton, using the system properties (if set and readable) to
+     * configure it.
+     */
+    private static DefaultSeedGenerator createInstance()
+    {
+        String generatorNames = null;
+        String backOff = null;
+        try
+        {
+            generatorNames = System.getProperty(GENERATORS_PROPERTY);
+            backOff = System.getProperty(BACK_OFF_PROPERTY);
+        }
+        catch (SecurityException ex)
+        {
+            // Ignore, means we can't read the properties so just use the defaults.
+        }
+        return createInstance(generatorNames, backOff);
+    }
 
-    /** Delegate generators. */
-    private static final SeedGenerator[] GENERATORS = new SeedGenerator[]
+
+    /**
+     * Creates an instance from the values of the configuration properties.  This
+     * happens during class initialisation, so invalid values must not cause an
+     * exception (which would make this class, and every RNG that relies on it for
+     * seeding, unusable).  Instead they are reported and the defaults are used.
+     * @param generatorNames The value of the generators property, or null if not set.
+     * @param backOff The value of the back-off property, or null if not set.
+     */
+    static DefaultSeedGenerator createInstance(String generatorNames, String backOff)
     {
-        new DevRandomSeedGenerator(),
-        new RandomDotOrgSeedGenerator(),
-        new SecureRandomSeedGenerator()
-    };
+        SeedGenerator[] generators = null;
+        if (generatorNames != null)
+        {
+            try
+            {
+                generators = parseGenerators(generatorNames);
+            }
+            catch (IllegalArgumentException ex)
+            {
+                System.err.println("Invalid value for " + GENERATORS_PROPERTY + " (" + ex.getMessage()
+                                   + "), using the default seed generators.");
+            }
+        }
+        if (generators == null)
+        {
+            generators = new SeedGenerator[]
+            {
+                new DevURandomSeedGenerator(),
+                new DevRandomSeedGenerator(),
+                new RandomDotOrgSeedGenerator(),
+                new SecureRandomSeedGenerator()
+            };
+        }
+
+        long backOffMillis = DEFAULT_BACK_OFF_MS;
+        if (backOff != null)
+        {
+            try
+            {
+                backOffMillis = Long.parseLong(backOff.trim());
+                if (backOffMillis < 0)
+                {
+                    throw new NumberFormatException("Back-off period must not be negative.");
+                }
+            }
+            catch (NumberFormatException ex)
+            {
+                System.err.println("Invalid value for " + BACK_OFF_PROPERTY + " (" + backOff
+                                   + "), using the default back-off period.");
+                backOffMillis = DEFAULT_BACK_OFF_MS;
+            }
+        }
+        return new DefaultSeedGenerator(backOffMillis, generators);
+    }
 
 
-    private DefaultSeedGenerator()
+    /**
+     * @param generatorNames A comma-separated list of class names.
+     * @return An instance of each of the named classes.
+     */
+    static SeedGenerator[] parseGenerators(String generatorNames)
     {
-        // Private constructor prevents external instantiation.
+        String[] names = generatorNames.split(",");
+        SeedGenerator[] generators = new SeedGenerator[names.length];
+        for (int i = 0; i < names.length; i++)
+        {
+            String name = names[i].trim();
+            if (name.indexOf('.') < 0)
+            {
+                name = DefaultSeedGenerator.class.getPackage().getName() + '.' + name;
+            }
+            try
+            {
+                Class<? extends SeedGenerator> generatorClass = Class.forName(name).asSubclass(SeedGenerator.class);
+                generators[i] = generatorClass.getDeclaredConstructor().newInstance();
+            }
+            catch (ClassNotFoundException ex)
+            {
+                throw new IllegalArgumentException("Unknown seed generator: " + name, ex);
+            }
+            catch (ClassCastException ex)
+            {
+                throw new IllegalArgumentException(name + " is not a SeedGenerator.", ex);
+            }
+            catch (NoSuchMethodException ex)
+            {
+                throw new IllegalArgumentException(name + " does not have a no-argument constructor.", ex);
+            }
+            catch (InstantiationException ex)
+            {
+                throw new IllegalArgumentException("Cannot instantiate " + name, ex);
+            }
+            catch (InvocationTargetException ex)
+            {
+                throw new IllegalArgumentException("Cannot instantiate " + name, ex.getCause());
+            }
+            catch (IllegalAccessException ex)
+            {
+                throw new IllegalArgumentException("Cannot instantiate " + name, ex);
+            }
+        }
+        return generators;
     }
 
 
@@ -58,41 +232,260 @@ public final class DefaultSeedGenerator implements SeedGenerator
      * Generates a seed by trying each of the available strategies in
      * turn until one succeeds.  Tries the most suitable strategy first
      * and eventually degrades to the least suitable (but guaranteed to
-     * work) strategy.
+     * work) strategy.  Strategies that have recently failed are skipped
+     * unless all of the others fail too.
      * @param length The length (in bytes) of the seed.
      * @return A random seed of the requested length.
      */
     public byte[] generateSeed(int length)
     {
-        for (SeedGenerator generator : GENERATORS)
+        long now = System.nanoTime();
+        boolean[] skipped = new boolean[sources.length];
+        for (int i = 0; i < sources.length; i++)
         {
-            try
+            if (sources[i].isBackingOff(now))
             {
-                byte[] seed = generator.generateSeed(length);
-                try
-                {
-                    boolean debug = System.getProperty(DEBUG_PROPERTY, "false").equals("true");
-                    if (debug)
-                    {
-                        String seedString = BinaryUtils.convertBytesToHexString(seed);
-                        System.out.println(seed.length + " bytes of seed data acquired from " + generator + ":");
-                        System.out.println("  " + seedString);
-                    }
-                }
-                catch (SecurityException ex)
+                skipped[i] = true;
+                continue;
+            }
+            byte[] seed = sources[i].generateSeed(length);
+            if (seed != null)
+            {
+                return seed;
+            }
+        }
+        // Every strategy that was tried has failed, so it's worth waiting for one
+        // that we would otherwise have avoided.
+        for (int i = 0; i < sources.length; i++)
+        {
+            if (skipped[i])
+            {
+                byte[] seed = sources[i].generateSeed(length);
+                if (seed != null)
                 {
-                    // Ignore, means we can't read the property so just default to false.
+                    return seed;
                 }
+            }
+        }
+        // This shouldn't happen as at least one the generators should be
+        // able to generate a seed.
+        throw new IllegalStateException("All available seed generation strategies failed.");
+    }
+
 
+    /**
+     * @return A snapshot of the performance of each strategy, in order of preference.
+     */
+    public List<SourceStatistics> getStatistics()
+    {
+        long now = System.nanoTime();
+        List<SourceStatistics> statistics = new ArrayList<SourceStatistics>(sources.length);
+        for (Source source : sources)
+        {
+            statistics.add(new SourceStatistics(source.generator,
+                                                source.successes.get(),
+                                                source.failures.get(),
+                                                source.bytesServed.get(),
+                                                source.totalTime.get(),
+                                                source.isBackingOff(now)));
+        }
+        return Collections.unmodifiableList(statistics);
+    }
+
+
+    /**
+     * @param backOffNanos The delay after the first failure.
+     * @param consecutiveFailures How many times in a row the strategy has failed.
+     * @return How long to skip the strategy for, doubling for each consecutive failure
+     * (up to a limit) and capped so that adding it to the current time cannot overflow.
+     */
+    static long getBackOffDelay(long backOffNanos, int consecutiveFailures)
+    {
+        int doublings = Math.min(consecutiveFailures - 1, MAX_BACK_OFF_DOUBLINGS);
+        if (backOffNanos > MAX_BACK_OFF_NANOS >> doublings)
+        {
+            return MAX_BACK_OFF_NANOS;
+        }
+        return backOffNanos << doublings;
+    }
+
+
+    /**
+     * Wraps one of the delegate generators to record how it performs and to
+     * track whether it is backing off after failures.
+     */
+    private final class Source
+    {
+        private final SeedGenerator generator;
+        private final AtomicLong successes = new AtomicLong(0);
+        private final AtomicLong failures = new AtomicLong(0);
+        private final AtomicLong bytesServed = new AtomicLong(0);
+        private final AtomicLong totalTime = new AtomicLong(0);
+        private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
+        private volatile long retryTime;
+
+        Source(SeedGenerator generator)
+        {
+            this.generator = generator;
+        }
+
+
+        boolean isBackingOff(long now)
+        {
+            return consecutiveFailures.get() > 0 && now - retryTime < 0;
+        }
+
+
+        /**
+         * @return The seed, or null if the generator failed.
+         */
+        byte[] generateSeed(int length)
+        {
+            long start = System.nanoTime();
+            try
+            {
+                byte[] seed = generator.generateSeed(length);
+                totalTime.addAndGet(System.nanoTime() - start);
+                successes.incrementAndGet();
+                bytesServed.addAndGet(seed.length);
+                consecutiveFailures.set(0);
+                debug(seed);
                 return seed;
             }
             catch (SeedException ex)
             {
-                // Ignore and try the next generator...
+                long end = System.nanoTime();
+                totalTime.addAndGet(end - start);
+                failures.incrementAndGet();
+                int count = consecutiveFailures.incrementAndGet();
+                retryTime = end + getBackOffDelay(backOffNanos, count);
+                return null;
             }
         }
-        // This shouldn't happen as at least one the generators should be
-        // able to generate a seed.
-        throw new IllegalStateException("All available seed generation strategies failed.");
+
+
+        private void debug(byte[] seed)
+        {
+            try
+            {
+                boolean debug = System.getProperty(DEBUG_PROPERTY, "false").equals("true");
+                if (debug)
+                {
+                    String seedString = BinaryUtils.convertBytesToHexString(seed);
+                    System.out.println(seed.length + " bytes of seed data acquired from " + generator + ":");
+                    System.out.println("  " + seedString);
+                }
+            }
+            catch (SecurityException ex)
+            {
+                // Ignore, means we can't read the property so just default to false.
+            }
+        }
+    }
+
+
+    /**
+     * How one of the strategies used by a {@link DefaultSeedGenerator} has performed.
+     */
+    public static final class SourceStatistics
+    {
+        private final SeedGenerator generator;
+        private final long successCount;
+        private final long failureCount;
+        private final long bytesServed;
+        private final long totalTimeNanos;
+        private final boolean backingOff;
+
+        SourceStatistics(SeedGenerator generator,
+                         long successCount,
+                         long failureCount,
+                         long bytesServed,
+                         long totalTimeNanos,
+                         boolean backingOff)
+        {
+            this.generator = generator;
+            this.successCount = successCount;
+            this.failureCount = failureCount;
+            this.bytesServed = bytesServed;
+            this.totalTimeNanos = totalTimeNanos;
+            this.backingOff = backingOff;
+        }
+
+
+        /**
+         * @return The strategy that these statistics describe.
+         */
+        public SeedGenerator getGenerator()
+        {
+            return generator;
+        }
+
+
+        /**
+         * @return The number of seeds that the strategy has provided.
+         */
+        public long getSuccessCount()
+        {
+            return successCount;
+        }
+
+
+        /**
+         * @return The number of times that the strategy has failed to provide a seed.
+         */
+        public long getFailureCount()
+        {
+            return failureCount;
+        }
+
+
+        /**
+         * @return The total number of bytes of seed data that the strategy has provided.
+         */
+        public long getBytesServed()
+        {
+            return bytesServed;
+        }
+
+
+        /**
+         * @param unit The unit in which to express the result.
+         * @return The time spent in the strategy, for both successful and failed
+         * requests.
+         */
+        public long getTotalTime(TimeUnit unit)
+        {
+            return unit.convert(totalTimeNanos, TimeUnit.NANOSECONDS);
+        }
+
+
+        /**
+         * @param unit The unit in which to express the result.
+         * @return The mean time taken per request (successful or not), or zero if
+         * there have not been any requests.
+         */
+        public long getAverageTime(TimeUnit unit)
+        {
+            long requests = successCount + failureCount;
+            return requests == 0 ? 0 : unit.convert(totalTimeNanos / requests, TimeUnit.NANOSECONDS);
+        }
+
+
+        /**
+         * @return True if the strategy is currently being skipped because it failed recently.
+         */
+        public boolean isBackingOff()
+        {
+            return backingOff;
+        }
+
+
+        @Override
+        public String toString()
+        {
+            return generator + ": " + successCount + " successes, " + failureCount + " failures, "
+                   + bytesServed + " bytes, average " + getAverageTime(TimeUnit.MICROSECONDS) + "us"
+                   + (backingOff ? " (backing off)" : "");
+        }
     }
 }
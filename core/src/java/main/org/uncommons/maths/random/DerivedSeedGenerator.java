@@ -0,0 +1,166 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>{@link SeedGenerator} that derives seeds deterministically from a master seed
+ * rather than reading them from an entropy source.  No I/O is performed, so seeding
+ * is fast and, given the same master seed, every node in a distributed run derives
+ * exactly the same seeds.</p>
+ *
+ * <p>Each seed is identified by a 64-bit index.  The seed for an index is obtained by
+ * hashing the index and the whole of the master seed into the state of a SplitMix64
+ * sequence, and then combining the output of that sequence with the master seed using
+ * the SplitMix64 mixing function.  {@link #deriveSeed(long, int)} returns the seed for
+ * a particular index, whereas {@link #generateSeed(int)} hands out the seeds for
+ * indices 0, 1, 2, etc. in turn so that this class can be passed to any RNG
+ * constructor that accepts a {@link SeedGenerator}.</p>
+ *
+ * <p>Generators can be arranged in a tree by calling {@link #child(long)}.  Each child
+ * has its own master seed derived from its parent's, so, for example, each node in a
+ * cluster can be given the child for its node number and then derive seeds for its own
+ * tasks without co-ordinating with the other nodes.</p>
+ *
+ * <p>The mixing function is a good statistical hash but it is not cryptographically
+ * secure.  Anybody who knows one derived seed may be able to recover the master seed,
+ * so this class should not be used to seed RNGs for security-sensitive purposes.</p>
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+public class DerivedSeedGenerator implements SeedGenerator
+{
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    // Separates the master seeds of child generators from the seeds derived for RNGs.
+    private static final long CHILD_DOMAIN = 0x5851F42D4C957F2DL;
+
+    private final byte[] masterSeed;
+    private final AtomicLong nextIndex = new AtomicLong(0);
+
+    /**
+     * @param masterSeed The seed from which all other seeds are derived.  The derived
+     * seeds cannot contain more entropy than this, so it should be at least as long as
+     * the seeds that will be derived from it.
+     */
+    public DerivedSeedGenerator(byte[] masterSeed)
+    {
+        if (masterSeed == null || masterSeed.length == 0)
+        {
+            throw new IllegalArgumentException("Master seed must not be empty.");
+        }
+        this.masterSeed = masterSeed.clone();
+    }
+
+
+    /**
+     * Returns the seed for the next index in sequence, starting with index zero.
+     * The result is the same as calling {@link #deriveSeed(long, int)} with that index.
+     * @param length The length of the seed to generate (in bytes).
+     * @return A byte array containing the seed data.
+     */
+    public byte[] generateSeed(int length)
+    {
+        return deriveSeed(nextIndex.getAndIncrement(), length);
+    }
+
+
+    /**
+     * Derives the seed for the specified index.  This method does not change the state
+     * of the generator, so it always returns the same seed for the same arguments.
+     * @param index Identifies the seed (e.g. a task or thread number).
+     * @param length The length of the seed to generate (in bytes).
+     * @return A byte array containing the seed data.
+     */
+    public byte[] deriveSeed(long index, int length)
+    {
+        if (length < 0)
+        {
+            throw new IllegalArgumentException("Seed length must not be negative.");
+        }
+        return derive(index, length, false);
+    }
+
+
+    /**
+     * Creates a generator whose master seed is derived from this generator's master seed
+     * and the specified index.  The child's seeds are unrelated to the seeds derived by
+     * this generator or by any other child.
+     * @param index Identifies the child (e.g. a node number).
+     * @return A new generator with a master seed of the same length as this one's.
+     */
+    public DerivedSeedGenerator child(long index)
+    {
+        return new DerivedSeedGenerator(derive(index, masterSeed.length, true));
+    }
+
+
+    /**
+     * Each 64-bit block of the output is a block of the master seed (repeated as
+     * necessary) combined with the next value of a SplitMix64 sequence whose starting
+     * state depends on both the index and the entire master seed.
+     */
+    private byte[] derive(long index, int length, boolean child)
+    {
+        long state = mix64(index * GOLDEN_GAMMA);
+        for (byte b : masterSeed)
+        {
+            state = mix64(state ^ b) + GOLDEN_GAMMA;
+        }
+        if (child)
+        {
+            state = mix64(state ^ CHILD_DOMAIN);
+        }
+
+        byte[] seed = new byte[length];
+        for (int i = 0; i < seed.length; i += 8)
+        {
+            long block = 0;
+            int blockLength = Math.min(8, seed.length - i);
+            for (int j = 0; j < blockLength; j++)
+            {
+                block = (block << 8) | (masterSeed[(i + j) % masterSeed.length] & 0xFF);
+            }
+            state += GOLDEN_GAMMA;
+            block = mix64(block ^ mix64(state));
+            for (int j = blockLength - 1; j >= 0; j--)
+            {
+                seed[i + j] = (byte) block;
+                block >>>= 8;
+            }
+        }
+        return seed;
+    }
+
+
+    /**
+     * The finalisation function from the SplitMix64 generator (a variant of the
+     * MurmurHash3 64-bit finaliser).
+     */
+    private static long mix64(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return "Derived seeds";
+    }
+}
@@ -0,0 +1,166 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>RNG seed strategy that gets data from {@literal /dev/urandom} on systems
+ * that provide it (e.g. Solaris/Linux).  Unlike {@literal /dev/random}, reading from
+ * {@literal /dev/urandom} never blocks waiting for the kernel to gather more entropy,
+ * so it is suitable for seeding large numbers of RNGs during start-up.  If
+ * {@literal /dev/urandom} does not exist or is not accessible, a {@link SeedException}
+ * is thrown.</p>
+ *
+ * <p>Rather than opening the device for each seed, all instances share a single
+ * {@link FileChannel} that stays open for the life of the JVM.  Data is read from it
+ * in blocks into a shared direct buffer and each seed is copied out of that buffer, so
+ * most seeds are generated without a system call.  Bytes are never handed out more
+ * than once.  Since the channel is only opened once, read access to the device is
+ * checked with the {@link SecurityManager} (if there is one) on every request.</p>
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+public class DevURandomSeedGenerator implements SeedGenerator
+{
+    private static final File DEV_URANDOM = new File("/dev/urandom");
+
+    private static final int BUFFER_SIZE_BYTES = 1024;
+
+    // Guards the shared channel and buffer.
+    private static final Lock LOCK = new ReentrantLock();
+    private static FileChannel channel;
+    private static ByteBuffer buffer;
+
+
+    /**
+     * {@inheritDoc}
+     * @return The requested number of random bytes, read from
+     * {@literal /dev/urandom}.
+     * @throws SeedException If {@literal /dev/urandom} does not exist or is
+     * not accessible
+     */
+    public byte[] generateSeed(int length) throws SeedException
+    {
+        byte[] randomSeed = new byte[length];
+        try
+        {
+            LOCK.lock();
+            SecurityManager securityManager = System.getSecurityManager();
+            if (securityManager != null)
+            {
+                securityManager.checkRead(DEV_URANDOM.getPath());
+            }
+            if (channel == null)
+            {
+                open();
+            }
+            int count = 0;
+            while (count < length)
+            {
+                if (!buffer.hasRemaining())
+                {
+                    refill();
+                }
+                int n = Math.min(buffer.remaining(), length - count);
+                buffer.get(randomSeed, count, n);
+                count += n;
+            }
+            return randomSeed;
+        }
+        catch (IOException ex)
+        {
+            close();
+            throw new SeedException("Failed reading from " + DEV_URANDOM.getName(), ex);
+        }
+        catch (SecurityException ex)
+        {
+            // Might be thrown if resource access is restricted (such as in
+            // an applet sandbox).
+            throw new SeedException("SecurityManager prevented access to " + DEV_URANDOM.getName(), ex);
+        }
+        finally
+        {
+            LOCK.unlock();
+        }
+    }
+
+
+    /**
+     * Opens the device and allocates an empty buffer.  Called with the lock held.
+     */
+    private static void open() throws IOException
+    {
+        channel = new FileInputStream(DEV_URANDOM).getChannel();
+        if (buffer == null)
+        {
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE_BYTES);
+        }
+        buffer.limit(0); // Nothing to read yet.
+    }
+
+
+    /**
+     * Replaces the (fully consumed) contents of the buffer with fresh data from the
+     * device.  Called with the lock held.
+     */
+    private static void refill() throws IOException
+    {
+        buffer.clear();
+        while (buffer.hasRemaining())
+        {
+            if (channel.read(buffer) == -1)
+            {
+                throw new IOException("EOF encountered reading random data.");
+            }
+        }
+        buffer.flip();
+    }
+
+
+    /**
+     * Closes the channel after a failure so that the next request opens it again.
+     * Called with the lock held.
+     */
+    private static void close()
+    {
+        if (channel != null)
+        {
+            try
+            {
+                channel.close();
+            }
+            catch (IOException ex)
+            {
+                // Ignore.
+            }
+            channel = null;
+        }
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return "/dev/urandom";
+    }
+}
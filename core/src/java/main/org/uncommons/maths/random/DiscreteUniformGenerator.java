@@ -16,26 +16,47 @@
 package org.uncommons.maths.random;
 
 import java.util.Random;
-import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.number.IntGenerator;
 
 /**
  * Discrete, uniformly distributed random sequence.  Generates
  * values between the specified minimum and maximum values (inclusive).
+ * Values are generated with Lemire's multiply-shift method, which only needs
+ * a division on the rare occasions that a random word has to be rejected.
  * @author Daniel Dyer
  */
-public class DiscreteUniformGenerator implements NumberGenerator<Integer>
+public class DiscreteUniformGenerator implements IntGenerator
 {
     private final Random rng;
-    private final int range;
+    private final long range;
     private final int minimumValue;
 
+    /**
+     * @param minimumValue The smallest possible value (inclusive).
+     * @param maximumValue The largest possible value (inclusive).  Any interval may
+     * be used, up to and including the full range of int values.
+     * @param rng The source of randomness.
+     */
     public DiscreteUniformGenerator(int minimumValue,
                                     int maximumValue,
                                     Random rng)
     {
+        if (maximumValue < minimumValue)
+        {
+            throw new IllegalArgumentException("Maximum must not be less than minimum.");
+        }
         this.rng = rng;
         this.minimumValue = minimumValue;
-        this.range = maximumValue - minimumValue + 1;
+        this.range = (long) maximumValue - minimumValue + 1;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int nextInt()
+    {
+        return (int) BoundedIntegers.nextWord(rng, range) + minimumValue;
     }
 
 
@@ -44,6 +65,6 @@ public class DiscreteUniformGenerator implements NumberGenerator<Integer>
      */
     public Integer nextValue()
     {
-        return rng.nextInt(range) + minimumValue;
+        return nextInt();
     }
 }
@@ -16,8 +16,9 @@
 package org.uncommons.maths.random;
 
 import java.util.Random;
-import org.uncommons.maths.number.ConstantGenerator;
+import org.uncommons.maths.number.DoubleGenerator;
 import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.number.PrimitiveGenerators;
 
 /**
  * Continuous random sequence that follows an
@@ -26,10 +27,16 @@ import org.uncommons.maths.number.NumberGenerator;
  * @author Daniel Dyer
  * @since 1.0.2
  */
-public class ExponentialGenerator implements NumberGenerator<Double>
+public class ExponentialGenerator implements DoubleGenerator
 {
-    private final NumberGenerator<Double> rate;
+    private final DoubleGenerator rate;
     private final Random rng;
+    private final Method method;
+    private final ParameterVersion parameterVersion;
+
+    // Cache the rate so that it need not be read for every value generated
+    // if the rate generator is versioned.
+    private transient Parameters parameters;
 
 
     /**
@@ -45,8 +52,30 @@ public class ExponentialGenerator implements NumberGenerator<Double>
     public ExponentialGenerator(NumberGenerator<Double> rate,
                                 Random rng)
     {
-        this.rate = rate;
+        this(rate, rng, Method.INVERSION);
+    }
+
+
+    /**
+     * Creates a generator of exponentially-distributed values from a distribution
+     * with a rate controlled by the specified generator parameter, using the
+     * specified sampling method.
+     * @param rate A number generator that provides values to use as the rate for
+     * the exponential distribution.  This generator must only return non-zero, positive
+     * values.
+     * @param rng The source of randomness used to generate the exponential values.
+     * @param method The algorithm used to transform uniform random values into
+     * exponentially-distributed values.
+     * @since 1.3
+     */
+    public ExponentialGenerator(NumberGenerator<Double> rate,
+                                Random rng,
+                                Method method)
+    {
+        this.rate = PrimitiveGenerators.asDoubleGenerator(rate);
         this.rng = rng;
+        this.method = method;
+        this.parameterVersion = new ParameterVersion(this.rate);
     }
 
 
@@ -60,7 +89,24 @@ public class ExponentialGenerator implements NumberGenerator<Double>
     public ExponentialGenerator(double rate,
                                 Random rng)
     {
-        this(new ConstantGenerator<Double>(rate), rng);
+        this(PrimitiveGenerators.constant(rate), rng);
+    }
+
+
+    /**
+     * Creates a generator of exponentially-distributed values from a distribution
+     * with the specified rate, using the specified sampling method.
+     * @param rate The rate (lamda) of the exponential distribution.
+     * @param rng The source of randomness used to generate the exponential values.
+     * @param method The algorithm used to transform uniform random values into
+     * exponentially-distributed values.
+     * @since 1.3
+     */
+    public ExponentialGenerator(double rate,
+                                Random rng,
+                                Method method)
+    {
+        this(PrimitiveGenerators.constant(rate), rng, method);
     }
 
 
@@ -69,8 +115,13 @@ public class ExponentialGenerator implements NumberGenerator<Double>
      * {@literal rate}.
      * @return The next exponentially-distributed value.
      */
-    public Double nextValue()
+    public double nextDouble()
     {
+        double currentRate = currentRate();
+        if (method == Method.ZIGGURAT)
+        {
+            return Ziggurat.nextExponential(rng) / currentRate;
+        }
         double u;
         do
         {
@@ -78,6 +129,72 @@ public class ExponentialGenerator implements NumberGenerator<Double>
             // zero (inclusive) and 1 (exclusive)
             u = rng.nextDouble();
         } while (u == 0d); // Reject zero, u must be positive for this to work.
-        return (-Math.log(u)) / rate.nextValue();
+        return (-Math.log(u)) / currentRate;
+    }
+
+
+    private double currentRate()
+    {
+        long version = parameterVersion.current();
+        if (version == ParameterVersion.UNVERSIONED)
+        {
+            return rate.nextDouble();
+        }
+        Parameters current = parameters;
+        if (current == null || version != current.version)
+        {
+            current = new Parameters(rate.nextDouble(), version);
+            parameters = current;
+        }
+        return current.rate;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public Double nextValue()
+    {
+        return nextDouble();
+    }
+
+
+    /**
+     * Algorithms for generating exponentially-distributed values.
+     * @since 1.3
+     */
+    public static enum Method
+    {
+        /**
+         * Inverse transform sampling, which requires one uniform value and one
+         * logarithm per exponential value.  This is the default and matches the
+         * output of earlier versions.
+         */
+        INVERSION,
+
+        /**
+         * Uses the Ziggurat algorithm with precomputed tables.  Most values require
+         * just one random {@code long}, a table lookup and a multiplication, so this
+         * avoids the cost of the logarithm.  The output sequence differs from that of
+         * {@link #INVERSION} for the same seed.
+         */
+        ZIGGURAT
+    }
+
+
+    /**
+     * The parameter value, paired with its version in an immutable object so
+     * that both can be replaced atomically when the rate changes.
+     */
+    private static final class Parameters
+    {
+        private final double rate;
+        private final long version;
+
+        Parameters(double rate, long version)
+        {
+            this.rate = rate;
+            this.version = version;
+        }
     }
 }
@@ -0,0 +1,204 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.util.Random;
+import org.uncommons.maths.number.DoubleGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.number.PrimitiveGenerators;
+
+/**
+ * Continuous random sequence that follows a
+ * <a href="http://en.wikipedia.org/wiki/Gamma_distribution" target="_top">gamma
+ * distribution</a>.  Values are generated using the method described in
+ * <em>"A Simple Method for Generating Gamma Variables"</em> by George Marsaglia
+ * and Wai Wan Tsang (2000), which needs on average little more than one normal
+ * and one uniform value per gamma value, for any shape.
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+public class GammaGenerator implements DoubleGenerator
+{
+    private final Random rng;
+    private final DoubleGenerator shape;
+    private final DoubleGenerator scale;
+    private final ParameterVersion parameterVersion;
+
+    // Cache the constants derived from the shape to avoid recalculating them
+    // for each value generated, if the parameter generators are versioned.
+    private transient Parameters parameters;
+
+
+    /**
+     * <p>Creates a generator of gamma-distributed values.  The shape and scale
+     * are determined by the provided {@link NumberGenerator}s.  This means that
+     * the statistical parameters of this generator may change over time.</p>
+     * <p>To create a gamma generator with a constant shape and scale, use the
+     * {@link #GammaGenerator(double, double, Random)} constructor instead.</p>
+     * @param shape A {@link NumberGenerator} that provides the shape parameter
+     * ({@literal k}) of the distribution used for the next generated value.
+     * This generator must only return positive values.
+     * @param scale A {@link NumberGenerator} that provides the scale parameter
+     * ({@literal theta}) of the distribution used for the next generated value.
+     * This generator must only return positive values.
+     * @param rng The source of randomness.
+     */
+    public GammaGenerator(NumberGenerator<Double> shape,
+                          NumberGenerator<Double> scale,
+                          Random rng)
+    {
+        this.shape = PrimitiveGenerators.asDoubleGenerator(shape);
+        this.scale = PrimitiveGenerators.asDoubleGenerator(scale);
+        this.rng = rng;
+        this.parameterVersion = new ParameterVersion(this.shape, this.scale);
+    }
+
+
+    /**
+     * Creates a generator of gamma-distributed values from a distribution
+     * with the specified parameters.  The mean of this distribution is
+     * {@literal shape * scale} and the variance is {@literal shape * scale^2}.
+     * @param shape The shape parameter ({@literal k}) of the distribution.
+     * @param scale The scale parameter ({@literal theta}) of the distribution.
+     * @param rng The source of randomness.
+     */
+    public GammaGenerator(double shape,
+                          double scale,
+                          Random rng)
+    {
+        this(PrimitiveGenerators.constant(shape),
+             PrimitiveGenerators.constant(scale),
+             rng);
+        if (shape <= 0)
+        {
+            throw new IllegalArgumentException("Shape must be a positive value.");
+        }
+        if (scale <= 0)
+        {
+            throw new IllegalArgumentException("Scale must be a positive value.");
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public double nextDouble()
+    {
+        long version = parameterVersion.current();
+        if (version == ParameterVersion.UNVERSIONED)
+        {
+            return nextStandardGamma(rng, shape.nextDouble()) * scale.nextDouble();
+        }
+        Parameters current = parameters;
+        if (current == null || version != current.version)
+        {
+            current = new Parameters(shape.nextDouble(), scale.nextDouble(), version);
+            parameters = current;
+        }
+        return nextStandardGamma(rng, current.d, current.c, current.inverseShape) * current.scale;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public Double nextValue()
+    {
+        return nextDouble();
+    }
+
+
+    /**
+     * Generates a value from the gamma distribution with the specified shape
+     * and a scale of one.  This is used as the basis for several other
+     * distributions.
+     * @param rng The source of randomness.
+     * @param shape The shape parameter, which must be positive.
+     * @return A gamma-distributed value.
+     */
+    static double nextStandardGamma(Random rng, double shape)
+    {
+        double d = (shape < 1 ? shape + 1 : shape) - 1d / 3;
+        return nextStandardGamma(rng, d, 1 / Math.sqrt(9 * d), shape < 1 ? 1 / shape : 0);
+    }
+
+
+    /**
+     * Marsaglia and Tsang's method, using constants precomputed from the shape.
+     * @param d The (boosted) shape minus one third.
+     * @param c {@literal 1 / sqrt(9d)}.
+     * @param inverseShape The reciprocal of the shape if it is less than one and
+     * has been boosted, zero otherwise.
+     */
+    private static double nextStandardGamma(Random rng, double d, double c, double inverseShape)
+    {
+        if (inverseShape > 0)
+        {
+            // The shape has been boosted above one, so correct the result (this is
+            // the method suggested by Marsaglia and Tsang).  Using 1 - u avoids
+            // returning zero unnecessarily.
+            double u = 1 - rng.nextDouble();
+            return nextStandardGamma(rng, d, c, 0) * Math.pow(u, inverseShape);
+        }
+
+        while (true)
+        {
+            double x;
+            double v;
+            do
+            {
+                x = Ziggurat.nextGaussian(rng);
+                v = 1 + c * x;
+            } while (v <= 0);
+            v = v * v * v;
+            double u = rng.nextDouble();
+            double xSquared = x * x;
+            // Cheap squeeze test first, which accepts most values.
+            if (u < 1 - 0.0331 * xSquared * xSquared)
+            {
+                return d * v;
+            }
+            if (Math.log(u) < 0.5 * xSquared + d * (1 - v + Math.log(v)))
+            {
+                return d * v;
+            }
+        }
+    }
+
+
+    /**
+     * Parameter values and the constants derived from them, grouped together in
+     * an immutable object so that they can be replaced atomically when they change.
+     */
+    private static final class Parameters
+    {
+        private final double scale;
+        private final long version;
+        private final double d;
+        private final double c;
+        private final double inverseShape;
+
+        Parameters(double shape, double scale, long version)
+        {
+            this.scale = scale;
+            this.version = version;
+            this.d = (shape < 1 ? shape + 1 : shape) - 1d / 3;
+            this.c = 1 / Math.sqrt(9 * d);
+            this.inverseShape = shape < 1 ? 1 / shape : 0;
+        }
+    }
+}
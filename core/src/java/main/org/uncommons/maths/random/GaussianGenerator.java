@@ -16,19 +16,26 @@
 package org.uncommons.maths.random;
 
 import java.util.Random;
-import org.uncommons.maths.number.ConstantGenerator;
+import org.uncommons.maths.number.DoubleGenerator;
 import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.number.PrimitiveGenerators;
 
 /**
  * <a href="http://en.wikipedia.org/wiki/Normal_distribution" target="_top">Normally distributed</a>
  * random sequence.
  * @author Daniel Dyer
  */
-public class GaussianGenerator implements NumberGenerator<Double>
+public class GaussianGenerator implements DoubleGenerator
 {
     private final Random rng;
-    private final NumberGenerator<Double> mean;
-    private final NumberGenerator<Double> standardDeviation;
+    private final DoubleGenerator mean;
+    private final DoubleGenerator standardDeviation;
+    private final Method method;
+    private final ParameterVersion parameterVersion;
+
+    // Cache the parameter values so that they need not be read for every value
+    // generated if the parameter generators are versioned.
+    private transient Parameters parameters;
 
 
     /**
@@ -53,9 +60,34 @@ public class GaussianGenerator implements NumberGenerator<Double>
                              NumberGenerator<Double> standardDeviation,
                              Random rng)
     {
-        this.mean = mean;
-        this.standardDeviation = standardDeviation;
+        this(mean, standardDeviation, rng, Method.POLAR);
+    }
+
+
+    /**
+     * Creates a generator of normally-distributed values using the specified
+     * sampling method.  The mean and standard deviation are determined by the
+     * provided {@link NumberGenerator}s.
+     * @param mean A {@link NumberGenerator} that provides the mean of the
+     * Gaussian distribution used for the next generated value.
+     * @param standardDeviation A {@link NumberGenerator} that provides the
+     * standard deviation of the Gaussian distribution used for the next
+     * generated value.
+     * @param rng The source of randomness.
+     * @param method The algorithm used to transform uniform random values into
+     * normally-distributed values.
+     * @since 1.3
+     */
+    public GaussianGenerator(NumberGenerator<Double> mean,
+                             NumberGenerator<Double> standardDeviation,
+                             Random rng,
+                             Method method)
+    {
+        this.mean = PrimitiveGenerators.asDoubleGenerator(mean);
+        this.standardDeviation = PrimitiveGenerators.asDoubleGenerator(standardDeviation);
         this.rng = rng;
+        this.method = method;
+        this.parameterVersion = new ParameterVersion(this.mean, this.standardDeviation);
     }
 
 
@@ -70,17 +102,105 @@ public class GaussianGenerator implements NumberGenerator<Double>
                              double standardDeviation,
                              Random rng)
     {
-        this(new ConstantGenerator<Double>(mean),
-             new ConstantGenerator<Double>(standardDeviation),
+        this(PrimitiveGenerators.constant(mean),
+             PrimitiveGenerators.constant(standardDeviation),
              rng);
     }
 
 
+    /**
+     * Creates a generator of normally-distributed values from a distribution
+     * with the specified mean and standard deviation, using the specified
+     * sampling method.
+     * @param mean The mean of the values generated.
+     * @param standardDeviation The standard deviation of the values generated.
+     * @param rng The source of randomness.
+     * @param method The algorithm used to transform uniform random values into
+     * normally-distributed values.
+     * @since 1.3
+     */
+    public GaussianGenerator(double mean,
+                             double standardDeviation,
+                             Random rng,
+                             Method method)
+    {
+        this(PrimitiveGenerators.constant(mean),
+             PrimitiveGenerators.constant(standardDeviation),
+             rng,
+             method);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public double nextDouble()
+    {
+        double value = method == Method.ZIGGURAT ? Ziggurat.nextGaussian(rng) : rng.nextGaussian();
+        long version = parameterVersion.current();
+        if (version == ParameterVersion.UNVERSIONED)
+        {
+            return value * standardDeviation.nextDouble() + mean.nextDouble();
+        }
+        Parameters current = parameters;
+        if (current == null || version != current.version)
+        {
+            current = new Parameters(mean.nextDouble(), standardDeviation.nextDouble(), version);
+            parameters = current;
+        }
+        return value * current.standardDeviation + current.mean;
+    }
+
+
     /**
      * {@inheritDoc}
      */
     public Double nextValue()
     {
-        return rng.nextGaussian() * standardDeviation.nextValue() + mean.nextValue();
+        return nextDouble();
+    }
+
+
+    /**
+     * Algorithms for generating normally-distributed values.
+     * @since 1.3
+     */
+    public static enum Method
+    {
+        /**
+         * Delegates to the RNG's {@link Random#nextGaussian()} method, which uses
+         * Marsaglia's polar method and consumes two uniform values per pair of
+         * normal values.  This is the default and matches the output of earlier
+         * versions.
+         */
+        POLAR,
+
+        /**
+         * Uses the Ziggurat algorithm with precomputed tables.  Most values require
+         * just one random {@code long}, a table lookup and a multiplication, with
+         * no logarithms or square roots, so this is usually several times faster
+         * than {@link #POLAR}.  The output sequence differs from that of {@link #POLAR}
+         * for the same seed.
+         */
+        ZIGGURAT
+    }
+
+
+    /**
+     * Parameter values, grouped together in an immutable object so that they
+     * can be replaced atomically when they change.
+     */
+    private static final class Parameters
+    {
+        private final double mean;
+        private final double standardDeviation;
+        private final long version;
+
+        Parameters(double mean, double standardDeviation, long version)
+        {
+            this.mean = mean;
+            this.standardDeviation = standardDeviation;
+            this.version = version;
+        }
     }
 }
@@ -33,7 +33,7 @@ import org.uncommons.maths.binary.BinaryUtils;
  *
  * @author Daniel Dyer
  */
-public class JavaRNG extends Random implements RepeatableRNG
+public class JavaRNG extends Random implements RepeatableRNG, BulkRNG
 {
     private static final int SEED_SIZE_BYTES = 8;
 
@@ -93,4 +93,84 @@ public class JavaRNG extends Random implements RepeatableRNG
     {
         return seed.clone();
     }
+
+
+    /**
+     * Generates a uniformly distributed long in a bounded range, using Lemire's
+     * multiply-shift method as the other RNGs in this package do.  Unlike
+     * {@link #nextInt(int)}, which is inherited unchanged so that this class remains
+     * compatible with {@link Random}, there is no equivalent method in {@link Random}.
+     * @param bound The (exclusive) upper bound.  Must be positive.
+     * @return A random long in the range [0, bound).
+     */
+    public long nextLong(long bound)
+    {
+        return BoundedIntegers.nextLong(this, bound);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void nextInts(int[] values)
+    {
+        nextInts(values, 0, values.length);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void nextInts(int[] values, int fromIndex, int toIndex)
+    {
+        AbstractRNG.checkRange(values.length, fromIndex, toIndex);
+        for (int i = fromIndex; i < toIndex; i++)
+        {
+            values[i] = nextInt();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void nextLongs(long[] values)
+    {
+        nextLongs(values, 0, values.length);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void nextLongs(long[] values, int fromIndex, int toIndex)
+    {
+        AbstractRNG.checkRange(values.length, fromIndex, toIndex);
+        for (int i = fromIndex; i < toIndex; i++)
+        {
+            values[i] = nextLong();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void nextDoubles(double[] values)
+    {
+        nextDoubles(values, 0, values.length);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void nextDoubles(double[] values, int fromIndex, int toIndex)
+    {
+        AbstractRNG.checkRange(values.length, fromIndex, toIndex);
+        for (int i = fromIndex; i < toIndex; i++)
+        {
+            values[i] = nextDouble();
+        }
+    }
 }
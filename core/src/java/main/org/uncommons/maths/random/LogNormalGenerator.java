@@ -0,0 +1,102 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.util.Random;
+import org.uncommons.maths.number.DoubleGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.number.PrimitiveGenerators;
+
+/**
+ * Continuous random sequence that follows a
+ * <a href="http://en.wikipedia.org/wiki/Log-normal_distribution" target="_top">log-normal
+ * distribution</a>.  The natural logarithms of the generated values are
+ * normally distributed.  Note that the parameters of this distribution are
+ * the mean and standard deviation of those logarithms, not of the values
+ * themselves.
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+public class LogNormalGenerator implements DoubleGenerator
+{
+    private final Random rng;
+    private final DoubleGenerator mu;
+    private final DoubleGenerator sigma;
+
+
+    /**
+     * <p>Creates a generator of log-normally-distributed values.  The parameters
+     * are determined by the provided {@link NumberGenerator}s.  This means that
+     * the statistical parameters of this generator may change over time.</p>
+     * <p>To create a log-normal generator with constant parameters, use the
+     * {@link #LogNormalGenerator(double, double, Random)} constructor instead.</p>
+     * @param mu A {@link NumberGenerator} that provides the mean of the natural
+     * logarithm of the next generated value.
+     * @param sigma A {@link NumberGenerator} that provides the standard deviation
+     * of the natural logarithm of the next generated value.  This generator must
+     * only return positive values.
+     * @param rng The source of randomness.
+     */
+    public LogNormalGenerator(NumberGenerator<Double> mu,
+                              NumberGenerator<Double> sigma,
+                              Random rng)
+    {
+        this.mu = PrimitiveGenerators.asDoubleGenerator(mu);
+        this.sigma = PrimitiveGenerators.asDoubleGenerator(sigma);
+        this.rng = rng;
+    }
+
+
+    /**
+     * Creates a generator of log-normally-distributed values from a distribution
+     * with the specified parameters.  The mean of this distribution is
+     * {@literal exp(mu + sigma^2 / 2)}.
+     * @param mu The mean of the natural logarithm of the values generated.
+     * @param sigma The standard deviation of the natural logarithm of the
+     * values generated.
+     * @param rng The source of randomness.
+     */
+    public LogNormalGenerator(double mu,
+                              double sigma,
+                              Random rng)
+    {
+        this(PrimitiveGenerators.constant(mu),
+             PrimitiveGenerators.constant(sigma),
+             rng);
+        if (sigma <= 0)
+        {
+            throw new IllegalArgumentException("Sigma must be a positive value.");
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public double nextDouble()
+    {
+        return Math.exp(mu.nextDouble() + sigma.nextDouble() * Ziggurat.nextGaussian(rng));
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public Double nextValue()
+    {
+        return nextDouble();
+    }
+}
@@ -0,0 +1,351 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>Jump-ahead for the {@link MersenneTwisterRNG}, using the polynomial arithmetic
+ * described by Haramoto, Matsumoto, Nishimura, Panneton and L'Ecuyer in "Efficient
+ * Jump Ahead for F<sub>2</sub>-Linear Random Number Generators".</p>
+ *
+ * <p>The Mersenne Twister's state transition is a linear map over GF(2) with a
+ * characteristic polynomial, P(x), of degree 19937.  Advancing the state by J steps
+ * is equivalent to evaluating g(x) = x<sup>J</sup> mod P(x) at the transition
+ * function, which takes a fixed amount of work however large J is.  P(x) is recovered
+ * once, using the Berlekamp-Massey algorithm, and the jump polynomials for each distance
+ * are cached since they do not depend on the state being advanced.</p>
+ *
+ * <p>Polynomials are represented as arrays of longs, with the coefficient of x<sup>i</sup>
+ * in bit (i % 64) of element (i / 64).</p>
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+final class MersenneTwisterJump
+{
+    // These must match the values in MersenneTwisterRNG.
+    private static final int N = 624;
+    private static final int M = 397;
+    private static final int MATRIX_A = 0x9908b0df;
+    private static final int UPPER_MASK = 0x80000000;
+    private static final int LOWER_MASK = 0x7fffffff;
+
+    // Degree of the characteristic polynomial (the number of bits of state).
+    private static final int DEGREE = 19937;
+    private static final int POLYNOMIAL_WORDS = (DEGREE >> 6) + 1;
+
+    private static final ConcurrentMap<Integer, long[]> JUMP_POLYNOMIALS = new ConcurrentHashMap<Integer, long[]>();
+
+
+    private MersenneTwisterJump()
+    {
+        // Prevent instantiation.
+    }
+
+
+    /**
+     * Advances a Mersenne Twister state vector by 2<sup>power</sup> steps.  The vector
+     * is interpreted in the same way as the state of {@link MersenneTwisterRNG}, so the
+     * RNG's index into the vector does not change.
+     * @param mt The state vector, which is modified in place.
+     * @param power The base 2 logarithm of the jump distance.
+     */
+    static void jump(int[] mt, int power)
+    {
+        long[] jumpPolynomial = JUMP_POLYNOMIALS.get(power);
+        if (jumpPolynomial == null)
+        {
+            jumpPolynomial = calculateJumpPolynomial(power);
+            JUMP_POLYNOMIALS.putIfAbsent(power, jumpPolynomial);
+        }
+
+        // The low 31 bits of mt[0] are not part of the 19937-bit state, so the polynomial
+        // only describes the transition once they have been shifted out.  Take one step first
+        // and then advance by the remaining 2^power - 1 steps (which the polynomial encodes).
+        int[] stepped = mt.clone();
+        step(stepped, 0);
+        int[] start = new int[N];
+        rotate(stepped, 1, start);
+
+        // Evaluate the polynomial using Horner's method.  The accumulator is a circular buffer
+        // that begins at index 'offset'.
+        int[] accumulator = new int[N];
+        int offset = 0;
+        for (int i = DEGREE - 1; i >= 0; i--)
+        {
+            step(accumulator, offset);
+            offset = offset == N - 1 ? 0 : offset + 1;
+            if ((jumpPolynomial[i >> 6] & (1L << i)) != 0)
+            {
+                for (int j = 0; j < N - offset; j++)
+                {
+                    accumulator[offset + j] ^= start[j];
+                }
+                for (int j = N - offset; j < N; j++)
+                {
+                    accumulator[offset + j - N] ^= start[j];
+                }
+            }
+        }
+        rotate(accumulator, offset, mt);
+    }
+
+
+    /**
+     * Advances a circular state vector by one word.  The oldest word, at index
+     * {@literal offset}, is replaced by the newly generated one.
+     */
+    private static void step(int[] state, int offset)
+    {
+        int next = offset == N - 1 ? 0 : offset + 1;
+        int middle = offset + M < N ? offset + M : offset + M - N;
+        int y = (state[offset] & UPPER_MASK) | (state[next] & LOWER_MASK);
+        state[offset] = state[middle] ^ (y >>> 1) ^ ((y & 1) == 0 ? 0 : MATRIX_A);
+    }
+
+
+    /**
+     * Copies a circular state vector into a linear one.
+     */
+    private static void rotate(int[] state, int offset, int[] destination)
+    {
+        System.arraycopy(state, offset, destination, 0, N - offset);
+        System.arraycopy(state, 0, destination, N - offset, offset);
+    }
+
+
+    /**
+     * @return x<sup>(2<sup>power</sup> - 1)</sup> mod P(x).
+     */
+    private static long[] calculateJumpPolynomial(int power)
+    {
+        long[] characteristic = CharacteristicPolynomialHolder.SHIFTED_POLYNOMIALS[0];
+        long[] result = new long[POLYNOMIAL_WORDS];
+        result[0] = 1;
+        // 2^power - 1 is 'power' 1 bits, so square and multiply by x for each one.
+        for (int i = 0; i < power; i++)
+        {
+            result = square(result);
+            // Multiply by x.
+            long carry = 0;
+            for (int j = 0; j < POLYNOMIAL_WORDS; j++)
+            {
+                long word = result[j];
+                result[j] = (word << 1) | carry;
+                carry = word >>> 63;
+            }
+            if ((result[DEGREE >> 6] & (1L << DEGREE)) != 0)
+            {
+                for (int j = 0; j < POLYNOMIAL_WORDS; j++)
+                {
+                    result[j] ^= characteristic[j];
+                }
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * @return a(x)<sup>2</sup> mod P(x).
+     */
+    private static long[] square(long[] a)
+    {
+        // Squaring over GF(2) just spreads the coefficients out (all cross terms cancel).
+        long[] product = new long[2 * POLYNOMIAL_WORDS + 1];
+        for (int i = 0; i < POLYNOMIAL_WORDS; i++)
+        {
+            product[2 * i] = spreadBits(a[i] & 0xFFFFFFFFL);
+            product[2 * i + 1] = spreadBits(a[i] >>> 32);
+        }
+
+        // Reduce modulo P(x), clearing the highest remaining term at each step.
+        long[][] shifted = CharacteristicPolynomialHolder.SHIFTED_POLYNOMIALS;
+        for (int bit = 2 * DEGREE - 2; bit >= DEGREE; bit--)
+        {
+            if ((product[bit >> 6] & (1L << bit)) != 0)
+            {
+                int shift = bit - DEGREE;
+                long[] polynomial = shifted[shift & 63];
+                int wordOffset = shift >> 6;
+                for (int j = 0; j < polynomial.length; j++)
+                {
+                    product[wordOffset + j] ^= polynomial[j];
+                }
+            }
+        }
+        long[] result = new long[POLYNOMIAL_WORDS];
+        System.arraycopy(product, 0, result, 0, POLYNOMIAL_WORDS);
+        return result;
+    }
+
+
+    /**
+     * Moves bit i of the low 32 bits of the argument to bit 2i of the result.
+     */
+    private static long spreadBits(long x)
+    {
+        x = (x | (x << 16)) & 0x0000FFFF0000FFFFL;
+        x = (x | (x << 8)) & 0x00FF00FF00FF00FFL;
+        x = (x | (x << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        x = (x | (x << 2)) & 0x3333333333333333L;
+        x = (x | (x << 1)) & 0x5555555555555555L;
+        return x;
+    }
+
+
+    /**
+     * Finds the characteristic polynomial of the Mersenne Twister's transition function.
+     * Since the polynomial is irreducible, it is the minimal polynomial of any non-zero
+     * output bit sequence, which Berlekamp-Massey recovers from 2 x 19937 bits.
+     * @return P(x).
+     */
+    private static long[] findCharacteristicPolynomial()
+    {
+        int length = 2 * DEGREE;
+        int words = (length >> 6) + 2;
+        // The sequence is stored in reverse, so that the bits needed to calculate each
+        // discrepancy are in the same order as the connection polynomial's coefficients.
+        long[] reversedSequence = new long[words];
+        int[] state = new int[N];
+        state[1] = 1;
+        int offset = 0;
+        for (int i = 0; i < N; i++) // Shift out the bits that are not part of the state.
+        {
+            step(state, offset);
+            offset = offset == N - 1 ? 0 : offset + 1;
+        }
+        for (int i = 0; i < length; i++)
+        {
+            step(state, offset);
+            if ((state[offset] & 1) != 0)
+            {
+                int index = length - 1 - i;
+                reversedSequence[index >> 6] |= 1L << index;
+            }
+            offset = offset == N - 1 ? 0 : offset + 1;
+        }
+
+        long[] connection = new long[words];
+        long[] previous = new long[words];
+        connection[0] = 1;
+        previous[0] = 1;
+        int degree = 0;
+        int gap = 1;
+        for (int n = 0; n < length; n++)
+        {
+            // Discrepancy = s(n) + sum of c(i).s(n - i) for i = 1..degree.
+            int start = length - 1 - n;
+            long discrepancy = 0;
+            for (int w = 0; w <= degree >> 6; w++)
+            {
+                discrepancy ^= connection[w] & extractWord(reversedSequence, start + (w << 6));
+            }
+            if ((Long.bitCount(discrepancy) & 1) == 0)
+            {
+                gap++;
+            }
+            else if (2 * degree <= n)
+            {
+                long[] temp = connection.clone();
+                xorShifted(connection, previous, gap);
+                degree = n + 1 - degree;
+                previous = temp;
+                gap = 1;
+            }
+            else
+            {
+                xorShifted(connection, previous, gap);
+                gap++;
+            }
+        }
+        if (degree != DEGREE)
+        {
+            throw new IllegalStateException("Unexpected characteristic polynomial degree: " + degree);
+        }
+
+        // The connection polynomial is the reciprocal of the characteristic polynomial.
+        long[] polynomial = new long[POLYNOMIAL_WORDS];
+        for (int i = 0; i <= DEGREE; i++)
+        {
+            if ((connection[i >> 6] & (1L << i)) != 0)
+            {
+                int j = DEGREE - i;
+                polynomial[j >> 6] |= 1L << j;
+            }
+        }
+        return polynomial;
+    }
+
+
+    /**
+     * @return The 64 bits starting at the specified bit index (bits beyond the end
+     * of the array are zero).
+     */
+    private static long extractWord(long[] bits, int index)
+    {
+        int word = index >> 6;
+        int shift = index & 63;
+        long low = word < bits.length ? bits[word] >>> shift : 0;
+        if (shift == 0 || word + 1 >= bits.length)
+        {
+            return low;
+        }
+        return low | (bits[word + 1] << (64 - shift));
+    }
+
+
+    /**
+     * XORs a polynomial, multiplied by x<sup>shift</sup>, into another, discarding any
+     * terms that do not fit in the destination array.
+     */
+    private static void xorShifted(long[] destination, long[] source, int shift)
+    {
+        int wordShift = shift >> 6;
+        int bitShift = shift & 63;
+        for (int i = destination.length - 1; i >= wordShift; i--)
+        {
+            int j = i - wordShift;
+            long word = j < source.length ? source[j] << bitShift : 0;
+            if (bitShift != 0 && j > 0 && j <= source.length)
+            {
+                word |= source[j - 1] >>> (64 - bitShift);
+            }
+            destination[i] ^= word;
+        }
+    }
+
+
+    /**
+     * Lazily calculates the characteristic polynomial the first time that a jump
+     * is performed.  The polynomial is stored pre-shifted by each of 0 to 63 bits to
+     * speed up modular reduction.
+     */
+    private static final class CharacteristicPolynomialHolder
+    {
+        static final long[][] SHIFTED_POLYNOMIALS = new long[64][];
+        static
+        {
+            long[] polynomial = findCharacteristicPolynomial();
+            for (int shift = 0; shift < 64; shift++)
+            {
+                SHIFTED_POLYNOMIALS[shift] = new long[POLYNOMIAL_WORDS + 1];
+                xorShifted(SHIFTED_POLYNOMIALS[shift], polynomial, shift);
+            }
+        }
+    }
+}
@@ -15,8 +15,10 @@
 // ============================================================================
 package org.uncommons.maths.random;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Random;
-import java.util.concurrent.locks.ReentrantLock;
 import org.uncommons.maths.binary.BinaryUtils;
 
 /**
@@ -42,10 +44,15 @@ import org.uncommons.maths.binary.BinaryUtils;
  * from {@link Random}.  Calls to this method will have no effect.
  * Instead the seed must be set by a constructor.</em></p>
  *
+ * <p>To run replications in parallel from a single seed, use {@link #split()} to
+ * partition the output into non-overlapping streams (or {@link #jump(int)} to skip
+ * a large number of values directly).  This is cheaper than seeding an RNG for each
+ * task and, unlike independently seeded RNGs, guarantees that the streams do not overlap.</p>
+ *
  * @author Makoto Matsumoto and Takuji Nishimura (original C version)
  * @author Daniel Dyer (Java port)
  */
-public class MersenneTwisterRNG extends Random implements RepeatableRNG
+public class MersenneTwisterRNG extends AbstractRNG implements RepeatableRNG
 {
     // The actual seed size isn't that important, but it should be a multiple of 4.
     private static final int SEED_SIZE_BYTES = 16;
@@ -63,10 +70,10 @@ public class MersenneTwisterRNG extends Random implements RepeatableRNG
     private static final int GENERATE_MASK1 = 0x9d2c5680;
     private static final int GENERATE_MASK2 = 0xefc60000;
 
-    private final byte[] seed;
+    // Distance (as a power of 2) between the streams returned by split().
+    private static final int SPLIT_POWER = 64;
 
-    // Lock to prevent concurrent modification of the RNG's internal state.
-    private final ReentrantLock lock = new ReentrantLock();
+    private byte[] seed;
 
     private final int[] mt = new int[N]; // State vector.
     private int mtIndex = 0; // Index into state vector.
@@ -100,6 +107,19 @@ public class MersenneTwisterRNG extends Random implements RepeatableRNG
      */
     public MersenneTwisterRNG(byte[] seed)
     {
+        this(seed, true);
+    }
+
+
+    /**
+     * Creates an RNG and seeds it with the specified seed data.
+     * @param seed The seed data used to initialise the RNG.
+     * @param threadSafe Whether the RNG's state should be protected by a lock.  If false, the RNG
+     * must be confined to a single thread (see {@link AbstractRNG}).
+     */
+    public MersenneTwisterRNG(byte[] seed, boolean threadSafe)
+    {
+        super(threadSafe);
         if (seed == null || seed.length != SEED_SIZE_BYTES)
         {
             throw new IllegalArgumentException("Mersenne Twister RNG requires a 128-bit (16-byte) seed.");
@@ -149,6 +169,21 @@ public class MersenneTwisterRNG extends Random implements RepeatableRNG
     }
 
 
+    /**
+     * Creates an RNG with a copy of the current state of another instance.
+     * The caller must hold the other RNG's lock.
+     * @param parent The RNG to copy.
+     * @param threadSafe Whether the RNG's state should be protected by a lock.
+     */
+    MersenneTwisterRNG(MersenneTwisterRNG parent, boolean threadSafe)
+    {
+        super(threadSafe);
+        this.seed = parent.seed;
+        System.arraycopy(parent.mt, 0, mt, 0, N);
+        this.mtIndex = parent.mtIndex;
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -162,43 +197,164 @@ public class MersenneTwisterRNG extends Random implements RepeatableRNG
      * {@inheritDoc}
      */
     @Override
-    protected final int next(int bits)
+    protected void writeState(DataOutput out) throws IOException
     {
-        int y;
+        writeBytes(out, seed);
+        for (int value : mt)
+        {
+            out.writeInt(value);
+        }
+        out.writeShort(mtIndex);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void readState(DataInput in) throws IOException
+    {
+        byte[] newSeed = readBytes(in, SEED_SIZE_BYTES, SEED_SIZE_BYTES);
+        int[] newState = new int[N];
+        for (int i = 0; i < N; i++)
+        {
+            newState[i] = in.readInt();
+        }
+        int newIndex = in.readShort();
+        if (newIndex < 0 || newIndex > N)
+        {
+            throw new IllegalArgumentException("Invalid state index: " + newIndex);
+        }
+        seed = newSeed;
+        System.arraycopy(newState, 0, mt, 0, N);
+        mtIndex = newIndex;
+    }
+
+
+    /**
+     * Advances the RNG by 2<sup>power</sup> 32-bit values, as if {@link #nextInt()} had
+     * been called that many times (note that {@link #nextLong()} and {@link #nextDouble()}
+     * each consume two values).  The cost is the same for any distance, typically a few
+     * milliseconds, although the first jump of each distance also has to perform some
+     * calculations that are then cached.
+     * @param power The base 2 logarithm of the number of values to skip.
+     */
+    public void jump(int power)
+    {
+        if (power < 0)
+        {
+            throw new IllegalArgumentException("Power must be non-negative.");
+        }
         try
         {
-            lock.lock();
-            if (mtIndex >= N) // Generate N ints at a time.
+            getLock().lock();
+            MersenneTwisterJump.jump(mt, power);
+        }
+        finally
+        {
+            getLock().unlock();
+        }
+    }
+
+
+    /**
+     * <p>Returns a new RNG that continues from this RNG's current position, while this RNG
+     * jumps ahead by 2<sup>64</sup> values.  The streams of the two RNGs, and those of any
+     * further RNGs split from this one, will not overlap unless one of them generates more
+     * than 2<sup>64</sup> values.  Repeated calls can therefore partition a single seeded
+     * stream between any number of parallel tasks.</p>
+     *
+     * <p>The returned RNG reports the same seed as this one, but it cannot be recreated
+     * from that seed directly.  Instead, recreate this RNG from its seed and then repeat
+     * the same sequence of calls to this method.  It is thread-safe only if this RNG is.</p>
+     * @return An RNG that is independent of this one.
+     */
+    public MersenneTwisterRNG split()
+    {
+        try
+        {
+            getLock().lock();
+            MersenneTwisterRNG child = new MersenneTwisterRNG(this, isThreadSafe());
+            MersenneTwisterJump.jump(mt, SPLIT_POWER);
+            return child;
+        }
+        finally
+        {
+            getLock().unlock();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected final int nextWord()
+    {
+        if (mtIndex >= N) // Generate N ints at a time.
+        {
+            generateBlock();
+        }
+        return temper(mt[mtIndex++]);
+    }
+
+
+    /**
+     * Over-ridden to temper whole runs of the state vector at a time rather than
+     * checking whether a new block is needed before every value.
+     * @param values The array to fill.
+     * @param fromIndex The index of the first element (inclusive) to fill.
+     * @param toIndex The index of the last element (exclusive) to fill.
+     */
+    @Override
+    protected void nextWords(int[] values, int fromIndex, int toIndex)
+    {
+        int i = fromIndex;
+        while (i < toIndex)
+        {
+            if (mtIndex >= N)
             {
-                int kk;
-                for (kk = 0; kk < N - M; kk++)
-                {
-                    y = (mt[kk] & UPPER_MASK) | (mt[kk + 1] & LOWER_MASK);
-                    mt[kk] = mt[kk + M] ^ (y >>> 1) ^ MAG01[y & 0x1];
-                }
-                for (; kk < N - 1; kk++)
-                {
-                    y = (mt[kk] & UPPER_MASK) | (mt[kk + 1] & LOWER_MASK);
-                    mt[kk] = mt[kk + (M - N)] ^ (y >>> 1) ^ MAG01[y & 0x1];
-                }
-                y = (mt[N - 1] & UPPER_MASK) | (mt[0] & LOWER_MASK);
-                mt[N - 1] = mt[M - 1] ^ (y >>> 1) ^ MAG01[y & 0x1];
-
-                mtIndex = 0;
+                generateBlock();
             }
+            int end = Math.min(toIndex, i + N - mtIndex);
+            while (i < end)
+            {
+                values[i++] = temper(mt[mtIndex++]);
+            }
+        }
+    }
 
-            y = mt[mtIndex++];
+
+    /**
+     * Replaces the entire state vector with the next N values.
+     */
+    private void generateBlock()
+    {
+        int y;
+        int kk;
+        for (kk = 0; kk < N - M; kk++)
+        {
+            y = (mt[kk] & UPPER_MASK) | (mt[kk + 1] & LOWER_MASK);
+            mt[kk] = mt[kk + M] ^ (y >>> 1) ^ MAG01[y & 0x1];
         }
-        finally
+        for (; kk < N - 1; kk++)
         {
-            lock.unlock();
+            y = (mt[kk] & UPPER_MASK) | (mt[kk + 1] & LOWER_MASK);
+            mt[kk] = mt[kk + (M - N)] ^ (y >>> 1) ^ MAG01[y & 0x1];
         }
-        // Tempering
+        y = (mt[N - 1] & UPPER_MASK) | (mt[0] & LOWER_MASK);
+        mt[N - 1] = mt[M - 1] ^ (y >>> 1) ^ MAG01[y & 0x1];
+
+        mtIndex = 0;
+    }
+
+
+    private static int temper(int y)
+    {
         y ^= (y >>> 11);
         y ^= (y << 7) & GENERATE_MASK1;
         y ^= (y << 15) & GENERATE_MASK2;
         y ^= (y >>> 18);
-
-        return y >>> (32 - bits);
+        return y;
     }
 }
@@ -0,0 +1,192 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * <p>Fast random number generator using the PCG-XSH-RR 64/32 algorithm ("pcg32") from
+ * Melissa O'Neill's <a href="http://www.pcg-random.org" target="_top">PCG family</a>.
+ * A 64-bit linear congruential generator is advanced for each value and a permutation of
+ * its old state (an xorshift followed by a random rotation) produces 32 bits of output.
+ * The period is 2<sup>64</sup>.</p>
+ *
+ * <p>The 128-bit seed consists of the initial state (64 bits) followed by a stream
+ * selector (64 bits).  RNGs with the same initial state but different stream selectors
+ * produce distinct sequences.  Seeding is compatible with {@code pcg32_srandom_r}
+ * in the reference implementation.  Because the state is an LCG, {@link #advance(long)}
+ * can skip forwards (or backwards) any distance in O(log n) time.</p>
+ *
+ * <p><em>NOTE: Because instances of this class require 128-bit seeds, it is not
+ * possible to seed this RNG using the {@link #setSeed(long)} method inherited
+ * from {@link Random}.  Calls to this method will have no effect.
+ * Instead the seed must be set by a constructor.</em></p>
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+public class PCG32RNG extends AbstractRNG implements RepeatableRNG
+{
+    private static final int SEED_SIZE_BYTES = 16;
+
+    private static final long MULTIPLIER = 6364136223846793005L;
+
+    private byte[] seed;
+    private long state;
+    private long increment;
+
+
+    /**
+     * Creates a new RNG and seeds it using the default seeding strategy.
+     */
+    public PCG32RNG()
+    {
+        this(DefaultSeedGenerator.getInstance().generateSeed(SEED_SIZE_BYTES));
+    }
+
+
+    /**
+     * Seed the RNG using the provided seed generation strategy.
+     * @param seedGenerator The seed generation strategy that will provide
+     * the seed value for this RNG.
+     * @throws SeedException If there is a problem generating a seed.
+     */
+    public PCG32RNG(SeedGenerator seedGenerator) throws SeedException
+    {
+        this(seedGenerator.generateSeed(SEED_SIZE_BYTES));
+    }
+
+
+    /**
+     * Creates an RNG and seeds it with the specified seed data.
+     * @param seed The seed data used to initialise the RNG.
+     */
+    public PCG32RNG(byte[] seed)
+    {
+        this(seed, true);
+    }
+
+
+    /**
+     * Creates an RNG and seeds it with the specified seed data.
+     * @param seed The seed data used to initialise the RNG.
+     * @param threadSafe Whether the RNG's state should be protected by a lock.  If false, the RNG
+     * must be confined to a single thread (see {@link AbstractRNG}).
+     */
+    public PCG32RNG(byte[] seed, boolean threadSafe)
+    {
+        super(threadSafe);
+        if (seed == null || seed.length != SEED_SIZE_BYTES)
+        {
+            throw new IllegalArgumentException("PCG32 RNG requires a 128-bit (16-byte) seed.");
+        }
+        this.seed = seed.clone();
+        this.increment = (seedToLong(seed, 8) << 1) | 1;
+        this.state = 0;
+        step();
+        this.state += seedToLong(seed, 0);
+        step();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public byte[] getSeed()
+    {
+        return seed.clone();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void writeState(DataOutput out) throws IOException
+    {
+        writeBytes(out, seed);
+        out.writeLong(state);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void readState(DataInput in) throws IOException
+    {
+        byte[] newSeed = readBytes(in, SEED_SIZE_BYTES, SEED_SIZE_BYTES);
+        long newState = in.readLong();
+        seed = newSeed;
+        increment = (seedToLong(seed, 8) << 1) | 1;
+        state = newState;
+    }
+
+
+    /**
+     * Moves the RNG forwards by the specified number of 32-bit values, using Brown's
+     * algorithm for advancing an LCG.  The distance is treated as an unsigned value,
+     * so a negative argument moves the RNG backwards by that many values.
+     * @param distance The number of values to skip.
+     */
+    public void advance(long distance)
+    {
+        try
+        {
+            getLock().lock();
+            long accumulatedMultiplier = 1;
+            long accumulatedIncrement = 0;
+            long currentMultiplier = MULTIPLIER;
+            long currentIncrement = increment;
+            for (long remaining = distance; remaining != 0; remaining >>>= 1)
+            {
+                if ((remaining & 1) != 0)
+                {
+                    accumulatedMultiplier *= currentMultiplier;
+                    accumulatedIncrement = accumulatedIncrement * currentMultiplier + currentIncrement;
+                }
+                currentIncrement *= currentMultiplier + 1;
+                currentMultiplier *= currentMultiplier;
+            }
+            state = accumulatedMultiplier * state + accumulatedIncrement;
+        }
+        finally
+        {
+            getLock().unlock();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected final int nextWord()
+    {
+        long oldState = state;
+        step();
+        int xorShifted = (int) (((oldState >>> 18) ^ oldState) >>> 27);
+        return Integer.rotateRight(xorShifted, (int) (oldState >>> 59));
+    }
+
+
+    private void step()
+    {
+        state = state * MULTIPLIER + increment;
+    }
+}
@@ -0,0 +1,290 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * <p>Random number generator using the PCG-XSL-RR 128/64 algorithm ("pcg64") from
+ * Melissa O'Neill's <a href="http://www.pcg-random.org" target="_top">PCG family</a>.
+ * A 128-bit linear congruential generator is advanced for each value and 64 bits of
+ * output are produced by folding the two halves of the new state together and applying
+ * a random rotation.  The period is 2<sup>128</sup>.</p>
+ *
+ * <p>The 256-bit seed consists of the initial state (128 bits) followed by a stream
+ * selector (128 bits).  RNGs with the same initial state but different stream selectors
+ * produce distinct sequences.  Seeding is compatible with {@code pcg64_srandom_r}
+ * in the reference implementation.  Because the state is an LCG, {@link #advance(long)}
+ * can skip forwards any distance in O(log n) time.</p>
+ *
+ * <p>Java has no 128-bit integer type, so the state is held as two longs.  This makes
+ * each step more expensive than for the 64-bit generators in this package, such as
+ * {@link Xoshiro256StarStarRNG}, but PCG64 has the advantage of multiple streams.</p>
+ *
+ * <p><em>NOTE: Because instances of this class require 256-bit seeds, it is not
+ * possible to seed this RNG using the {@link #setSeed(long)} method inherited
+ * from {@link Random}.  Calls to this method will have no effect.
+ * Instead the seed must be set by a constructor.</em></p>
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+public class PCG64RNG extends AbstractRNG implements RepeatableRNG
+{
+    private static final int SEED_SIZE_BYTES = 32;
+
+    private static final long MULTIPLIER_HIGH = 0x2360ED051FC65DA4L;
+    private static final long MULTIPLIER_LOW = 0x4385DF649FCCF645L;
+
+    private byte[] seed;
+    private long stateHigh;
+    private long stateLow;
+    private long incrementHigh;
+    private long incrementLow;
+
+
+    /**
+     * Creates a new RNG and seeds it using the default seeding strategy.
+     */
+    public PCG64RNG()
+    {
+        this(DefaultSeedGenerator.getInstance().generateSeed(SEED_SIZE_BYTES));
+    }
+
+
+    /**
+     * Seed the RNG using the provided seed generation strategy.
+     * @param seedGenerator The seed generation strategy that will provide
+     * the seed value for this RNG.
+     * @throws SeedException If there is a problem generating a seed.
+     */
+    public PCG64RNG(SeedGenerator seedGenerator) throws SeedException
+    {
+        this(seedGenerator.generateSeed(SEED_SIZE_BYTES));
+    }
+
+
+    /**
+     * Creates an RNG and seeds it with the specified seed data.
+     * @param seed The seed data used to initialise the RNG.
+     */
+    public PCG64RNG(byte[] seed)
+    {
+        this(seed, true);
+    }
+
+
+    /**
+     * Creates an RNG and seeds it with the specified seed data.
+     * @param seed The seed data used to initialise the RNG.
+     * @param threadSafe Whether the RNG's state should be protected by a lock.  If false, the RNG
+     * must be confined to a single thread (see {@link AbstractRNG}).
+     */
+    public PCG64RNG(byte[] seed, boolean threadSafe)
+    {
+        super(threadSafe);
+        if (seed == null || seed.length != SEED_SIZE_BYTES)
+        {
+            throw new IllegalArgumentException("PCG64 RNG requires a 256-bit (32-byte) seed.");
+        }
+        this.seed = seed.clone();
+        initialiseIncrement();
+        step();
+        long initialLow = seedToLong(seed, 8);
+        stateLow += initialLow;
+        stateHigh += seedToLong(seed, 0) + carry(stateLow, initialLow);
+        step();
+    }
+
+
+    /**
+     * The increment is derived from the stream selector, which is the second half of
+     * the seed.  It must be odd.
+     */
+    private void initialiseIncrement()
+    {
+        long sequenceHigh = seedToLong(seed, 16);
+        long sequenceLow = seedToLong(seed, 24);
+        incrementHigh = (sequenceHigh << 1) | (sequenceLow >>> 63);
+        incrementLow = (sequenceLow << 1) | 1;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public byte[] getSeed()
+    {
+        return seed.clone();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void writeState(DataOutput out) throws IOException
+    {
+        writeBytes(out, seed);
+        out.writeLong(stateHigh);
+        out.writeLong(stateLow);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void readState(DataInput in) throws IOException
+    {
+        byte[] newSeed = readBytes(in, SEED_SIZE_BYTES, SEED_SIZE_BYTES);
+        long newStateHigh = in.readLong();
+        long newStateLow = in.readLong();
+        seed = newSeed;
+        initialiseIncrement();
+        stateHigh = newStateHigh;
+        stateLow = newStateLow;
+    }
+
+
+    /**
+     * Moves the RNG forwards by the specified number of 64-bit values (each call to
+     * {@link #nextInt()}, {@link #nextLong()} or {@link #nextDouble()} consumes one),
+     * using Brown's algorithm for advancing an LCG.  A negative distance moves the RNG
+     * backwards (it is sign-extended to 128 bits, which is equivalent to advancing almost
+     * a full period).
+     * @param distance The number of values to skip.
+     */
+    public void advance(long distance)
+    {
+        try
+        {
+            getLock().lock();
+            long accumulatedMultiplierHigh = 0;
+            long accumulatedMultiplierLow = 1;
+            long accumulatedIncrementHigh = 0;
+            long accumulatedIncrementLow = 0;
+            long currentMultiplierHigh = MULTIPLIER_HIGH;
+            long currentMultiplierLow = MULTIPLIER_LOW;
+            long currentIncrementHigh = incrementHigh;
+            long currentIncrementLow = incrementLow;
+            long remainingLow = distance;
+            long remainingHigh = distance < 0 ? -1 : 0; // Sign-extended to 128 bits.
+            while (remainingLow != 0 || remainingHigh != 0)
+            {
+                if ((remainingLow & 1) != 0)
+                {
+                    // accumulatedMultiplier *= currentMultiplier
+                    long high = multiplyHigh(accumulatedMultiplierHigh, accumulatedMultiplierLow,
+                                             currentMultiplierHigh, currentMultiplierLow);
+                    accumulatedMultiplierLow *= currentMultiplierLow;
+                    accumulatedMultiplierHigh = high;
+                    // accumulatedIncrement = accumulatedIncrement * currentMultiplier + currentIncrement
+                    high = multiplyHigh(accumulatedIncrementHigh, accumulatedIncrementLow,
+                                        currentMultiplierHigh, currentMultiplierLow);
+                    long low = accumulatedIncrementLow * currentMultiplierLow;
+                    accumulatedIncrementLow = low + currentIncrementLow;
+                    accumulatedIncrementHigh = high + currentIncrementHigh + carry(accumulatedIncrementLow, low);
+                }
+                // currentIncrement *= currentMultiplier + 1
+                long plusOneLow = currentMultiplierLow + 1;
+                long plusOneHigh = currentMultiplierHigh + carry(plusOneLow, currentMultiplierLow);
+                long high = multiplyHigh(currentIncrementHigh, currentIncrementLow, plusOneHigh, plusOneLow);
+                currentIncrementLow *= plusOneLow;
+                currentIncrementHigh = high;
+                // currentMultiplier *= currentMultiplier
+                high = multiplyHigh(currentMultiplierHigh, currentMultiplierLow,
+                                    currentMultiplierHigh, currentMultiplierLow);
+                currentMultiplierLow *= currentMultiplierLow;
+                currentMultiplierHigh = high;
+                remainingLow = (remainingLow >>> 1) | (remainingHigh << 63);
+                remainingHigh >>>= 1;
+            }
+            long high = multiplyHigh(accumulatedMultiplierHigh, accumulatedMultiplierLow, stateHigh, stateLow);
+            long low = accumulatedMultiplierLow * stateLow;
+            stateLow = low + accumulatedIncrementLow;
+            stateHigh = high + accumulatedIncrementHigh + carry(stateLow, low);
+        }
+        finally
+        {
+            getLock().unlock();
+        }
+    }
+
+
+    /**
+     * Returns the most significant 32 bits of the next 64-bit value.
+     * @return 32 random bits.
+     */
+    @Override
+    protected final int nextWord()
+    {
+        return (int) (nextLongWord() >>> 32);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected final long nextLongWord()
+    {
+        step();
+        return Long.rotateRight(stateHigh ^ stateLow, (int) (stateHigh >>> 58));
+    }
+
+
+    /**
+     * Uses the most significant 53 bits of a single 64-bit value.
+     * @return A random double in the range [0, 1).
+     */
+    @Override
+    protected final double nextUnitDouble()
+    {
+        return (nextLongWord() >>> 11) * DOUBLE_UNIT;
+    }
+
+
+    private void step()
+    {
+        long high = multiplyHigh(stateHigh, stateLow, MULTIPLIER_HIGH, MULTIPLIER_LOW);
+        long low = stateLow * MULTIPLIER_LOW;
+        stateLow = low + incrementLow;
+        stateHigh = high + incrementHigh + carry(stateLow, low);
+    }
+
+
+    /**
+     * @return The high 64 bits of the low 128 bits of the product of two 128-bit values.
+     */
+    private static long multiplyHigh(long aHigh, long aLow, long bHigh, long bLow)
+    {
+        return BoundedIntegers.multiplyHigh(aLow, bLow) + aHigh * bLow + aLow * bHigh;
+    }
+
+
+    /**
+     * @param sum The low 64 bits of an unsigned addition.
+     * @param operand One of the values that was added.
+     * @return 1 if the addition overflowed, 0 otherwise.
+     */
+    private static long carry(long sum, long operand)
+    {
+        return (sum ^ Long.MIN_VALUE) < (operand ^ Long.MIN_VALUE) ? 1 : 0;
+    }
+}
@@ -0,0 +1,81 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.number.VersionedNumberGenerator;
+
+/**
+ * Combines the versions of a distribution's parameter generators so that the
+ * distribution can tell cheaply whether any of its parameters has changed
+ * and, if not, skip reading them and re-use the constants derived from them.
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+final class ParameterVersion
+{
+    /**
+     * Returned by {@link #current()} if at least one of the parameters is not
+     * a {@link VersionedNumberGenerator}, in which case its value may change
+     * on every call and must always be read.
+     */
+    static final long UNVERSIONED = -1;
+
+    // Null unless all of the parameters are versioned.
+    private final VersionedNumberGenerator<?>[] parameters;
+
+
+    /**
+     * @param parameters The parameter generators of a distribution.
+     */
+    ParameterVersion(NumberGenerator<?>... parameters)
+    {
+        VersionedNumberGenerator<?>[] versioned = new VersionedNumberGenerator<?>[parameters.length];
+        for (int i = 0; i < parameters.length; i++)
+        {
+            if (!(parameters[i] instanceof VersionedNumberGenerator))
+            {
+                versioned = null;
+                break;
+            }
+            versioned[i] = (VersionedNumberGenerator<?>) parameters[i];
+        }
+        this.parameters = versioned;
+    }
+
+
+    /**
+     * Returns a combined version for all of the parameters.  Because individual
+     * versions never decrease, the sum changes if and only if at least one of
+     * them has changed.  This must be called before reading the parameter values,
+     * so that a concurrent change results in the new values being read again
+     * next time, rather than being missed.
+     * @return The sum of the parameters' versions, or {@link #UNVERSIONED}.
+     */
+    long current()
+    {
+        if (parameters == null)
+        {
+            return UNVERSIONED;
+        }
+        long version = 0;
+        for (VersionedNumberGenerator<?> parameter : parameters)
+        {
+            version += parameter.getVersion();
+        }
+        return version;
+    }
+}
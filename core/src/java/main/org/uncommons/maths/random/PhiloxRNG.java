@@ -0,0 +1,265 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Random;
+import org.uncommons.maths.binary.BinaryUtils;
+
+/**
+ * <p>Counter-based random number generator using the Philox4x32-10 function described
+ * by Salmon, Moraes, Dror and Shaw in "Parallel Random Numbers: As Easy as 1, 2, 3".
+ * Each 128-bit block of output is computed directly from the 64-bit seed (the key) and
+ * a 128-bit counter, using ten rounds of multiplication and key mixing.</p>
+ *
+ * <p>Because there is no state other than the counter, the RNG can seek to any position
+ * in its output in constant time (see {@link SeekableRNG}).  Philox passes the BigCrush
+ * test suite and is considerably faster than the {@link AESCounterRNG}, but it is not
+ * intended to be cryptographically secure.</p>
+ *
+ * <p><em>NOTE: Because instances of this class require 64-bit seeds, it is not
+ * possible to seed this RNG using the {@link #setSeed(long)} method inherited
+ * from {@link Random}.  Calls to this method will have no effect.
+ * Instead the seed must be set by a constructor.</em></p>
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+public class PhiloxRNG extends AbstractRNG implements SeekableRNG
+{
+    private static final int SEED_SIZE_BYTES = 8;
+
+    // Magic numbers from the reference implementation.
+    private static final int ROUNDS = 10;
+    private static final long MULTIPLIER0 = 0xD2511F53L;
+    private static final long MULTIPLIER1 = 0xCD9E8D57L;
+    private static final int WEYL0 = 0x9E3779B9;
+    private static final int WEYL1 = 0xBB67AE85;
+
+    private byte[] seed;
+    private int key0;
+    private int key1;
+
+    private long counter = 0; // Index of the next block to generate.
+    private final int[] block = new int[4];
+    private int index = block.length; // Index into the current block.
+
+
+    /**
+     * Creates a new RNG and seeds it using the default seeding strategy.
+     */
+    public PhiloxRNG()
+    {
+        this(DefaultSeedGenerator.getInstance().generateSeed(SEED_SIZE_BYTES));
+    }
+
+
+    /**
+     * Seed the RNG using the provided seed generation strategy.
+     * @param seedGenerator The seed generation strategy that will provide
+     * the seed value for this RNG.
+     * @throws SeedException If there is a problem generating a seed.
+     */
+    public PhiloxRNG(SeedGenerator seedGenerator) throws SeedException
+    {
+        this(seedGenerator.generateSeed(SEED_SIZE_BYTES));
+    }
+
+
+    /**
+     * Creates an RNG and seeds it with the specified seed data.
+     * @param seed The seed data used to initialise the RNG.
+     */
+    public PhiloxRNG(byte[] seed)
+    {
+        this(seed, true);
+    }
+
+
+    /**
+     * Creates an RNG and seeds it with the specified seed data.
+     * @param seed The seed data used to initialise the RNG.
+     * @param threadSafe Whether the RNG's state should be protected by a lock.  If false, the RNG
+     * must be confined to a single thread (see {@link AbstractRNG}).
+     */
+    public PhiloxRNG(byte[] seed, boolean threadSafe)
+    {
+        super(threadSafe);
+        if (seed == null || seed.length != SEED_SIZE_BYTES)
+        {
+            throw new IllegalArgumentException("Philox RNG requires a 64-bit (8-byte) seed.");
+        }
+        this.seed = seed.clone();
+        this.key0 = BinaryUtils.convertBytesToInt(seed, 0);
+        this.key1 = BinaryUtils.convertBytesToInt(seed, 4);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public byte[] getSeed()
+    {
+        return seed.clone();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void writeState(DataOutput out) throws IOException
+    {
+        writeBytes(out, seed);
+        out.writeLong(counter);
+        out.writeByte(index);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void readState(DataInput in) throws IOException
+    {
+        byte[] newSeed = readBytes(in, SEED_SIZE_BYTES, SEED_SIZE_BYTES);
+        long newCounter = in.readLong();
+        int newIndex = in.readByte();
+        if (newIndex < 0 || newIndex > block.length || (newIndex < block.length && newCounter == 0))
+        {
+            throw new IllegalArgumentException("Invalid block index: " + newIndex);
+        }
+        seed = newSeed;
+        key0 = BinaryUtils.convertBytesToInt(seed, 0);
+        key1 = BinaryUtils.convertBytesToInt(seed, 4);
+        counter = newCounter;
+        if (newIndex < block.length)
+        {
+            // Regenerate the current block.
+            counter--;
+            generateBlock();
+        }
+        index = newIndex;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public long getPosition()
+    {
+        try
+        {
+            getLock().lock();
+            return (counter << 2) - (block.length - index);
+        }
+        finally
+        {
+            getLock().unlock();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void seek(long position)
+    {
+        if (position < 0)
+        {
+            throw new IllegalArgumentException("Position must be non-negative.");
+        }
+        try
+        {
+            getLock().lock();
+            counter = position >>> 2;
+            index = block.length;
+            int offset = (int) (position & 3);
+            if (offset != 0)
+            {
+                generateBlock();
+                index = offset;
+            }
+        }
+        finally
+        {
+            getLock().unlock();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected final int nextWord()
+    {
+        if (index >= block.length)
+        {
+            generateBlock();
+        }
+        return block[index++];
+    }
+
+
+    /**
+     * Encrypts the counter to fill the output block and then increments the counter.
+     */
+    private void generateBlock()
+    {
+        philox(counter, key0, key1, block);
+        counter++;
+        index = 0;
+    }
+
+
+    /**
+     * The Philox4x32-10 function.  Only the low 64 bits of the 128-bit counter are used;
+     * the high 64 bits are zero.
+     * @param counter The counter value to encrypt.
+     * @param key0 The first half of the key.
+     * @param key1 The second half of the key.
+     * @param output An array of (at least) four elements for the output.
+     */
+    static void philox(long counter, int key0, int key1, int[] output)
+    {
+        int x0 = (int) counter;
+        int x1 = (int) (counter >>> 32);
+        int x2 = 0;
+        int x3 = 0;
+        int k0 = key0;
+        int k1 = key1;
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            if (round > 0)
+            {
+                k0 += WEYL0;
+                k1 += WEYL1;
+            }
+            long product0 = MULTIPLIER0 * (x0 & 0xFFFFFFFFL);
+            long product1 = MULTIPLIER1 * (x2 & 0xFFFFFFFFL);
+            x0 = (int) (product1 >>> 32) ^ x1 ^ k0;
+            x1 = (int) product1;
+            x2 = (int) (product0 >>> 32) ^ x3 ^ k1;
+            x3 = (int) product0;
+        }
+        output[0] = x0;
+        output[1] = x1;
+        output[2] = x2;
+        output[3] = x3;
+    }
+}
@@ -16,8 +16,11 @@
 package org.uncommons.maths.random;
 
 import java.util.Random;
-import org.uncommons.maths.number.ConstantGenerator;
+import org.uncommons.maths.Maths;
+import org.uncommons.maths.number.DoubleGenerator;
+import org.uncommons.maths.number.IntGenerator;
 import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.number.PrimitiveGenerators;
 
 /**
  * Discrete random sequence that follows a
@@ -25,10 +28,20 @@ import org.uncommons.maths.number.NumberGenerator;
  * distribution</a>.
  * @author Daniel Dyer
  */
-public class PoissonGenerator implements NumberGenerator<Integer>
+public class PoissonGenerator implements IntGenerator
 {
+    // Below this mean the simple multiplication method is faster than the
+    // set-up cost of the rejection method.
+    private static final double PTRS_THRESHOLD = 10;
+
     private final Random rng;
-    private final NumberGenerator<Double> mean;
+    private final DoubleGenerator mean;
+
+    private final ParameterVersion parameterVersion;
+
+    // Cache the mean and rejection parameters to avoid recalculating them for
+    // each value generated.  Only calculate them if and when the mean changes.
+    private transient Parameters parameters;
 
 
     /**
@@ -47,8 +60,9 @@ public class PoissonGenerator implements NumberGenerator<Integer>
     public PoissonGenerator(NumberGenerator<Double> mean,
                             Random rng)
     {
-        this.mean = mean;
+        this.mean = PrimitiveGenerators.asDoubleGenerator(mean);
         this.rng = rng;
+        this.parameterVersion = new ParameterVersion(this.mean);
     }
 
 
@@ -61,7 +75,7 @@ public class PoissonGenerator implements NumberGenerator<Integer>
     public PoissonGenerator(double mean,
                             Random rng)
     {
-        this(new ConstantGenerator<Double>(mean), rng);
+        this(PrimitiveGenerators.constant(mean), rng);
         if (mean <= 0)
         {
             throw new IllegalArgumentException("Mean must be a positive value.");
@@ -70,15 +84,42 @@ public class PoissonGenerator implements NumberGenerator<Integer>
 
 
     /**
-     * {@inheritDoc}
+     * Generate the next Poisson value from the current value of the mean.
+     * For small means (less than 10) this uses Knuth's multiplication method,
+     * which takes time proportional to the mean.  For larger means it uses the
+     * PTRS (transformed rejection with squeeze) algorithm from
+     * <em>"The transformed rejection method for generating Poisson random
+     * variables"</em> by Wolfgang H&ouml;rmann (1993), which takes constant
+     * expected time regardless of the mean.
+     * @return The next Poisson-distributed value.
      */
-    public Integer nextValue()
+    public int nextInt()
+    {
+        // If the mean generator is versioned and has not changed, there is no
+        // need to read it.  Otherwise, only recalculate the rejection parameters
+        // if the mean is actually different.
+        long version = parameterVersion.current();
+        Parameters current = parameters;
+        if (current == null || version == ParameterVersion.UNVERSIONED || version != current.version)
+        {
+            double currentMean = mean.nextDouble();
+            if (current == null || currentMean != current.mean || version != current.version)
+            {
+                current = new Parameters(currentMean, version);
+                parameters = current;
+            }
+        }
+        return current.rejection ? nextIntByRejection(current) : nextIntByMultiplication(current.mean);
+    }
+
+
+    private int nextIntByMultiplication(double currentMean)
     {
         int x = 0;
         double t = 0.0;
         while (true)
         {
-            t -= Math.log(rng.nextDouble()) / mean.nextValue();
+            t -= Math.log(rng.nextDouble()) / currentMean;
             if (t > 1.0)
             {
                 break;
@@ -87,4 +128,81 @@ public class PoissonGenerator implements NumberGenerator<Integer>
         }
         return x;
     }
+
+
+    private int nextIntByRejection(Parameters parameters)
+    {
+        while (true)
+        {
+            double u = rng.nextDouble() - 0.5;
+            double v = rng.nextDouble();
+            double us = 0.5 - Math.abs(u);
+            double k = Math.floor((2 * parameters.a / us + parameters.b) * u + parameters.mean + 0.43);
+            if (us >= 0.07 && v <= parameters.vr)
+            {
+                return (int) k; // Quick acceptance, no logarithms required.
+            }
+            if (k < 0 || (us < 0.013 && v > us))
+            {
+                continue;
+            }
+            double lhs = Math.log(v * parameters.invAlpha / (parameters.a / (us * us) + parameters.b));
+            double rhs = -parameters.mean + k * parameters.logMean - Maths.logFactorial((int) k);
+            if (lhs <= rhs)
+            {
+                return (int) k;
+            }
+        }
+    }
+
+
+    /**
+     * The mean and the values used by the PTRS algorithm that depend only on
+     * the mean.  These are grouped together in an immutable object so that they
+     * can be replaced atomically when the mean changes.
+     */
+    private static final class Parameters
+    {
+        private final double mean;
+        private final long version;
+        private final boolean rejection;
+        private final double logMean;
+        private final double a;
+        private final double b;
+        private final double invAlpha;
+        private final double vr;
+
+        Parameters(double mean, long version)
+        {
+            this.mean = mean;
+            this.version = version;
+            this.rejection = mean >= PTRS_THRESHOLD;
+            if (rejection)
+            {
+                this.logMean = Math.log(mean);
+                double sqrtMean = Math.sqrt(mean);
+                this.b = 0.931 + 2.53 * sqrtMean;
+                this.a = -0.059 + 0.02483 * b;
+                this.invAlpha = 1.1239 + 1.1328 / (b - 3.4);
+                this.vr = 0.9277 - 3.6224 / (b - 2);
+            }
+            else
+            {
+                this.logMean = 0;
+                this.b = 0;
+                this.a = 0;
+                this.invAlpha = 0;
+                this.vr = 0;
+            }
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public Integer nextValue()
+    {
+        return nextInt();
+    }
 }
@@ -15,79 +15,250 @@
 // ============================================================================
 package org.uncommons.maths.random;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.net.URL;
 import java.net.URLConnection;
 import java.text.MessageFormat;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * Connects to the <a href="http://www.random.org" target="_top">random.org</a>
+ * <p>Connects to the <a href="http://www.random.org" target="_top">random.org</a>
  * website (via HTTPS) and downloads a set of random bits to use as seed data.  It
  * is generally better to use the {@link DevRandomSeedGenerator} where possible,
  * as it should be much quicker. This seed generator is most useful on Microsoft
- * Windows and other platforms that do not provide {@literal /dev/random}.
+ * Windows and other platforms that do not provide {@literal /dev/random}.</p>
+ *
+ * <p>Downloaded bytes are cached so that most seeds can be served without a request.
+ * Downloads happen on a background thread, and the next one starts when the cache is
+ * half empty, so that it has usually completed before the cache runs out.  The lock
+ * that protects the cache is never held during a download.  A thread that has to wait
+ * for data waits no longer than the sum of the connect and read timeouts, after which
+ * it fails with a {@link SeedException}.</p>
  * @author Daniel Dyer
  */
 public class RandomDotOrgSeedGenerator implements SeedGenerator
 {
-    private static final String BASE_URL = "https://www.random.org";
+    private static final String DEFAULT_BASE_URL = "https://www.random.org";
 
-    /** The URL from which the random bytes are retrieved. */
-    private static final String RANDOM_URL = BASE_URL + "/integers/?num={0,number,0}&min=0&max=255&col=1&base=16&format=plain&rnd=new";
+    /** The path (relative to the base URL) from which the random bytes are retrieved. */
+    private static final String RANDOM_PATH = "/cgi-bin/randbyte?nbytes={0,number,0}&format=f";
 
     /** Used to identify the client to the random.org service. */
     private static final String USER_AGENT = RandomDotOrgSeedGenerator.class.getName();
 
-    /** Random.org does not allow requests for more than 10k integers at once. */
-    private static final int MAX_REQUEST_SIZE = 10000;
+    /** Random.org does not allow requests for more than 16k bytes at once. */
+    private static final int MAX_REQUEST_SIZE = 16384;
+
+    private static final int CACHE_SIZE = 1024;
+
+    private static final int DEFAULT_TIMEOUT_MS = 10000;
+
+    private static final ExecutorService DOWNLOAD_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory()
+    {
+        public Thread newThread(Runnable runnable)
+        {
+            Thread thread = new Thread(runnable, "RandomDotOrgSeedGenerator-download");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final String baseURL;
+    private final int connectTimeout;
+    private final int readTimeout;
+
+    private final Lock cacheLock = new ReentrantLock();
+    private byte[] cache = new byte[0];
+    private int cacheOffset = 0;
+    private Future<byte[]> download = null;
+
+
+    /**
+     * Creates a seed generator that connects to random.org with a timeout of
+     * ten seconds for connecting and ten seconds for reading.
+     */
+    public RandomDotOrgSeedGenerator()
+    {
+        this(DEFAULT_BASE_URL, DEFAULT_TIMEOUT_MS, DEFAULT_TIMEOUT_MS);
+    }
+
+
+    /**
+     * @param baseURL The protocol, host and port of the service, e.g.
+     * {@literal https://www.random.org}.  A different URL is useful mainly for
+     * testing against a local server.
+     * @param connectTimeout The maximum time (in milliseconds) to wait for a connection.
+     * @param readTimeout The maximum time (in milliseconds) to wait for data once connected.
+     */
+    public RandomDotOrgSeedGenerator(String baseURL, int connectTimeout, int readTimeout)
+    {
+        if (connectTimeout <= 0 || readTimeout <= 0)
+        {
+            throw new IllegalArgumentException("Timeouts must be positive.");
+        }
+        this.baseURL = baseURL;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+    }
 
-    private static final Lock cacheLock = new ReentrantLock();
-    private static byte[] cache = new byte[1024];
-    private static int cacheOffset = cache.length;
 
     /**
      * {@inheritDoc}
-     */    
+     */
     public byte[] generateSeed(int length) throws SeedException
     {
         byte[] seedData = new byte[length];
-        try
+        int count = 0;
+        while (count < length)
         {
-            cacheLock.lock();
-            int count = 0;
-            while (count < length)
+            Future<byte[]> pending;
+            try
             {
-                if (cacheOffset < cache.length)
-                {
-                    int numberOfBytes = Math.min(length - count, cache.length - cacheOffset);
-                    System.arraycopy(cache, cacheOffset, seedData, count, numberOfBytes);
-                    count += numberOfBytes;
-                    cacheOffset += numberOfBytes;
-                }
-                else
+                cacheLock.lock();
+                installDownload();
+                int numberOfBytes = Math.min(length - count, cache.length - cacheOffset);
+                System.arraycopy(cache, cacheOffset, seedData, count, numberOfBytes);
+                count += numberOfBytes;
+                cacheOffset += numberOfBytes;
+                if (download == null && (count < length || cache.length - cacheOffset < CACHE_SIZE / 2))
                 {
-                    refreshCache(length - count);
+                    download = startDownload(length - count);
                 }
+                pending = download;
+            }
+            finally
+            {
+                cacheLock.unlock();
+            }
+
+            if (count < length)
+            {
+                awaitDownload(pending);
+            }
+        }
+        return seedData;
+    }
+
+
+    /**
+     * Generates a seed on a background thread, so that the caller does not block while
+     * waiting for random.org.
+     * @param length The length of the seed to generate (in bytes).
+     * @return A future that completes with the seed data, or fails with a
+     * {@link SeedException} if the seed cannot be generated.
+     */
+    public Future<byte[]> generateSeedAsync(final int length)
+    {
+        return DOWNLOAD_EXECUTOR.submit(new Callable<byte[]>()
+        {
+            public byte[] call() throws SeedException
+            {
+                return generateSeed(length);
             }
+        });
+    }
+
+
+    /**
+     * Waits for a download to complete and then adds its data to the cache (if another
+     * thread hasn't already done so).
+     * @param pending The download to wait for.
+     * @throws SeedException If the download failed or did not complete in time.
+     */
+    private void awaitDownload(Future<byte[]> pending) throws SeedException
+    {
+        try
+        {
+            pending.get(connectTimeout + readTimeout, TimeUnit.MILLISECONDS);
         }
-        catch (IOException ex)
+        catch (TimeoutException ex)
         {
-            throw new SeedException("Failed downloading bytes from " + BASE_URL, ex);
+            // The download is left to finish in the background, so that the data
+            // is still available to later requests if it does eventually arrive.
+            throw new SeedException("Timed out downloading bytes from " + baseURL, ex);
         }
-        catch (SecurityException ex)
+        catch (InterruptedException ex)
         {
-            // Might be thrown if resource access is restricted (such as in an applet sandbox).
-            throw new SeedException("SecurityManager prevented access to " + BASE_URL, ex);
+            Thread.currentThread().interrupt();
+            throw new SeedException("Interrupted while downloading bytes from " + baseURL, ex);
+        }
+        catch (ExecutionException ex)
+        {
+            try
+            {
+                cacheLock.lock();
+                if (download == pending)
+                {
+                    download = null; // So that the next request retries.
+                }
+            }
+            finally
+            {
+                cacheLock.unlock();
+            }
+            if (ex.getCause() instanceof SecurityException)
+            {
+                // Might be thrown if resource access is restricted (such as in an applet sandbox).
+                throw new SeedException("SecurityManager prevented access to " + baseURL, ex.getCause());
+            }
+            throw new SeedException("Failed downloading bytes from " + baseURL, ex.getCause());
+        }
+        try
+        {
+            cacheLock.lock();
+            installDownload();
         }
         finally
         {
             cacheLock.unlock();
         }
-        return seedData;
+    }
+
+
+    /**
+     * Appends the data from the current download (if it has completed) to the
+     * unused part of the cache.  A failed download is discarded, so that the next
+     * request retries.  Must be called while holding the cache lock.
+     */
+    private void installDownload()
+    {
+        if (download == null || !download.isDone())
+        {
+            return;
+        }
+        Future<byte[]> completed = download;
+        download = null;
+        byte[] data;
+        try
+        {
+            data = completed.get();
+        }
+        catch (InterruptedException ex)
+        {
+            // Can't happen because the download has completed.
+            throw new IllegalStateException(ex);
+        }
+        catch (ExecutionException ex)
+        {
+            return;
+        }
+        int remaining = cache.length - cacheOffset;
+        byte[] newCache = new byte[remaining + data.length];
+        System.arraycopy(cache, cacheOffset, newCache, 0, remaining);
+        System.arraycopy(data, 0, newCache, remaining, data.length);
+        cache = newCache;
+        cacheOffset = 0;
     }
 
 
@@ -96,38 +267,54 @@ public class RandomDotOrgSeedGenerator implements SeedGenerator
      * The implementation may request more and cache the excess (to avoid making lots
      * of small requests).  Alternatively, it may request fewer if the required number
      * is greater than that permitted by random.org for a single request.
-     * @throws IOException If there is a problem downloading the random bits.
+     * @return The pending download.
      */
-    private void refreshCache(int requiredBytes) throws IOException
+    private Future<byte[]> startDownload(int requiredBytes)
     {
-        int numberOfBytes = Math.max(requiredBytes, cache.length);
-        numberOfBytes = Math.min(numberOfBytes, MAX_REQUEST_SIZE);
-        if (numberOfBytes != cache.length)
+        final int numberOfBytes = Math.min(Math.max(requiredBytes, CACHE_SIZE), MAX_REQUEST_SIZE);
+        FutureTask<byte[]> task = new FutureTask<byte[]>(new Callable<byte[]>()
         {
-            cache = new byte[numberOfBytes];
-            cacheOffset = numberOfBytes;
-        }
-        URL url = new URL(MessageFormat.format(RANDOM_URL, numberOfBytes));
+            public byte[] call() throws IOException
+            {
+                return downloadBytes(numberOfBytes);
+            }
+        });
+        DOWNLOAD_EXECUTOR.execute(task);
+        return task;
+    }
+
+
+    /**
+     * Requests the specified number of bytes in random.org's binary format.
+     * @throws IOException If there is a problem downloading the random bits.
+     */
+    private byte[] downloadBytes(int numberOfBytes) throws IOException
+    {
+        URL url = new URL(baseURL + MessageFormat.format(RANDOM_PATH, numberOfBytes));
         URLConnection connection = url.openConnection();
+        connection.setConnectTimeout(connectTimeout);
+        connection.setReadTimeout(readTimeout);
+        connection.setUseCaches(false);
         connection.setRequestProperty("User-Agent", USER_AGENT);
-        BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-        
+        InputStream stream = connection.getInputStream();
         try
         {
-            int index = -1;
-            for (String line = reader.readLine(); line != null; line = reader.readLine())
-            {
-                cache[++index] = (byte) Integer.parseInt(line, 16);
-            }
-            if (index < cache.length - 1)
+            byte[] data = new byte[numberOfBytes];
+            int count = 0;
+            while (count < data.length)
             {
-                throw new IOException("Insufficient data received.");
+                int bytesRead = stream.read(data, count, data.length - count);
+                if (bytesRead < 0)
+                {
+                    throw new IOException("Insufficient data received.");
+                }
+                count += bytesRead;
             }
-            cacheOffset = 0;
+            return data;
         }
         finally
         {
-            reader.close();
+            stream.close();
         }
     }
 
@@ -135,6 +322,6 @@ public class RandomDotOrgSeedGenerator implements SeedGenerator
     @Override
     public String toString()
     {
-        return BASE_URL;
+        return baseURL;
     }
 }
@@ -0,0 +1,49 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+/**
+ * <p>A repeatable RNG that can move directly to any position in its output sequence.
+ * Counter-based RNGs compute each block of output as a function of the seed and the
+ * block's index, so seeking takes the same time however far the RNG moves.  This makes it
+ * possible to divide a single logical stream between threads, processes or machines
+ * without any coordination: each worker seeds an RNG identically and then seeks to the
+ * start of its own portion of the stream.</p>
+ *
+ * <p>Positions are measured in 32-bit values, so generating an int advances the position
+ * by one and generating a long or a double advances it by two.</p>
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+public interface SeekableRNG extends RepeatableRNG
+{
+    /**
+     * @return The number of 32-bit values that have been generated since the RNG
+     * was seeded (or the position most recently set by {@link #seek(long)}, plus the
+     * number of values generated since).
+     */
+    long getPosition();
+
+
+    /**
+     * Moves the RNG to the specified position in its output sequence.  Afterwards the RNG
+     * behaves exactly as if it had been freshly seeded and had then generated
+     * {@literal position} 32-bit values.
+     * @param position The number of 32-bit values to skip from the start of the sequence.
+     * Must not be negative.
+     */
+    void seek(long position);
+}
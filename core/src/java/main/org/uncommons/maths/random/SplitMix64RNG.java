@@ -0,0 +1,189 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * <p>Very fast 64-bit random number generator using the SplitMix64 algorithm from
+ * Steele, Lea and Flood's "Fast Splittable Pseudorandom Number Generators" (as used by
+ * {@code java.util.SplittableRandom}).  The state is a single 64-bit counter that is
+ * advanced by a fixed odd increment, and each value is produced by passing the counter
+ * through a strong mixing function.  The period is 2<sup>64</sup>.</p>
+ *
+ * <p>Because the state is just a counter, {@link #advance(long)} can skip forwards
+ * (or backwards) any distance in constant time.</p>
+ *
+ * <p><em>NOTE: Because instances of this class require 64-bit seeds, it is not
+ * possible to seed this RNG using the {@link #setSeed(long)} method inherited
+ * from {@link Random}.  Calls to this method will have no effect.
+ * Instead the seed must be set by a constructor.</em></p>
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+public class SplitMix64RNG extends AbstractRNG implements RepeatableRNG
+{
+    private static final int SEED_SIZE_BYTES = 8;
+
+    // Constants from the reference implementation.
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final long MIX_MULTIPLIER1 = 0xBF58476D1CE4E5B9L;
+    private static final long MIX_MULTIPLIER2 = 0x94D049BB133111EBL;
+
+    private byte[] seed;
+    private long state;
+
+
+    /**
+     * Creates a new RNG and seeds it using the default seeding strategy.
+     */
+    public SplitMix64RNG()
+    {
+        this(DefaultSeedGenerator.getInstance().generateSeed(SEED_SIZE_BYTES));
+    }
+
+
+    /**
+     * Seed the RNG using the provided seed generation strategy.
+     * @param seedGenerator The seed generation strategy that will provide
+     * the seed value for this RNG.
+     * @throws SeedException If there is a problem generating a seed.
+     */
+    public SplitMix64RNG(SeedGenerator seedGenerator) throws SeedException
+    {
+        this(seedGenerator.generateSeed(SEED_SIZE_BYTES));
+    }
+
+
+    /**
+     * Creates an RNG and seeds it with the specified seed data.
+     * @param seed The seed data used to initialise the RNG.
+     */
+    public SplitMix64RNG(byte[] seed)
+    {
+        this(seed, true);
+    }
+
+
+    /**
+     * Creates an RNG and seeds it with the specified seed data.
+     * @param seed The seed data used to initialise the RNG.
+     * @param threadSafe Whether the RNG's state should be protected by a lock.  If false, the RNG
+     * must be confined to a single thread (see {@link AbstractRNG}).
+     */
+    public SplitMix64RNG(byte[] seed, boolean threadSafe)
+    {
+        super(threadSafe);
+        if (seed == null || seed.length != SEED_SIZE_BYTES)
+        {
+            throw new IllegalArgumentException("SplitMix64 RNG requires a 64-bit (8-byte) seed.");
+        }
+        this.seed = seed.clone();
+        this.state = seedToLong(seed, 0);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public byte[] getSeed()
+    {
+        return seed.clone();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void writeState(DataOutput out) throws IOException
+    {
+        writeBytes(out, seed);
+        out.writeLong(state);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void readState(DataInput in) throws IOException
+    {
+        byte[] newSeed = readBytes(in, SEED_SIZE_BYTES, SEED_SIZE_BYTES);
+        long newState = in.readLong();
+        seed = newSeed;
+        state = newState;
+    }
+
+
+    /**
+     * Moves the RNG forwards by the specified number of 64-bit values (each call to
+     * {@link #nextInt()}, {@link #nextLong()} or {@link #nextDouble()} consumes one).
+     * The distance is treated as an unsigned value, so a negative argument moves the RNG
+     * backwards by that many values.
+     * @param distance The number of values to skip.
+     */
+    public void advance(long distance)
+    {
+        try
+        {
+            getLock().lock();
+            state += distance * GOLDEN_GAMMA;
+        }
+        finally
+        {
+            getLock().unlock();
+        }
+    }
+
+
+    /**
+     * Returns the most significant 32 bits of the next 64-bit value.
+     * @return 32 random bits.
+     */
+    @Override
+    protected final int nextWord()
+    {
+        return (int) (nextLongWord() >>> 32);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected final long nextLongWord()
+    {
+        long z = (state += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * MIX_MULTIPLIER1;
+        z = (z ^ (z >>> 27)) * MIX_MULTIPLIER2;
+        return z ^ (z >>> 31);
+    }
+
+
+    /**
+     * Uses the most significant 53 bits of a single 64-bit value.
+     * @return A random double in the range [0, 1).
+     */
+    @Override
+    protected final double nextUnitDouble()
+    {
+        return (nextLongWord() >>> 11) * DOUBLE_UNIT;
+    }
+}
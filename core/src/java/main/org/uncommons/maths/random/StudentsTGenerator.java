@@ -0,0 +1,100 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.util.Random;
+import org.uncommons.maths.number.DoubleGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.number.PrimitiveGenerators;
+
+/**
+ * Continuous random sequence that follows a
+ * <a href="http://en.wikipedia.org/wiki/Student%27s_t-distribution" target="_top">Student's
+ * t-distribution</a>.  This is a symmetrical, heavy-tailed distribution that
+ * approaches the standard normal distribution as the number of degrees of
+ * freedom increases.  Each value is generated as {@literal Z / sqrt(V / nu)}
+ * where {@literal Z} is a standard normal value and {@literal V} is a
+ * chi-squared value with {@literal nu} degrees of freedom.
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+public class StudentsTGenerator implements DoubleGenerator
+{
+    private final Random rng;
+    private final DoubleGenerator degreesOfFreedom;
+
+
+    /**
+     * <p>Creates a generator of t-distributed values.  The number of degrees
+     * of freedom is determined by the provided {@link NumberGenerator}.  This
+     * means that the statistical parameters of this generator may change over
+     * time.</p>
+     * <p>To create a t-distribution generator with a constant number of degrees
+     * of freedom, use the {@link #StudentsTGenerator(double, Random)} constructor
+     * instead.</p>
+     * @param degreesOfFreedom A {@link NumberGenerator} that provides the number
+     * of degrees of freedom ({@literal nu}) of the distribution used for the next
+     * generated value.  This generator must only return positive values.
+     * @param rng The source of randomness.
+     */
+    public StudentsTGenerator(NumberGenerator<Double> degreesOfFreedom,
+                              Random rng)
+    {
+        this.degreesOfFreedom = PrimitiveGenerators.asDoubleGenerator(degreesOfFreedom);
+        this.rng = rng;
+    }
+
+
+    /**
+     * Creates a generator of t-distributed values from a distribution with
+     * the specified number of degrees of freedom.  The mean of this distribution
+     * is zero (for {@literal nu > 1}) and the variance is {@literal nu / (nu - 2)}
+     * (for {@literal nu > 2}).
+     * @param degreesOfFreedom The number of degrees of freedom ({@literal nu}),
+     * which need not be an integer.
+     * @param rng The source of randomness.
+     */
+    public StudentsTGenerator(double degreesOfFreedom,
+                              Random rng)
+    {
+        this(PrimitiveGenerators.constant(degreesOfFreedom), rng);
+        if (degreesOfFreedom <= 0)
+        {
+            throw new IllegalArgumentException("Degrees of freedom must be a positive value.");
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public double nextDouble()
+    {
+        double nu = degreesOfFreedom.nextDouble();
+        double z = Ziggurat.nextGaussian(rng);
+        double v = 2 * GammaGenerator.nextStandardGamma(rng, nu / 2);
+        return z / Math.sqrt(v / nu);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public Double nextValue()
+    {
+        return nextDouble();
+    }
+}
@@ -0,0 +1,149 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Provides each thread with its own instance of a {@link RepeatableRNG}.  When
+ * many threads draw from a single shared RNG they are serialised by its internal
+ * lock.  Giving each thread a private RNG removes that contention entirely, and
+ * since no instance is ever shared the RNGs are created without a lock where the
+ * RNG class allows it (see {@link AbstractRNG}).</p>
+ *
+ * <p>To keep runs reproducible, per-thread RNGs are not seeded from an entropy source.
+ * Instead each thread's seed is derived deterministically from a single master seed
+ * and a thread ordinal by a {@link DerivedSeedGenerator}.  Ordinals are assigned in
+ * the order in which threads first call {@link #get()}, so the seed given to each
+ * thread is repeatable provided that threads make their first request in a
+ * predictable order.  Where that cannot be guaranteed, the worker for task
+ * {@literal n} can instead obtain its RNG directly by calling {@link #createRNG(int)}
+ * with ordinal {@literal n}.</p>
+ *
+ * <p>The RNG class must have a public constructor that accepts the seed as a byte
+ * array.  All of the RNGs in this package satisfy that requirement.  If the class also
+ * has a public constructor that accepts the seed and a boolean thread-safety flag,
+ * that constructor is used instead to create RNGs that do not lock.  Derived seeds are
+ * the same length as the master seed, so the master seed must be a valid seed for the
+ * chosen RNG type.</p>
+ * @param <T> The type of RNG provided to each thread.
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+public class ThreadLocalRNG<T extends Random & RepeatableRNG>
+{
+    private final Constructor<T> constructor;
+    // Whether the constructor takes a thread-safety flag as well as the seed.
+    private final boolean hasThreadSafeFlag;
+    private final DerivedSeedGenerator seedGenerator;
+    private final int seedLength;
+    private final AtomicInteger nextOrdinal = new AtomicInteger(0);
+
+    private final ThreadLocal<T> threadRNG = new ThreadLocal<T>()
+    {
+        @Override
+        protected T initialValue()
+        {
+            return createRNG(nextOrdinal.getAndIncrement());
+        }
+    };
+
+
+    /**
+     * @param rngClass The type of RNG to create for each thread.
+     * @param masterSeed The seed from which each thread's seed is derived.
+     */
+    public ThreadLocalRNG(Class<T> rngClass, byte[] masterSeed)
+    {
+        if (masterSeed == null || masterSeed.length == 0)
+        {
+            throw new IllegalArgumentException("Master seed must not be empty.");
+        }
+        this.hasThreadSafeFlag = hasConstructor(rngClass, byte[].class, boolean.class);
+        try
+        {
+            this.constructor = hasThreadSafeFlag
+                               ? rngClass.getConstructor(byte[].class, boolean.class)
+                               : rngClass.getConstructor(byte[].class);
+        }
+        catch (NoSuchMethodException ex)
+        {
+            throw new IllegalArgumentException(rngClass.getName() + " does not have a byte[] seed constructor.", ex);
+        }
+        this.seedGenerator = new DerivedSeedGenerator(masterSeed);
+        this.seedLength = masterSeed.length;
+    }
+
+
+    private static boolean hasConstructor(Class<?> type, Class<?>... parameterTypes)
+    {
+        try
+        {
+            type.getConstructor(parameterTypes);
+            return true;
+        }
+        catch (NoSuchMethodException ex)
+        {
+            return false;
+        }
+    }
+
+
+    /**
+     * @return The RNG that belongs to the calling thread.  It is created on the first
+     * call made by each thread.
+     */
+    public T get()
+    {
+        return threadRNG.get();
+    }
+
+
+    /**
+     * Creates a new RNG with the seed for the specified ordinal.  Calling this method
+     * repeatedly with the same ordinal creates RNGs that produce identical output.
+     * @param ordinal Identifies the thread (or task) that the RNG is intended for.
+     * @return A new RNG.
+     */
+    public T createRNG(int ordinal)
+    {
+        try
+        {
+            byte[] seed = seedGenerator.deriveSeed(ordinal, seedLength);
+            return hasThreadSafeFlag ? constructor.newInstance(seed, false) : constructor.newInstance((Object) seed);
+        }
+        catch (InvocationTargetException ex)
+        {
+            // Most likely the master seed is not a valid size for this type of RNG.
+            if (ex.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException("Failed creating RNG for thread " + ordinal, ex.getCause());
+        }
+        catch (InstantiationException ex)
+        {
+            throw new IllegalStateException("Failed creating RNG for thread " + ordinal, ex);
+        }
+        catch (IllegalAccessException ex)
+        {
+            throw new IllegalStateException("Failed creating RNG for thread " + ordinal, ex);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * <p>Counter-based random number generator using the Threefry4x64-20 function described
+ * by Salmon, Moraes, Dror and Shaw in "Parallel Random Numbers: As Easy as 1, 2, 3".
+ * Threefry is derived from the Threefish block cipher and computes each 256-bit block of
+ * output from the 256-bit seed (the key) and a 256-bit counter, using only additions,
+ * rotations and exclusive ors.</p>
+ *
+ * <p>Because there is no state other than the counter, the RNG can seek to any position
+ * in its output in constant time (see {@link SeekableRNG}).  Threefry generates 64 bits
+ * at a time, so longs and doubles cost a single value each.  It passes the BigCrush test
+ * suite but is not intended to be cryptographically secure.</p>
+ *
+ * <p><em>NOTE: Because instances of this class require 256-bit seeds, it is not
+ * possible to seed this RNG using the {@link #setSeed(long)} method inherited
+ * from {@link Random}.  Calls to this method will have no effect.
+ * Instead the seed must be set by a constructor.</em></p>
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+public class ThreefryRNG extends AbstractRNG implements SeekableRNG
+{
+    private static final int SEED_SIZE_BYTES = 32;
+
+    // Magic numbers from the reference implementation.
+    private static final int ROUNDS = 20;
+    private static final long KEY_SCHEDULE_PARITY = 0x1BD11BDAA9FC1A22L;
+    private static final int[][] ROTATIONS = {{14, 16}, {52, 57}, {23, 40}, {5, 37},
+                                              {25, 33}, {46, 12}, {58, 22}, {32, 32}};
+
+    private byte[] seed;
+    private final long[] keySchedule = new long[5];
+
+    private long counter = 0; // Index of the next block to generate.
+    private final long[] block = new long[4];
+    private int index = 2 * block.length; // Index (in 32-bit words) into the current block.
+
+
+    /**
+     * Creates a new RNG and seeds it using the default seeding strategy.
+     */
+    public ThreefryRNG()
+    {
+        this(DefaultSeedGenerator.getInstance().generateSeed(SEED_SIZE_BYTES));
+    }
+
+
+    /**
+     * Seed the RNG using the provided seed generation strategy.
+     * @param seedGenerator The seed generation strategy that will provide
+     * the seed value for this RNG.
+     * @throws SeedException If there is a problem generating a seed.
+     */
+    public ThreefryRNG(SeedGenerator seedGenerator) throws SeedException
+    {
+        this(seedGenerator.generateSeed(SEED_SIZE_BYTES));
+    }
+
+
+    /**
+     * Creates an RNG and seeds it with the specified seed data.
+     * @param seed The seed data used to initialise the RNG.
+     */
+    public ThreefryRNG(byte[] seed)
+    {
+        this(seed, true);
+    }
+
+
+    /**
+     * Creates an RNG and seeds it with the specified seed data.
+     * @param seed The seed data used to initialise the RNG.
+     * @param threadSafe Whether the RNG's state should be protected by a lock.  If false, the RNG
+     * must be confined to a single thread (see {@link AbstractRNG}).
+     */
+    public ThreefryRNG(byte[] seed, boolean threadSafe)
+    {
+        super(threadSafe);
+        if (seed == null || seed.length != SEED_SIZE_BYTES)
+        {
+            throw new IllegalArgumentException("Threefry RNG requires a 256-bit (32-byte) seed.");
+        }
+        this.seed = seed.clone();
+        initialiseKeySchedule();
+    }
+
+
+    /**
+     * The key schedule is the four words of the key followed by their parity word.
+     */
+    private void initialiseKeySchedule()
+    {
+        keySchedule[4] = KEY_SCHEDULE_PARITY;
+        for (int i = 0; i < 4; i++)
+        {
+            keySchedule[i] = seedToLong(seed, i * 8);
+            keySchedule[4] ^= keySchedule[i];
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public byte[] getSeed()
+    {
+        return seed.clone();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void writeState(DataOutput out) throws IOException
+    {
+        writeBytes(out, seed);
+        out.writeLong(counter);
+        out.writeByte(index);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void readState(DataInput in) throws IOException
+    {
+        byte[] newSeed = readBytes(in, SEED_SIZE_BYTES, SEED_SIZE_BYTES);
+        long newCounter = in.readLong();
+        int newIndex = in.readByte();
+        if (newIndex < 0 || newIndex > 2 * block.length || (newIndex < 2 * block.length && newCounter == 0))
+        {
+            throw new IllegalArgumentException("Invalid block index: " + newIndex);
+        }
+        seed = newSeed;
+        initialiseKeySchedule();
+        counter = newCounter;
+        if (newIndex < 2 * block.length)
+        {
+            // Regenerate the current block.
+            counter--;
+            generateBlock();
+        }
+        index = newIndex;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public long getPosition()
+    {
+        try
+        {
+            getLock().lock();
+            return (counter << 3) - (2 * block.length - index);
+        }
+        finally
+        {
+            getLock().unlock();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void seek(long position)
+    {
+        if (position < 0)
+        {
+            throw new IllegalArgumentException("Position must be non-negative.");
+        }
+        try
+        {
+            getLock().lock();
+            counter = position >>> 3;
+            index = 2 * block.length;
+            int offset = (int) (position & 7);
+            if (offset != 0)
+            {
+                generateBlock();
+                index = offset;
+            }
+        }
+        finally
+        {
+            getLock().unlock();
+        }
+    }
+
+
+    /**
+     * Returns each 64-bit value as two 32-bit values, most significant half first.
+     * @return 32 random bits.
+     */
+    @Override
+    protected final int nextWord()
+    {
+        if (index >= 2 * block.length)
+        {
+            generateBlock();
+        }
+        long value = block[index >> 1];
+        return (index++ & 1) == 0 ? (int) (value >>> 32) : (int) value;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected final long nextLongWord()
+    {
+        if ((index & 1) != 0) // Not aligned with a 64-bit value, so combine two halves.
+        {
+            return ((long) nextWord() << 32) | (nextWord() & 0xFFFFFFFFL);
+        }
+        if (index >= 2 * block.length)
+        {
+            generateBlock();
+        }
+        long value = block[index >> 1];
+        index += 2;
+        return value;
+    }
+
+
+    /**
+     * Uses the most significant 53 bits of a single 64-bit value.
+     * @return A random double in the range [0, 1).
+     */
+    @Override
+    protected final double nextUnitDouble()
+    {
+        return (nextLongWord() >>> 11) * DOUBLE_UNIT;
+    }
+
+
+    /**
+     * Encrypts the counter to fill the output block and then increments the counter.
+     */
+    private void generateBlock()
+    {
+        threefry(counter, keySchedule, block);
+        counter++;
+        index = 0;
+    }
+
+
+    /**
+     * The Threefry4x64-20 function.  Only the low 64 bits of the 256-bit counter are used;
+     * the rest are zero.
+     * @param counter The counter value to encrypt.
+     * @param keySchedule The four words of the key followed by their parity word.
+     * @param output An array of (at least) four elements for the output.
+     */
+    static void threefry(long counter, long[] keySchedule, long[] output)
+    {
+        long x0 = counter + keySchedule[0];
+        long x1 = keySchedule[1];
+        long x2 = keySchedule[2];
+        long x3 = keySchedule[3];
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            int[] rotation = ROTATIONS[round & 7];
+            if ((round & 1) == 0)
+            {
+                x0 += x1;
+                x1 = Long.rotateLeft(x1, rotation[0]) ^ x0;
+                x2 += x3;
+                x3 = Long.rotateLeft(x3, rotation[1]) ^ x2;
+            }
+            else
+            {
+                x0 += x3;
+                x3 = Long.rotateLeft(x3, rotation[0]) ^ x0;
+                x2 += x1;
+                x1 = Long.rotateLeft(x1, rotation[1]) ^ x2;
+            }
+            if ((round & 3) == 3) // Inject the key every four rounds.
+            {
+                int injection = (round >> 2) + 1;
+                x0 += keySchedule[injection % 5];
+                x1 += keySchedule[(injection + 1) % 5];
+                x2 += keySchedule[(injection + 2) % 5];
+                x3 += keySchedule[(injection + 3) % 5] + injection;
+            }
+        }
+        output[0] = x0;
+        output[1] = x1;
+        output[2] = x2;
+        output[3] = x3;
+    }
+}
@@ -15,8 +15,10 @@
 // ============================================================================
 package org.uncommons.maths.random;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Random;
-import java.util.concurrent.locks.ReentrantLock;
 import org.uncommons.maths.binary.BinaryUtils;
 
 /**
@@ -33,7 +35,7 @@ import org.uncommons.maths.binary.BinaryUtils;
  * @author Daniel Dyer
  * @since 1.2
  */
-public class XORShiftRNG extends Random implements RepeatableRNG
+public class XORShiftRNG extends AbstractRNG implements RepeatableRNG
 {
     private static final int SEED_SIZE_BYTES = 20; // Needs 5 32-bit integers.
 
@@ -45,11 +47,7 @@ public class XORShiftRNG extends Random implements RepeatableRNG
     private int state4;
     private int state5;
 
-    private final byte[] seed;
-
-
-    // Lock to prevent concurrent modification of the RNG's internal state.
-    private final ReentrantLock lock = new ReentrantLock();
+    private byte[] seed;
 
 
     /**
@@ -79,6 +77,19 @@ public class XORShiftRNG extends Random implements RepeatableRNG
      */
     public XORShiftRNG(byte[] seed)
     {
+        this(seed, true);
+    }
+
+
+    /**
+     * Creates an RNG and seeds it with the specified seed data.
+     * @param seed The seed data used to initialise the RNG.
+     * @param threadSafe Whether the RNG's state should be protected by a lock.  If false, the RNG
+     * must be confined to a single thread (see {@link AbstractRNG}).
+     */
+    public XORShiftRNG(byte[] seed, boolean threadSafe)
+    {
+        super(threadSafe);
         if (seed == null || seed.length != SEED_SIZE_BYTES)
         {
             throw new IllegalArgumentException("XOR shift RNG requires 160 bits of seed data.");
@@ -106,23 +117,50 @@ public class XORShiftRNG extends Random implements RepeatableRNG
      * {@inheritDoc}
      */
     @Override
-    protected int next(int bits)
+    protected void writeState(DataOutput out) throws IOException
     {
-        try
-        {
-            lock.lock();
-            int t = (state1 ^ (state1 >> 7));
-            state1 = state2;
-            state2 = state3;
-            state3 = state4;
-            state4 = state5;
-            state5 = (state5 ^ (state5 << 6)) ^ (t ^ (t << 13));
-            int value = (state2 + state2 + 1) * state5;
-            return value >>> (32 - bits);
-        }
-        finally
-        {
-            lock.unlock();
-        }
+        writeBytes(out, seed);
+        out.writeInt(state1);
+        out.writeInt(state2);
+        out.writeInt(state3);
+        out.writeInt(state4);
+        out.writeInt(state5);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void readState(DataInput in) throws IOException
+    {
+        byte[] newSeed = readBytes(in, SEED_SIZE_BYTES, SEED_SIZE_BYTES);
+        int newState1 = in.readInt();
+        int newState2 = in.readInt();
+        int newState3 = in.readInt();
+        int newState4 = in.readInt();
+        int newState5 = in.readInt();
+        seed = newSeed;
+        state1 = newState1;
+        state2 = newState2;
+        state3 = newState3;
+        state4 = newState4;
+        state5 = newState5;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int nextWord()
+    {
+        int t = (state1 ^ (state1 >> 7));
+        state1 = state2;
+        state2 = state3;
+        state3 = state4;
+        state4 = state5;
+        state5 = (state5 ^ (state5 << 6)) ^ (t ^ (t << 13));
+        return (state2 + state2 + 1) * state5;
     }
 }
@@ -0,0 +1,259 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * <p>Fast 64-bit random number generator using the xoshiro256** algorithm (1.0)
+ * developed by David Blackman and Sebastiano Vigna.  This RNG has a period of
+ * 2<sup>256</sup> - 1, passes all of the tests in the BigCrush suite and is faster than
+ * any of the older RNGs in this package.  It is a good default choice for simulations
+ * that do not need the very long period of the {@link MersenneTwisterRNG}.</p>
+ *
+ * <p>The seed is used directly as the 256-bit state, so it must not be all zeros.
+ * {@link #jump()} and {@link #longJump()} skip 2<sup>128</sup> and 2<sup>192</sup>
+ * values respectively.</p>
+ *
+ * <p><em>NOTE: Because instances of this class require 256-bit seeds, it is not
+ * possible to seed this RNG using the {@link #setSeed(long)} method inherited
+ * from {@link Random}.  Calls to this method will have no effect.
+ * Instead the seed must be set by a constructor.</em></p>
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+public class Xoshiro256StarStarRNG extends AbstractRNG implements RepeatableRNG
+{
+    private static final int SEED_SIZE_BYTES = 32;
+
+    // Jump polynomials from the reference implementation.
+    private static final long[] JUMP = {0x180EC6D33CFD0ABAL, 0xD5A61266F0C9392CL,
+                                        0xA9582618E03FC9AAL, 0x39ABDC4529B1661CL};
+    private static final long[] LONG_JUMP = {0x76E15D3EFEFDCBBFL, 0xC5004E441C522FB3L,
+                                             0x77710069854EE241L, 0x39109BB02ACBE635L};
+
+    private byte[] seed;
+    private long state0;
+    private long state1;
+    private long state2;
+    private long state3;
+
+
+    /**
+     * Creates a new RNG and seeds it using the default seeding strategy.
+     */
+    public Xoshiro256StarStarRNG()
+    {
+        this(DefaultSeedGenerator.getInstance().generateSeed(SEED_SIZE_BYTES));
+    }
+
+
+    /**
+     * Seed the RNG using the provided seed generation strategy.
+     * @param seedGenerator The seed generation strategy that will provide
+     * the seed value for this RNG.
+     * @throws SeedException If there is a problem generating a seed.
+     */
+    public Xoshiro256StarStarRNG(SeedGenerator seedGenerator) throws SeedException
+    {
+        this(seedGenerator.generateSeed(SEED_SIZE_BYTES));
+    }
+
+
+    /**
+     * Creates an RNG and seeds it with the specified seed data.
+     * @param seed The seed data used to initialise the RNG.
+     */
+    public Xoshiro256StarStarRNG(byte[] seed)
+    {
+        this(seed, true);
+    }
+
+
+    /**
+     * Creates an RNG and seeds it with the specified seed data.
+     * @param seed The seed data used to initialise the RNG.
+     * @param threadSafe Whether the RNG's state should be protected by a lock.  If false, the RNG
+     * must be confined to a single thread (see {@link AbstractRNG}).
+     */
+    public Xoshiro256StarStarRNG(byte[] seed, boolean threadSafe)
+    {
+        super(threadSafe);
+        if (seed == null || seed.length != SEED_SIZE_BYTES)
+        {
+            throw new IllegalArgumentException("xoshiro256** RNG requires a non-zero 256-bit (32-byte) seed.");
+        }
+        this.seed = seed.clone();
+        this.state0 = seedToLong(seed, 0);
+        this.state1 = seedToLong(seed, 8);
+        this.state2 = seedToLong(seed, 16);
+        this.state3 = seedToLong(seed, 24);
+        if ((state0 | state1 | state2 | state3) == 0)
+        {
+            throw new IllegalArgumentException("xoshiro256** RNG requires a non-zero 256-bit (32-byte) seed.");
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public byte[] getSeed()
+    {
+        return seed.clone();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void writeState(DataOutput out) throws IOException
+    {
+        writeBytes(out, seed);
+        out.writeLong(state0);
+        out.writeLong(state1);
+        out.writeLong(state2);
+        out.writeLong(state3);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void readState(DataInput in) throws IOException
+    {
+        byte[] newSeed = readBytes(in, SEED_SIZE_BYTES, SEED_SIZE_BYTES);
+        long newState0 = in.readLong();
+        long newState1 = in.readLong();
+        long newState2 = in.readLong();
+        long newState3 = in.readLong();
+        if ((newState0 | newState1 | newState2 | newState3) == 0)
+        {
+            throw new IllegalArgumentException("State must not be all zeros.");
+        }
+        seed = newSeed;
+        state0 = newState0;
+        state1 = newState1;
+        state2 = newState2;
+        state3 = newState3;
+    }
+
+
+    /**
+     * Advances the RNG by 2<sup>128</sup> 64-bit values.  This can be used to generate
+     * non-overlapping sequences for parallel computations: give each task a copy of
+     * an RNG (created with the same seed) that has been jumped a different number of times.
+     */
+    public void jump()
+    {
+        jump(JUMP);
+    }
+
+
+    /**
+     * Advances the RNG by 2<sup>192</sup> 64-bit values.  This can be used to generate
+     * sets of streams, each of which is then divided further using {@link #jump()}.
+     */
+    public void longJump()
+    {
+        jump(LONG_JUMP);
+    }
+
+
+    /**
+     * Replaces the state with the linear combination of the next 64 x n states
+     * (where n is the number of words in the polynomial) that corresponds to
+     * the set bits of the jump polynomial.
+     */
+    private void jump(long[] polynomial)
+    {
+        try
+        {
+            getLock().lock();
+            long jumped0 = 0;
+            long jumped1 = 0;
+            long jumped2 = 0;
+            long jumped3 = 0;
+            for (long word : polynomial)
+            {
+                for (int bit = 0; bit < 64; bit++)
+                {
+                    if ((word & (1L << bit)) != 0)
+                    {
+                        jumped0 ^= state0;
+                        jumped1 ^= state1;
+                        jumped2 ^= state2;
+                        jumped3 ^= state3;
+                    }
+                    nextLongWord();
+                }
+            }
+            state0 = jumped0;
+            state1 = jumped1;
+            state2 = jumped2;
+            state3 = jumped3;
+        }
+        finally
+        {
+            getLock().unlock();
+        }
+    }
+
+
+    /**
+     * Returns the most significant 32 bits of the next 64-bit value.
+     * @return 32 random bits.
+     */
+    @Override
+    protected final int nextWord()
+    {
+        return (int) (nextLongWord() >>> 32);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected final long nextLongWord()
+    {
+        long result = Long.rotateLeft(state1 * 5, 7) * 9;
+        long t = state1 << 17;
+        state2 ^= state0;
+        state3 ^= state1;
+        state1 ^= state2;
+        state0 ^= state3;
+        state2 ^= t;
+        state3 = Long.rotateLeft(state3, 45);
+        return result;
+    }
+
+
+    /**
+     * Uses the most significant 53 bits of a single 64-bit value.
+     * @return A random double in the range [0, 1).
+     */
+    @Override
+    protected final double nextUnitDouble()
+    {
+        return (nextLongWord() >>> 11) * DOUBLE_UNIT;
+    }
+}
@@ -0,0 +1,185 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.util.Random;
+
+/**
+ * <p>Shared tables and sampling routines for the
+ * <a href="http://en.wikipedia.org/wiki/Ziggurat_algorithm" target="_top">Ziggurat
+ * algorithm</a> (Marsaglia &amp; Tsang, 2000), used by {@link GaussianGenerator}
+ * and {@link ExponentialGenerator}.</p>
+ *
+ * <p>Each distribution is covered by 256 layers of equal area.  On the fast path
+ * (taken about 99% of the time) a sample costs a single call to
+ * {@link Random#nextLong()}, one table lookup and one multiplication.  The low
+ * 8 bits of the random word select the layer and the top 53 bits provide the
+ * value, so the two are independent (unlike the original 32-bit formulation
+ * which re-used the layer bits in the value).  Only samples that fall into the
+ * wedge at the edge of a layer, or into the tail, consume further random values.</p>
+ *
+ * <p>The tables are computed once, when this class is loaded, and are shared
+ * by all generators.</p>
+ * @author Daniel Dyer
+ * @since 1.3
+ */
+final class Ziggurat
+{
+    private static final int LAYERS = 256;
+    private static final int LAYER_MASK = LAYERS - 1;
+
+    private static final double SIGNED_UNIT = 0x1.0p-52;
+    private static final double UNSIGNED_UNIT = 0x1.0p-53;
+
+    // Start of the tail and area of each layer for the 256-layer normal ziggurat.
+    private static final double NORMAL_R = 3.6541528853610088;
+    private static final double NORMAL_V = 0.00492867323399;
+
+    // Start of the tail and area of each layer for the 256-layer exponential ziggurat.
+    private static final double EXPONENTIAL_R = 7.69711747013104972;
+    private static final double EXPONENTIAL_V = 0.0039496598225815571993;
+
+    // Layer i covers x-values from 0 to X[i], of which the part below X[i + 1]
+    // lies entirely under the curve.  F[i] is the density at X[i].
+    private static final double[] NORMAL_X = new double[LAYERS + 1];
+    private static final double[] NORMAL_F = new double[LAYERS + 1];
+    private static final double[] EXPONENTIAL_X = new double[LAYERS + 1];
+    private static final double[] EXPONENTIAL_F = new double[LAYERS + 1];
+    static
+    {
+        NORMAL_X[0] = NORMAL_V / normalDensity(NORMAL_R);
+        NORMAL_X[1] = NORMAL_R;
+        for (int i = 1; i < LAYERS - 1; i++)
+        {
+            NORMAL_X[i + 1] = Math.sqrt(-2 * Math.log(NORMAL_V / NORMAL_X[i] + normalDensity(NORMAL_X[i])));
+        }
+        NORMAL_X[LAYERS] = 0;
+
+        EXPONENTIAL_X[0] = EXPONENTIAL_V / Math.exp(-EXPONENTIAL_R);
+        EXPONENTIAL_X[1] = EXPONENTIAL_R;
+        for (int i = 1; i < LAYERS - 1; i++)
+        {
+            EXPONENTIAL_X[i + 1] = -Math.log(EXPONENTIAL_V / EXPONENTIAL_X[i] + Math.exp(-EXPONENTIAL_X[i]));
+        }
+        EXPONENTIAL_X[LAYERS] = 0;
+
+        for (int i = 0; i <= LAYERS; i++)
+        {
+            NORMAL_F[i] = normalDensity(NORMAL_X[i]);
+            EXPONENTIAL_F[i] = Math.exp(-EXPONENTIAL_X[i]);
+        }
+    }
+
+
+    private Ziggurat()
+    {
+        // Prevent instantiation.
+    }
+
+
+    /**
+     * Unnormalised density of the standard normal distribution.
+     */
+    private static double normalDensity(double x)
+    {
+        return Math.exp(-0.5 * x * x);
+    }
+
+
+    /**
+     * @param rng The source of randomness.
+     * @return A value from the standard normal distribution (mean zero,
+     * standard deviation one).
+     */
+    static double nextGaussian(Random rng)
+    {
+        while (true)
+        {
+            long bits = rng.nextLong();
+            int layer = (int) bits & LAYER_MASK;
+            double x = (bits >> 11) * SIGNED_UNIT * NORMAL_X[layer];
+            if (Math.abs(x) < NORMAL_X[layer + 1])
+            {
+                return x; // Fast path, inside the rectangular part of the layer.
+            }
+            if (layer == 0)
+            {
+                return x < 0 ? -nextNormalTail(rng) : nextNormalTail(rng);
+            }
+            double y = NORMAL_F[layer] + rng.nextDouble() * (NORMAL_F[layer + 1] - NORMAL_F[layer]);
+            if (y < normalDensity(x))
+            {
+                return x;
+            }
+        }
+    }
+
+
+    /**
+     * Marsaglia's method for sampling from the tail of the normal distribution
+     * beyond {@link #NORMAL_R}.
+     */
+    private static double nextNormalTail(Random rng)
+    {
+        double x;
+        double y;
+        do
+        {
+            x = -Math.log(nextPositiveDouble(rng)) / NORMAL_R;
+            y = -Math.log(nextPositiveDouble(rng));
+        } while (y + y < x * x);
+        return NORMAL_R + x;
+    }
+
+
+    /**
+     * @param rng The source of randomness.
+     * @return A value from the exponential distribution with rate one.
+     */
+    static double nextExponential(Random rng)
+    {
+        while (true)
+        {
+            long bits = rng.nextLong();
+            int layer = (int) bits & LAYER_MASK;
+            double x = (bits >>> 11) * UNSIGNED_UNIT * EXPONENTIAL_X[layer];
+            if (x < EXPONENTIAL_X[layer + 1])
+            {
+                return x; // Fast path, inside the rectangular part of the layer.
+            }
+            if (layer == 0)
+            {
+                // The exponential distribution is memoryless, so the tail is
+                // just another exponential distribution shifted by R.
+                return EXPONENTIAL_R - Math.log(nextPositiveDouble(rng));
+            }
+            double y = EXPONENTIAL_F[layer] + rng.nextDouble() * (EXPONENTIAL_F[layer + 1] - EXPONENTIAL_F[layer]);
+            if (y < Math.exp(-x))
+            {
+                return x;
+            }
+        }
+    }
+
+
+    /**
+     * @return A uniformly distributed value in the interval (0, 1].
+     */
+    private static double nextPositiveDouble(Random rng)
+    {
+        return 1 - rng.nextDouble();
+    }
+}
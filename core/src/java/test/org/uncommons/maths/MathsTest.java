@@ -96,6 +96,59 @@ public class MathsTest
     }
 
 
+    @Test
+    public void testLogFactorial()
+    {
+        for (int i = 0; i <= 20; i++)
+        {
+            double expected = Math.log(Maths.factorial(i));
+            double actual = Maths.logFactorial(i);
+            assert Math.abs(actual - expected) < 1e-12 : "Wrong log factorial for " + i + ": " + actual;
+        }
+        // Check values either side of the switch to the approximation.
+        double expected = 0;
+        for (int i = 1; i <= 1000; i++)
+        {
+            expected += Math.log(i);
+            double actual = Maths.logFactorial(i);
+            assert Maths.approxEquals(actual, expected, 1e-13) : "Wrong log factorial for " + i + ": " + actual;
+        }
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNegativeLogFactorial()
+    {
+        Maths.logFactorial(-1); // Should throw an exception.
+    }
+
+
+    @Test(dependsOnMethods = "testLogFactorial")
+    public void testLogGamma()
+    {
+        for (int i = 0; i <= 200; i++)
+        {
+            double expected = Maths.logFactorial(i);
+            double actual = Maths.logGamma(i + 1);
+            assert Math.abs(actual - expected) <= Math.max(1e-13, expected * 1e-13)
+                : "Wrong log gamma for " + (i + 1) + ": " + actual;
+        }
+        // Gamma(0.5) = sqrt(pi)
+        double logRootPi = 0.5 * Math.log(Math.PI);
+        assert Math.abs(Maths.logGamma(0.5) - logRootPi) < 1e-13 : "Wrong log gamma for 0.5: " + Maths.logGamma(0.5);
+        // Gamma(0.25) = 3.6256099082219083119...
+        assert Math.abs(Maths.logGamma(0.25) - Math.log(3.6256099082219083119)) < 1e-13
+            : "Wrong log gamma for 0.25: " + Maths.logGamma(0.25);
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testLogGammaNotPositive()
+    {
+        Maths.logGamma(0); // Should throw an exception.
+    }
+
+
     @Test
     public void testRaiseToPower()
     {
@@ -0,0 +1,100 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.number;
+
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link AdjustableNumberGenerator} and its primitive equivalents,
+ * {@link AdjustableDoubleGenerator} and {@link AdjustableIntGenerator}.
+ * @author Daniel Dyer
+ */
+public class AdjustableNumberGeneratorTest
+{
+    @Test
+    public void testSetValue()
+    {
+        AdjustableNumberGenerator<Long> generator = new AdjustableNumberGenerator<Long>(3L);
+        assert generator.nextValue() == 3 : "Wrong initial value: " + generator.nextValue();
+        assert generator.getVersion() == 0 : "Wrong initial version: " + generator.getVersion();
+        generator.setValue(5L);
+        assert generator.nextValue() == 5 : "Wrong value: " + generator.nextValue();
+        assert generator.getVersion() == 1 : "Wrong version: " + generator.getVersion();
+    }
+
+
+    @Test
+    public void testSetDoubleValue()
+    {
+        AdjustableDoubleGenerator generator = new AdjustableDoubleGenerator(0.5d);
+        assert generator.nextDouble() == 0.5d : "Wrong initial value: " + generator.nextDouble();
+        generator.setValue(0.75d);
+        assert generator.nextDouble() == 0.75d : "Wrong value: " + generator.nextDouble();
+        assert generator.nextValue() == 0.75d : "Wrong boxed value: " + generator.nextValue();
+        assert generator.getVersion() == 1 : "Wrong version: " + generator.getVersion();
+        assert PrimitiveGenerators.asDoubleGenerator(generator) == generator : "Generator should not be wrapped.";
+    }
+
+
+    @Test
+    public void testSetIntValue()
+    {
+        AdjustableIntGenerator generator = new AdjustableIntGenerator(7);
+        assert generator.nextInt() == 7 : "Wrong initial value: " + generator.nextInt();
+        generator.setValue(11);
+        assert generator.nextInt() == 11 : "Wrong value: " + generator.nextInt();
+        assert generator.nextValue() == 11 : "Wrong boxed value: " + generator.nextValue();
+        assert generator.getVersion() == 1 : "Wrong version: " + generator.getVersion();
+        assert PrimitiveGenerators.asIntGenerator(generator) == generator : "Generator should not be wrapped.";
+    }
+
+
+    /**
+     * A reader that sees a new version must also see the corresponding value.
+     */
+    @Test(timeOut = 10000)
+    public void testVersionVisibility() throws InterruptedException
+    {
+        final int updates = 100000;
+        final AdjustableIntGenerator generator = new AdjustableIntGenerator(0);
+        final boolean[] consistent = {true};
+        Thread reader = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                long version;
+                do
+                {
+                    version = generator.getVersion();
+                    // The value is set to the version number before the version is
+                    // incremented, so it can never be behind the version.
+                    if (generator.nextInt() < version)
+                    {
+                        consistent[0] = false;
+                    }
+                } while (version < updates);
+            }
+        };
+        reader.start();
+        for (int i = 1; i <= updates; i++)
+        {
+            generator.setValue(i);
+        }
+        reader.join();
+        assert consistent[0] : "Reader observed a version before the corresponding value.";
+    }
+}
@@ -0,0 +1,122 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.number;
+
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the factory methods in {@link PrimitiveGenerators}.
+ * @author Daniel Dyer
+ */
+public class PrimitiveGeneratorsTest
+{
+    @Test
+    public void testConstants()
+    {
+        DoubleGenerator d = PrimitiveGenerators.constant(0.5d);
+        assert d.nextDouble() == 0.5d : "Wrong primitive value: " + d.nextDouble();
+        assert d.nextValue() == 0.5d : "Wrong boxed value: " + d.nextValue();
+        IntGenerator i = PrimitiveGenerators.constant(7);
+        assert i.nextInt() == 7 : "Wrong primitive value: " + i.nextInt();
+        assert i.nextValue() == 7 : "Wrong boxed value: " + i.nextValue();
+        LongGenerator l = PrimitiveGenerators.constant(Long.MAX_VALUE);
+        assert l.nextLong() == Long.MAX_VALUE : "Wrong primitive value: " + l.nextLong();
+        assert l.nextValue() == Long.MAX_VALUE : "Wrong boxed value: " + l.nextValue();
+    }
+
+
+    /**
+     * Adapting a generator that already supports primitive values should not
+     * add a wrapper.
+     */
+    @Test
+    public void testAdaptPrimitiveGenerator()
+    {
+        DoubleGenerator d = PrimitiveGenerators.constant(0.5d);
+        assert PrimitiveGenerators.asDoubleGenerator(d) == d : "Generator should not have been wrapped.";
+        IntGenerator i = PrimitiveGenerators.constant(7);
+        assert PrimitiveGenerators.asIntGenerator(i) == i : "Generator should not have been wrapped.";
+        LongGenerator l = PrimitiveGenerators.constant(7L);
+        assert PrimitiveGenerators.asLongGenerator(l) == l : "Generator should not have been wrapped.";
+    }
+
+
+    /**
+     * The adapter should be a live view of the wrapped generator, not a
+     * snapshot of its current value.
+     */
+    @Test
+    public void testAdaptBoxedGenerator()
+    {
+        AdjustableNumberGenerator<Double> d = new AdjustableNumberGenerator<Double>(0.5d);
+        DoubleGenerator adaptedDouble = PrimitiveGenerators.asDoubleGenerator(d);
+        assert adaptedDouble.nextDouble() == 0.5d : "Wrong value: " + adaptedDouble.nextDouble();
+        d.setValue(0.25d);
+        assert adaptedDouble.nextDouble() == 0.25d : "Wrong value: " + adaptedDouble.nextDouble();
+        assert adaptedDouble.nextValue() == 0.25d : "Wrong boxed value: " + adaptedDouble.nextValue();
+
+        AdjustableNumberGenerator<Integer> i = new AdjustableNumberGenerator<Integer>(3);
+        IntGenerator adaptedInt = PrimitiveGenerators.asIntGenerator(i);
+        i.setValue(4);
+        assert adaptedInt.nextInt() == 4 : "Wrong value: " + adaptedInt.nextInt();
+        assert adaptedInt.nextValue() == 4 : "Wrong boxed value: " + adaptedInt.nextValue();
+
+        AdjustableNumberGenerator<Long> l = new AdjustableNumberGenerator<Long>(3L);
+        LongGenerator adaptedLong = PrimitiveGenerators.asLongGenerator(l);
+        l.setValue(5L);
+        assert adaptedLong.nextLong() == 5 : "Wrong value: " + adaptedLong.nextLong();
+        assert adaptedLong.nextValue() == 5 : "Wrong boxed value: " + adaptedLong.nextValue();
+    }
+
+
+    @Test
+    public void testVersions()
+    {
+        AdjustableNumberGenerator<Double> adjustable = new AdjustableNumberGenerator<Double>(0.5d);
+        assert adjustable.getVersion() == 0 : "Initial version should be zero.";
+        adjustable.setValue(0.25d);
+        assert adjustable.getVersion() == 1 : "Version should be incremented by change.";
+
+        DoubleGenerator adapted = PrimitiveGenerators.asDoubleGenerator(adjustable);
+        assert adapted instanceof VersionedNumberGenerator : "Adapter should be versioned.";
+        adjustable.setValue(0.125d);
+        assert ((VersionedNumberGenerator<?>) adapted).getVersion() == 2 : "Adapter should report wrapped version.";
+
+        assert PrimitiveGenerators.constant(1d) instanceof VersionedNumberGenerator : "Constant should be versioned.";
+        assert PrimitiveGenerators.constant(1) instanceof VersionedNumberGenerator : "Constant should be versioned.";
+        assert PrimitiveGenerators.constant(1L) instanceof VersionedNumberGenerator : "Constant should be versioned.";
+        assert new ConstantGenerator<Double>(1d).getVersion() == 0 : "Constant version should be zero.";
+    }
+
+
+    /**
+     * Adapting a generator that may change at any time must not produce a
+     * versioned generator.
+     */
+    @Test
+    public void testUnversionedAdapter()
+    {
+        NumberGenerator<Double> unversioned = new NumberGenerator<Double>()
+        {
+            public Double nextValue()
+            {
+                return Math.random();
+            }
+        };
+        DoubleGenerator adapted = PrimitiveGenerators.asDoubleGenerator(unversioned);
+        assert !(adapted instanceof VersionedNumberGenerator) : "Adapter should not be versioned.";
+    }
+}
@@ -15,6 +15,11 @@
 // ============================================================================
 package org.uncommons.maths.random;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.security.GeneralSecurityException;
 import org.testng.Reporter;
 import org.testng.annotations.Test;
@@ -40,6 +45,60 @@ public class AESCounterRNGTest
     }
 
 
+    @Test
+    public void testSeek() throws GeneralSecurityException
+    {
+        AESCounterRNG rng = new AESCounterRNG();
+        assert rng.getPosition() == 0 : "Initial position should be zero.";
+        assert RNGTestUtils.testSeek(rng, new AESCounterRNG(rng.getSeed())) : "Output mismatch after seek.";
+
+        // Seeking to a distant position should be as fast as seeking to a near one.
+        rng.seek(Long.MAX_VALUE - 1);
+        assert rng.getPosition() == Long.MAX_VALUE - 1 : "Wrong position after seek.";
+        rng.nextInt();
+        assert rng.getPosition() == Long.MAX_VALUE : "Wrong position after seek.";
+    }
+
+
+    /**
+     * Output is generated in batches of blocks.  Make sure that bulk generation, single
+     * values and seeking all agree across the boundaries between batches.
+     */
+    @Test
+    public void testBatchBoundaries() throws GeneralSecurityException
+    {
+        AESCounterRNG rng = new AESCounterRNG();
+        AESCounterRNG duplicateRNG = new AESCounterRNG(rng.getSeed());
+        int[] values = new int[5000];
+        rng.nextInts(values, 0, 1021);
+        rng.nextInts(values, 1021, 5000);
+        for (int value : values)
+        {
+            assert value == duplicateRNG.nextInt() : "Bulk values do not match individual values.";
+        }
+        for (int position = 1020; position < 1030; position++)
+        {
+            rng.seek(position);
+            assert rng.nextInt() == values[position] : "Mismatch after seeking to " + position;
+        }
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNegativeSeek() throws GeneralSecurityException
+    {
+        new AESCounterRNG().seek(-1);
+    }
+
+
+    @Test
+    public void testCheckpoint() throws GeneralSecurityException
+    {
+        AESCounterRNG rng = new AESCounterRNG();
+        assert RNGTestUtils.testCheckpoint(rng, new AESCounterRNG()) : "Output mismatch after restoring state.";
+    }
+
+
     /**
      * Test to ensure that the output from the RNG is broadly as expected.  This will not
      * detect the subtle statistical anomalies that would be picked up by Diehard, but it
@@ -98,4 +157,24 @@ public class AESCounterRNGTest
     {
         new AESCounterRNG((byte[]) null); // Should throw an exception.
     }
+
+
+    @Test
+    public void testSerializable() throws IOException, ClassNotFoundException, GeneralSecurityException
+    {
+        // Serialise an RNG.
+        AESCounterRNG rng = new AESCounterRNG();
+        rng.nextInt(); // Make sure that there is some buffered output.
+        ByteArrayOutputStream byteOutStream = new ByteArrayOutputStream();
+        ObjectOutputStream objectOutStream = new ObjectOutputStream(byteOutStream);
+        objectOutStream.writeObject(rng);
+
+        // Read the RNG back-in.
+        ObjectInputStream objectInStream = new ObjectInputStream(new ByteArrayInputStream(byteOutStream.toByteArray()));
+        AESCounterRNG rng2 = (AESCounterRNG) objectInStream.readObject();
+        assert rng != rng2 : "Deserialised RNG should be distinct object.";
+
+        // Both RNGs should generate the same sequence, including after the buffer is refilled.
+        assert RNGTestUtils.testEquivalence(rng, rng2, 2000) : "Output mismatch after serialisation.";
+    }
 }
@@ -0,0 +1,250 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the functionality shared by all RNGs that extend {@link AbstractRNG}.
+ * {@link XORShiftRNG} is used as a representative implementation, except for the
+ * thread-safety tests, which are repeated for every RNG.
+ * @author Daniel Dyer
+ */
+public class AbstractRNGTest
+{
+    /**
+     * Bulk generation of ints must produce the same values as individual calls
+     * to {@link java.util.Random#nextInt()}.
+     */
+    @Test
+    public void testBulkInts()
+    {
+        XORShiftRNG rng = new XORShiftRNG();
+        XORShiftRNG duplicateRNG = new XORShiftRNG(rng.getSeed());
+        int[] values = new int[100];
+        rng.nextInts(values);
+        for (int value : values)
+        {
+            assert value == duplicateRNG.nextInt() : "Bulk values do not match individual values.";
+        }
+    }
+
+
+    /**
+     * Bulk generation of longs must produce the same values as individual calls
+     * to {@link java.util.Random#nextLong()}.
+     */
+    @Test
+    public void testBulkLongs()
+    {
+        XORShiftRNG rng = new XORShiftRNG();
+        XORShiftRNG duplicateRNG = new XORShiftRNG(rng.getSeed());
+        long[] values = new long[100];
+        rng.nextLongs(values);
+        for (long value : values)
+        {
+            assert value == duplicateRNG.nextLong() : "Bulk values do not match individual values.";
+        }
+    }
+
+
+    /**
+     * Bulk generation of doubles must produce the same values as individual calls
+     * to {@link java.util.Random#nextDouble()}.
+     */
+    @Test
+    public void testBulkDoubles()
+    {
+        XORShiftRNG rng = new XORShiftRNG();
+        XORShiftRNG duplicateRNG = new XORShiftRNG(rng.getSeed());
+        double[] values = new double[100];
+        rng.nextDoubles(values);
+        for (double value : values)
+        {
+            assert value == duplicateRNG.nextDouble() : "Bulk values do not match individual values.";
+        }
+    }
+
+
+    /**
+     * Elements outside of the specified range should not be touched.
+     */
+    @Test
+    public void testBulkRange()
+    {
+        XORShiftRNG rng = new XORShiftRNG();
+        XORShiftRNG duplicateRNG = new XORShiftRNG(rng.getSeed());
+        double[] values = new double[10];
+        rng.nextDoubles(values, 2, 8);
+        for (int i = 0; i < values.length; i++)
+        {
+            if (i < 2 || i >= 8)
+            {
+                assert values[i] == 0 : "Element outside of range was modified: " + i;
+            }
+            else
+            {
+                assert values[i] == duplicateRNG.nextDouble() : "Bulk values do not match individual values.";
+            }
+        }
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testBulkInvertedRange()
+    {
+        new XORShiftRNG().nextInts(new int[10], 6, 5);
+    }
+
+
+    @Test(expectedExceptions = ArrayIndexOutOfBoundsException.class)
+    public void testBulkRangeTooLong()
+    {
+        new XORShiftRNG().nextLongs(new long[10], 0, 11);
+    }
+
+
+    /**
+     * Invalid state data must be rejected without modifying the RNG.
+     */
+    @Test
+    public void testInvalidState()
+    {
+        XORShiftRNG rng = new XORShiftRNG();
+        XORShiftRNG duplicateRNG = new XORShiftRNG(rng.getSeed());
+        byte[] state = new XORShiftRNG().getState();
+
+        byte[] truncated = new byte[state.length - 1];
+        System.arraycopy(state, 0, truncated, 0, truncated.length);
+        byte[] extended = new byte[state.length + 1];
+        System.arraycopy(state, 0, extended, 0, state.length);
+        byte[] wrongVersion = state.clone();
+        wrongVersion[0]++;
+        byte[] wrongType = new MersenneTwisterRNG().getState();
+
+        for (byte[] invalid : new byte[][]{truncated, extended, wrongVersion, wrongType})
+        {
+            try
+            {
+                rng.setState(invalid);
+                assert false : "Invalid state should not be accepted.";
+            }
+            catch (IllegalArgumentException ex)
+            {
+                // Expected.
+            }
+        }
+        assert RNGTestUtils.testEquivalence(rng, duplicateRNG, 100) : "RNG should be unchanged.";
+
+        // The cellular automaton RNG's current cell must be one that it can actually reach.
+        CellularAutomatonRNG caRNG = new CellularAutomatonRNG();
+        CellularAutomatonRNG duplicateCARNG = new CellularAutomatonRNG(caRNG.getSeed());
+        byte[] misaligned = caRNG.getState();
+        misaligned[misaligned.length - 2] = 0;
+        misaligned[misaligned.length - 1] = 4;
+        try
+        {
+            caRNG.setState(misaligned);
+            assert false : "Misaligned cell index should not be accepted.";
+        }
+        catch (IllegalArgumentException ex)
+        {
+            // Expected.
+        }
+        assert RNGTestUtils.testEquivalence(caRNG, duplicateCARNG, 100) : "RNG should be unchanged.";
+    }
+
+
+    /**
+     * Each RNG type and the size of its seed.
+     */
+    @DataProvider(name = "rngTypes")
+    public Object[][] getRNGTypes()
+    {
+        return new Object[][]
+        {
+            {AESCounterRNG.class, 16},
+            {CMWC4096RNG.class, 16384},
+            {CellularAutomatonRNG.class, 4},
+            {MersenneTwister64RNG.class, 32},
+            {MersenneTwisterRNG.class, 16},
+            {MultiLaneXORShiftRNG.class, 8},
+            {PCG32RNG.class, 16},
+            {PCG64RNG.class, 32},
+            {PhiloxRNG.class, 8},
+            {SplitMix64RNG.class, 8},
+            {ThreefryRNG.class, 32},
+            {XORShiftRNG.class, 20},
+            {Xoroshiro128PlusRNG.class, 16},
+            {Xoshiro256StarStarRNG.class, 32}
+        };
+    }
+
+
+    /**
+     * An RNG that does not lock must produce exactly the same output as a thread-safe
+     * RNG of the same type when both are given the same seed.
+     */
+    @Test(dataProvider = "rngTypes")
+    public void testNotThreadSafeEquivalence(Class<? extends AbstractRNG> rngType,
+                                             int seedLength) throws Exception
+    {
+        byte[] seed = DefaultSeedGenerator.getInstance().generateSeed(seedLength);
+        AbstractRNG rng = createRNG(rngType, seed, true);
+        AbstractRNG unlockedRNG = createRNG(rngType, seed, false);
+        assert rng.isThreadSafe() : "RNG should be thread-safe.";
+        assert !unlockedRNG.isThreadSafe() : "RNG should not be thread-safe.";
+        assert RNGTestUtils.testEquivalence(rng, unlockedRNG, 1000) : "Generated sequences do not match.";
+        long[] values = new long[100];
+        long[] unlockedValues = new long[100];
+        rng.nextLongs(values);
+        unlockedRNG.nextLongs(unlockedValues);
+        assert Arrays.equals(values, unlockedValues) : "Bulk values do not match.";
+    }
+
+
+    /**
+     * The state of a thread-safe RNG can be restored into an RNG that does not lock
+     * (and vice versa), since both kinds of RNG have the same state.
+     */
+    @Test(dataProvider = "rngTypes")
+    public void testNotThreadSafeCheckpoint(Class<? extends AbstractRNG> rngType,
+                                            int seedLength) throws Exception
+    {
+        SeedGenerator seedGenerator = DefaultSeedGenerator.getInstance();
+        AbstractRNG rng = createRNG(rngType, seedGenerator.generateSeed(seedLength), true);
+        AbstractRNG unlockedRNG = createRNG(rngType, seedGenerator.generateSeed(seedLength), false);
+        rng.nextGaussian(); // Leaves the second value of the pair cached.
+        unlockedRNG.setState(rng.getState());
+        assert RNGTestUtils.testEquivalence(rng, unlockedRNG, 1000) : "Output mismatch after restoring state.";
+
+        rng = createRNG(rngType, seedGenerator.generateSeed(seedLength), true);
+        rng.setState(unlockedRNG.getState());
+        assert RNGTestUtils.testEquivalence(unlockedRNG, rng, 1000) : "Output mismatch after restoring state.";
+    }
+
+
+    private AbstractRNG createRNG(Class<? extends AbstractRNG> rngType,
+                                  byte[] seed,
+                                  boolean threadSafe) throws Exception
+    {
+        Constructor<? extends AbstractRNG> constructor = rngType.getConstructor(byte[].class, boolean.class);
+        return constructor.newInstance(seed, threadSafe);
+    }
+}
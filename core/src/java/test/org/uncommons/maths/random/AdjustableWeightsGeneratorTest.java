@@ -0,0 +1,113 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the Fenwick tree discrete generator.
+ * @author Daniel Dyer
+ */
+public class AdjustableWeightsGeneratorTest
+{
+    private final Random rng = new MersenneTwisterRNG();
+
+
+    @Test(groups = "non-deterministic")
+    public void testDistribution()
+    {
+        double[] weights = {1, 0, 3, 6, 0, 2, 8};
+        AliasMethodGeneratorTest.checkDistribution(new AdjustableWeightsGenerator(weights, rng), weights);
+    }
+
+
+    @Test(groups = "non-deterministic")
+    public void testAdjustWeights()
+    {
+        double[] weights = {1, 0, 3, 6, 0, 2, 8};
+        AdjustableWeightsGenerator generator = new AdjustableWeightsGenerator(weights, rng);
+        weights[0] = 0;
+        generator.setWeight(0, 0);
+        weights[1] = 5;
+        generator.setWeight(1, 5);
+        weights[6] = 1;
+        generator.setWeight(6, 1);
+        assert generator.getWeight(1) == 5 : "Wrong weight: " + generator.getWeight(1);
+        assert generator.getTotalWeight() == 17 : "Wrong total weight: " + generator.getTotalWeight();
+        AliasMethodGeneratorTest.checkDistribution(generator, weights);
+    }
+
+
+    /**
+     * Make enough updates to trigger rebuilding of the tree and check that
+     * the generator is still consistent with the weights.
+     */
+    @Test(groups = "non-deterministic")
+    public void testManyUpdates()
+    {
+        double[] weights = new double[20];
+        Arrays.fill(weights, 1);
+        AdjustableWeightsGenerator generator = new AdjustableWeightsGenerator(weights, rng);
+        for (int i = 0; i < 1000; i++)
+        {
+            int index = rng.nextInt(weights.length);
+            weights[index] = rng.nextInt(4);
+            if (weights[index] == 0 && generator.getTotalWeight() == generator.getWeight(index))
+            {
+                weights[index] = 1; // Can't remove the last non-zero weight.
+            }
+            generator.setWeight(index, weights[index]);
+        }
+        AliasMethodGeneratorTest.checkDistribution(generator, weights);
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNegativeWeight()
+    {
+        new AdjustableWeightsGenerator(new double[]{1, 1}, rng).setWeight(1, -1);
+    }
+
+
+    /**
+     * Setting the only non-zero weight to zero would leave no valid values to
+     * generate, so should not be permitted.
+     */
+    @Test
+    public void testRemoveLastWeight()
+    {
+        AdjustableWeightsGenerator generator = new AdjustableWeightsGenerator(new double[]{0, 2, 0}, rng);
+        try
+        {
+            generator.setWeight(1, 0);
+            assert false : "Expected IllegalArgumentException.";
+        }
+        catch (IllegalArgumentException ex)
+        {
+            // Expected, now make sure the generator is still usable.
+            assert generator.nextInt() == 1 : "Only value 1 should be generated.";
+        }
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testAllWeightsZero()
+    {
+        new AdjustableWeightsGenerator(new double[]{0, 0, 0}, rng);
+    }
+}
@@ -0,0 +1,138 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.util.Random;
+import org.testng.annotations.Test;
+import org.uncommons.maths.Maths;
+import org.uncommons.maths.number.IntGenerator;
+
+/**
+ * Unit test for the alias method discrete generator.
+ * @author Daniel Dyer
+ */
+public class AliasMethodGeneratorTest
+{
+    private final Random rng = new MersenneTwisterRNG();
+
+
+    @Test(groups = "non-deterministic")
+    public void testDistribution()
+    {
+        double[] weights = {1, 0, 3, 6};
+        checkDistribution(new AliasMethodGenerator(weights, rng), weights);
+    }
+
+
+    /**
+     * A large number of weights, with very different magnitudes, exercises the
+     * construction of the alias table more thoroughly.
+     */
+    @Test(groups = "non-deterministic")
+    public void testSkewedDistribution()
+    {
+        double[] weights = new double[1000];
+        weights[0] = 1000;
+        for (int i = 1; i < weights.length; i++)
+        {
+            weights[i] = i % 10 == 0 ? 0 : 1;
+        }
+        checkDistribution(new AliasMethodGenerator(weights, rng), weights);
+    }
+
+
+    /**
+     * Changes to the weights array after construction should not affect
+     * the generator.
+     */
+    @Test
+    public void testWeightsCopied()
+    {
+        double[] weights = {0, 1};
+        IntGenerator generator = new AliasMethodGenerator(weights, rng);
+        weights[0] = 1;
+        weights[1] = 0;
+        for (int i = 0; i < 100; i++)
+        {
+            assert generator.nextInt() == 1 : "Only value 1 should be generated.";
+        }
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNoWeights()
+    {
+        new AliasMethodGenerator(new double[0], rng);
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNegativeWeight()
+    {
+        new AliasMethodGenerator(new double[]{1, -1, 1}, rng);
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testAllWeightsZero()
+    {
+        new AliasMethodGenerator(new double[]{0, 0, 0}, rng);
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInfiniteWeight()
+    {
+        new AliasMethodGenerator(new double[]{1, Double.POSITIVE_INFINITY}, rng);
+    }
+
+
+    /**
+     * Check that the observed frequency of each value is consistent with its weight,
+     * and that values with a weight of zero are never generated.
+     */
+    static void checkDistribution(IntGenerator generator, double[] weights)
+    {
+        double total = 0;
+        for (double weight : weights)
+        {
+            total += weight;
+        }
+        final int iterations = 1000000;
+        int[] counts = new int[weights.length];
+        for (int i = 0; i < iterations; i++)
+        {
+            int value = generator.nextInt();
+            assert value >= 0 && value < weights.length : "Value out-of-range: " + value;
+            ++counts[value];
+        }
+        for (int i = 0; i < weights.length; i++)
+        {
+            double expected = iterations * weights[i] / total;
+            if (weights[i] == 0)
+            {
+                assert counts[i] == 0 : "Value with zero weight was generated: " + i;
+            }
+            else if (expected >= 1000)
+            {
+                // Only check the frequencies of values that are expected to
+                // occur often enough for the comparison to be meaningful.
+                assert Maths.approxEquals(counts[i], expected, 0.05)
+                    : "Observed frequency of " + i + " outside acceptable range: " + counts[i];
+            }
+        }
+    }
+}
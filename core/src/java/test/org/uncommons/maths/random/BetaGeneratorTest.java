@@ -0,0 +1,113 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.util.Random;
+import org.testng.annotations.Test;
+import org.uncommons.maths.Maths;
+import org.uncommons.maths.number.AdjustableNumberGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.statistics.DataSet;
+
+/**
+ * Unit test for the beta number generator.
+ * @author Daniel Dyer
+ */
+public class BetaGeneratorTest
+{
+    private final Random rng = new MersenneTwisterRNG();
+
+
+    /**
+     * Check that the observed mean and standard deviation are consistent
+     * with the specified distribution parameters.
+     */
+    @Test(groups = "non-deterministic")
+    public void testDistribution()
+    {
+        checkDistribution(new BetaGenerator(2, 5, rng), 2, 5);
+    }
+
+
+    /**
+     * With both parameters less than one, the distribution is U-shaped.
+     */
+    @Test(groups = "non-deterministic")
+    public void testUShapedDistribution()
+    {
+        checkDistribution(new BetaGenerator(0.5, 0.5, rng), 0.5, 0.5);
+    }
+
+
+    @Test(groups = "non-deterministic")
+    public void testDynamicParameters()
+    {
+        AdjustableNumberGenerator<Double> alphaGenerator = new AdjustableNumberGenerator<Double>(2d);
+        AdjustableNumberGenerator<Double> betaGenerator = new AdjustableNumberGenerator<Double>(5d);
+        NumberGenerator<Double> generator = new BetaGenerator(alphaGenerator, betaGenerator, rng);
+        checkDistribution(generator, 2, 5);
+
+        // Adjust parameters and ensure that the generator output conforms to this
+        // new distribution.
+        alphaGenerator.setValue(8d);
+        betaGenerator.setValue(3d);
+        checkDistribution(generator, 8, 3);
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testAlphaTooLow()
+    {
+        new BetaGenerator(0d, 1d, rng);
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testBetaTooLow()
+    {
+        new BetaGenerator(1d, 0d, rng);
+    }
+
+
+    private void checkDistribution(NumberGenerator<Double> generator,
+                                   double alpha,
+                                   double beta)
+    {
+        double sum = alpha + beta;
+        checkMoments(generator,
+                     alpha / sum,
+                     Math.sqrt(alpha * beta / (sum * sum * (sum + 1))));
+    }
+
+
+    private void checkMoments(NumberGenerator<Double> generator,
+                              double expectedMean,
+                              double expectedStandardDeviation)
+    {
+        final int iterations = 100000;
+        DataSet data = new DataSet(iterations);
+        for (int i = 0; i < iterations; i++)
+        {
+            double value = generator.nextValue();
+            assert value >= 0 && value <= 1 : "Value out-of-range: " + value;
+            data.addValue(value);
+        }
+        assert Maths.approxEquals(data.getArithmeticMean(), expectedMean, 0.02)
+                : "Observed mean outside acceptable range: " + data.getArithmeticMean();
+        assert Maths.approxEquals(data.getSampleStandardDeviation(), expectedStandardDeviation, 0.02)
+                : "Observed standard deviation outside acceptable range: " + data.getSampleStandardDeviation();
+    }
+}
@@ -46,6 +46,33 @@ public class BinomialGeneratorTest
     }
 
 
+    /**
+     * When the expected number of successes is large, a different algorithm
+     * (BTPE) is used, so check that it also produces the right distribution.
+     */
+    @Test(groups = "non-deterministic")
+    public void testLargeNDistribution()
+    {
+        final int n = 1000000;
+        final double p = 0.163d;
+        NumberGenerator<Integer> generator = new BinomialGenerator(n, p, rng);
+        checkDistribution(generator, n, p);
+    }
+
+
+    /**
+     * Both algorithms work with the smaller of p and 1 - p, so make sure that
+     * values of p greater than a half are handled correctly.
+     */
+    @Test(groups = "non-deterministic")
+    public void testHighProbabilityDistribution()
+    {
+        final double p = 0.837d;
+        checkDistribution(new BinomialGenerator(20, p, rng), 20, p);
+        checkDistribution(new BinomialGenerator(1000, p, rng), 1000, p);
+    }
+
+
     @Test(groups = "non-deterministic")
     public void testDynamicParameters()
     {
@@ -108,6 +135,23 @@ public class BinomialGeneratorTest
     }
 
 
+    /**
+     * The primitive and boxed methods must produce the same sequence.
+     */
+    @Test
+    public void testPrimitiveValues()
+    {
+        MersenneTwisterRNG rng1 = new MersenneTwisterRNG();
+        MersenneTwisterRNG rng2 = new MersenneTwisterRNG(rng1.getSeed());
+        BinomialGenerator boxed = new BinomialGenerator(20, 0.3d, rng1);
+        BinomialGenerator primitive = new BinomialGenerator(20, 0.3d, rng2);
+        for (int i = 0; i < 100; i++)
+        {
+            assert boxed.nextValue() == primitive.nextInt() : "Primitive value does not match boxed value.";
+        }
+    }
+
+
     private void checkDistribution(NumberGenerator<Integer> generator,
                                    int n,
                                    double p)
@@ -0,0 +1,137 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.math.BigInteger;
+import java.util.Random;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for Lemire's bounded integer method.
+ * @author Daniel Dyer
+ */
+public class BoundedIntegersTest
+{
+    @Test
+    public void testMultiplyHigh()
+    {
+        Random rng = new MersenneTwisterRNG();
+        BigInteger mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+        for (int i = 0; i < 1000; i++)
+        {
+            long a = rng.nextLong();
+            long b = rng.nextLong();
+            BigInteger product = unsigned(a).multiply(unsigned(b));
+            long expected = product.shiftRight(64).and(mask).longValue();
+            assert BoundedIntegers.multiplyHigh(a, b) == expected
+                : "Wrong high word for " + a + " * " + b;
+        }
+        assert BoundedIntegers.multiplyHigh(-1, -1) == -2 : "Wrong high word for maximum values.";
+    }
+
+
+    /**
+     * Each of a small number of values should be generated about equally often.
+     */
+    @Test(groups = "non-deterministic")
+    public void testIntDistribution()
+    {
+        Random rng = new MersenneTwisterRNG();
+        final int bound = 7;
+        final int iterations = 70000;
+        int[] counts = new int[bound];
+        for (int i = 0; i < iterations; i++)
+        {
+            counts[BoundedIntegers.nextInt(rng, bound)]++;
+        }
+        for (int count : counts)
+        {
+            assert Math.abs(count - iterations / bound) < 500 : "Value generated too rarely or too often: " + count;
+        }
+    }
+
+
+    /**
+     * With a range of 2^32 every word is accepted and returned unchanged.
+     */
+    @Test
+    public void testFullRange()
+    {
+        Random rng = new XORShiftRNG();
+        byte[] state = ((AbstractRNG) rng).getState();
+        int expected = rng.nextInt();
+        ((AbstractRNG) rng).setState(state);
+        long value = BoundedIntegers.nextWord(rng, 1L << 32);
+        assert (int) value == expected : "Full-range value should be the unmodified word.";
+    }
+
+
+    /**
+     * A bound just above 2^62 causes about a quarter of all words to be rejected,
+     * which exercises the rejection loop.  Each quarter of the range should be
+     * equally likely.
+     */
+    @Test(groups = "non-deterministic")
+    public void testLongDistribution()
+    {
+        Random rng = new MersenneTwister64RNG();
+        final long bound = (1L << 62) + 1;
+        final int iterations = 40000;
+        int[] counts = new int[4];
+        for (int i = 0; i < iterations; i++)
+        {
+            long value = BoundedIntegers.nextLong(rng, bound);
+            assert value >= 0 && value < bound : "Value out of range: " + value;
+            counts[(int) (value / (bound / 4))]++;
+        }
+        for (int count : counts)
+        {
+            assert Math.abs(count - iterations / 4) < 500 : "Value generated too rarely or too often: " + count;
+        }
+    }
+
+
+    @Test
+    public void testLongBoundOfOne()
+    {
+        Random rng = new MersenneTwisterRNG();
+        for (int i = 0; i < 100; i++)
+        {
+            assert BoundedIntegers.nextLong(rng, 1) == 0 : "Only possible value is zero.";
+        }
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testZeroIntBound()
+    {
+        BoundedIntegers.nextInt(new MersenneTwisterRNG(), 0);
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNegativeLongBound()
+    {
+        BoundedIntegers.nextLong(new MersenneTwisterRNG(), -5);
+    }
+
+
+    private static BigInteger unsigned(long value)
+    {
+        BigInteger result = BigInteger.valueOf(value);
+        return value < 0 ? result.add(BigInteger.ONE.shiftLeft(64)) : result;
+    }
+}
@@ -47,6 +47,14 @@ public class CMWC4096RNGTest
     }
 
 
+    @Test
+    public void testCheckpoint()
+    {
+        CMWC4096RNG rng = new CMWC4096RNG();
+        assert RNGTestUtils.testCheckpoint(rng, new CMWC4096RNG()) : "Output mismatch after restoring state.";
+    }
+
+
     /**
      * Test to ensure that the output from the RNG is broadly as expected.  This will not
      * detect the subtle statistical anomalies that would be picked up by Diehard, but it
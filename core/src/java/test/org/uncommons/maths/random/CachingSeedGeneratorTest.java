@@ -0,0 +1,244 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the seed cache.
+ * @author Daniel Dyer
+ */
+public class CachingSeedGeneratorTest
+{
+    /**
+     * Runs background tasks immediately on the calling thread.
+     */
+    private static final Executor SAME_THREAD = new Executor()
+    {
+        public void execute(Runnable command)
+        {
+            command.run();
+        }
+    };
+
+
+    @Test
+    public void testSingleFetch() throws SeedException
+    {
+        CountingSeedGenerator delegate = new CountingSeedGenerator();
+        SeedGenerator generator = new CachingSeedGenerator(delegate, 1024, 0, SAME_THREAD);
+        for (int i = 0; i < 128; i++)
+        {
+            byte[] seed = generator.generateSeed(8);
+            assert seed.length == 8 : "Wrong seed length: " + seed.length;
+            assert AbstractRNG.seedToLong(seed, 0) == i : "Seeds should be successive slices of the block.";
+        }
+        assert delegate.getRequestCount() == 1 : "Should need only one request: " + delegate.getRequestCount();
+        generator.generateSeed(8);
+        assert delegate.getRequestCount() == 2 : "Should need a second request: " + delegate.getRequestCount();
+    }
+
+
+    /**
+     * Once the low-water mark is reached, the next block should be fetched
+     * before the current one is exhausted.
+     */
+    @Test
+    public void testRefill() throws SeedException
+    {
+        CountingSeedGenerator delegate = new CountingSeedGenerator();
+        SeedGenerator generator = new CachingSeedGenerator(delegate, 64, 16, SAME_THREAD);
+        for (int i = 0; i < 6; i++)
+        {
+            generator.generateSeed(8);
+        }
+        assert delegate.getRequestCount() == 1 : "Refill should not have started yet.";
+        generator.generateSeed(8); // Leaves 8 bytes.
+        assert delegate.getRequestCount() == 2 : "Refill should have started.";
+        generator.generateSeed(8); // Exhausts the first block.
+        byte[] seed = generator.generateSeed(8);
+        assert delegate.getRequestCount() == 2 : "Refilled block should have been used.";
+        assert AbstractRNG.seedToLong(seed, 0) == 8 : "Seed should be the start of the second block.";
+    }
+
+
+    /**
+     * If the executor won't accept the refill task, the caller should still get its
+     * seed, and a later request should be able to schedule the refill.
+     */
+    @Test
+    public void testRejectedRefill() throws SeedException
+    {
+        final AtomicInteger attempts = new AtomicInteger(0);
+        Executor rejectFirst = new Executor()
+        {
+            public void execute(Runnable command)
+            {
+                if (attempts.incrementAndGet() == 1)
+                {
+                    throw new RejectedExecutionException("Rejected.");
+                }
+                command.run();
+            }
+        };
+        CountingSeedGenerator delegate = new CountingSeedGenerator();
+        SeedGenerator generator = new CachingSeedGenerator(delegate, 64, 16, rejectFirst);
+        for (int i = 0; i < 6; i++)
+        {
+            generator.generateSeed(8);
+        }
+        byte[] seed = generator.generateSeed(8); // Leaves 8 bytes, refill is rejected.
+        assert AbstractRNG.seedToLong(seed, 0) == 6 : "Seed should be taken from the first block.";
+        assert attempts.get() == 1 : "Refill should have been attempted.";
+        assert delegate.getRequestCount() == 1 : "Refill should not have happened.";
+        seed = generator.generateSeed(8); // Exhausts the block, refill is scheduled again.
+        assert AbstractRNG.seedToLong(seed, 0) == 7 : "Seed should be taken from the first block.";
+        assert attempts.get() == 2 : "Refill should be attempted again: " + attempts.get();
+        assert delegate.getRequestCount() == 2 : "Refill should have happened: " + delegate.getRequestCount();
+    }
+
+
+    @Test
+    public void testLargeRequest() throws SeedException
+    {
+        CountingSeedGenerator delegate = new CountingSeedGenerator();
+        SeedGenerator generator = new CachingSeedGenerator(delegate, 64, 16, SAME_THREAD);
+        byte[] seed = generator.generateSeed(100);
+        assert seed.length == 100 : "Wrong seed length: " + seed.length;
+        assert delegate.getRequestCount() == 1 : "Large request should go straight to the delegate.";
+        generator.generateSeed(8);
+        assert delegate.getRequestCount() == 2 : "Block should be fetched after large request.";
+    }
+
+
+    /**
+     * No data should be handed out more than once, however many threads
+     * are taking seeds concurrently.
+     */
+    @Test(timeOut = 30000)
+    public void testConcurrentUniqueness() throws InterruptedException
+    {
+        final SeedGenerator generator = new CachingSeedGenerator(new CountingSeedGenerator(), 256, 64);
+        final int threadCount = 8;
+        final int seedsPerThread = 10000;
+        final Set<Long> values = new HashSet<Long>();
+        final AtomicInteger failures = new AtomicInteger(0);
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++)
+        {
+            threads[i] = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    long[] seeds = new long[seedsPerThread];
+                    try
+                    {
+                        for (int j = 0; j < seedsPerThread; j++)
+                        {
+                            seeds[j] = AbstractRNG.seedToLong(generator.generateSeed(8), 0);
+                        }
+                    }
+                    catch (SeedException ex)
+                    {
+                        failures.incrementAndGet();
+                    }
+                    synchronized (values)
+                    {
+                        for (long seed : seeds)
+                        {
+                            if (!values.add(seed))
+                            {
+                                failures.incrementAndGet();
+                            }
+                        }
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+        assert failures.get() == 0 : failures.get() + " duplicate or failed seeds.";
+    }
+
+
+    /**
+     * A negative length must be rejected without disturbing the cached block, so that
+     * no bytes are handed out twice.
+     */
+    @Test
+    public void testNegativeLength() throws SeedException
+    {
+        SeedGenerator generator = new CachingSeedGenerator(new CountingSeedGenerator(), 1024, 0, SAME_THREAD);
+        assert AbstractRNG.seedToLong(generator.generateSeed(8), 0) == 0 : "Wrong first seed.";
+        try
+        {
+            generator.generateSeed(-8);
+            assert false : "Negative length should not be accepted.";
+        }
+        catch (IllegalArgumentException ex)
+        {
+            // Expected.
+        }
+        assert AbstractRNG.seedToLong(generator.generateSeed(8), 0) == 1 : "Seed data should not be re-used.";
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidLowWaterMark()
+    {
+        new CachingSeedGenerator(new CountingSeedGenerator(), 64, 64);
+    }
+
+
+    /**
+     * Produces consecutive 64-bit values so that every 8-byte seed is unique.
+     */
+    private static final class CountingSeedGenerator implements SeedGenerator
+    {
+        private final AtomicInteger requests = new AtomicInteger(0);
+        private long next = 0;
+
+        public synchronized byte[] generateSeed(int length)
+        {
+            requests.incrementAndGet();
+            byte[] seed = new byte[length];
+            for (int i = 0; i + 8 <= length; i += 8)
+            {
+                long value = next++;
+                for (int j = 7; j >= 0; j--)
+                {
+                    seed[i + j] = (byte) value;
+                    value >>>= 8;
+                }
+            }
+            return seed;
+        }
+
+        int getRequestCount()
+        {
+            return requests.get();
+        }
+    }
+}
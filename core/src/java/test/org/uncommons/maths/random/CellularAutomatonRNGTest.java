@@ -45,6 +45,14 @@ public class CellularAutomatonRNGTest
     }
 
 
+    @Test
+    public void testCheckpoint()
+    {
+        CellularAutomatonRNG rng = new CellularAutomatonRNG();
+        assert RNGTestUtils.testCheckpoint(rng, new CellularAutomatonRNG()) : "Output mismatch after restoring state.";
+    }
+
+
     /**
      * Test to ensure that the output from the RNG is broadly as expected.  This will not
      * detect the subtle statistical anomalies that would be picked up by Diehard, but it
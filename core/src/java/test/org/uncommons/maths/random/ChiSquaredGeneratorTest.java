@@ -0,0 +1,79 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.util.Random;
+import org.testng.annotations.Test;
+import org.uncommons.maths.Maths;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.statistics.DataSet;
+
+/**
+ * Unit test for the chi-squared number generator.
+ * @author Daniel Dyer
+ */
+public class ChiSquaredGeneratorTest
+{
+    private final Random rng = new MersenneTwisterRNG();
+
+
+    /**
+     * Check that the observed mean and standard deviation are consistent
+     * with the specified distribution parameters.
+     */
+    @Test(groups = "non-deterministic")
+    public void testDistribution()
+    {
+        final double k = 7;
+        checkDistribution(new ChiSquaredGenerator(k, rng), k, Math.sqrt(2 * k));
+    }
+
+
+    /**
+     * With one degree of freedom, the values are the squares of standard
+     * normal values.
+     */
+    @Test(groups = "non-deterministic")
+    public void testOneDegreeOfFreedom()
+    {
+        checkDistribution(new ChiSquaredGenerator(1, rng), 1, Math.sqrt(2));
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testDegreesOfFreedomTooLow()
+    {
+        new ChiSquaredGenerator(0d, rng);
+    }
+
+    private void checkDistribution(NumberGenerator<Double> generator,
+                                   double expectedMean,
+                                   double expectedStandardDeviation)
+    {
+        final int iterations = 100000;
+        DataSet data = new DataSet(iterations);
+        for (int i = 0; i < iterations; i++)
+        {
+            double value = generator.nextValue();
+            assert value >= 0 : "Value must be non-negative: " + value;
+            data.addValue(value);
+        }
+        assert Maths.approxEquals(data.getArithmeticMean(), expectedMean, 0.02)
+                : "Observed mean outside acceptable range: " + data.getArithmeticMean();
+        assert Maths.approxEquals(data.getSampleStandardDeviation(), expectedStandardDeviation, 0.02)
+                : "Observed standard deviation outside acceptable range: " + data.getSampleStandardDeviation();
+    }
+}
@@ -16,6 +16,8 @@
 package org.uncommons.maths.random;
 
 import java.security.Permission;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.testng.annotations.Test;
 
 /**
@@ -32,13 +34,15 @@ public class DefaultSeedGeneratorTest
     @Test
     public void testRestrictedEnvironment()
     {
+        // Use a new instance with the default strategies so that the statistics
+        // only reflect this test.
+        DefaultSeedGenerator generator = DefaultSeedGenerator.createInstance(null, null);
         SecurityManager securityManager = System.getSecurityManager();
         try
         {
             // Don't allow file system or network access.
             System.setSecurityManager(new RestrictedSecurityManager());
-            DefaultSeedGenerator.getInstance().generateSeed(4);
-            // Should get to here without exceptions.
+            assert generator.generateSeed(4).length == 4 : "Wrong seed length.";
         }
         finally
         {
@@ -46,6 +50,257 @@ public class DefaultSeedGeneratorTest
             // interfere with the running of other tests.
             System.setSecurityManager(securityManager);
         }
+        List<DefaultSeedGenerator.SourceStatistics> statistics = generator.getStatistics();
+        for (int i = 0; i < statistics.size() - 1; i++)
+        {
+            assert statistics.get(i).getFailureCount() == 1 : statistics.get(i).getGenerator() + " should have failed.";
+        }
+        DefaultSeedGenerator.SourceStatistics fallback = statistics.get(statistics.size() - 1);
+        assert fallback.getGenerator() instanceof SecureRandomSeedGenerator : "Wrong fallback strategy.";
+        assert fallback.getSuccessCount() == 1 : "Seed should have come from the fallback strategy.";
+        assert fallback.getBytesServed() == 4 : "Wrong byte count.";
+    }
+
+
+    /**
+     * Strategies should be tried in order, and the statistics should record what
+     * happened.
+     */
+    @Test
+    public void testFallback()
+    {
+        FailingSeedGenerator failing = new FailingSeedGenerator(Integer.MAX_VALUE);
+        SeedGenerator working = new SecureRandomSeedGenerator();
+        DefaultSeedGenerator generator = new DefaultSeedGenerator(0, failing, working);
+        assert generator.generateSeed(16).length == 16 : "Wrong seed length.";
+        assert generator.generateSeed(8).length == 8 : "Wrong seed length.";
+        assert failing.calls == 2 : "Failing generator should be tried every time when there is no back-off.";
+
+        List<DefaultSeedGenerator.SourceStatistics> statistics = generator.getStatistics();
+        assert statistics.size() == 2 : "Wrong number of sources: " + statistics.size();
+        DefaultSeedGenerator.SourceStatistics failingStatistics = statistics.get(0);
+        assert failingStatistics.getGenerator() == failing : "Wrong order.";
+        assert failingStatistics.getFailureCount() == 2 : "Wrong failure count.";
+        assert failingStatistics.getSuccessCount() == 0 : "Wrong success count.";
+        assert failingStatistics.getBytesServed() == 0 : "Wrong byte count.";
+        DefaultSeedGenerator.SourceStatistics workingStatistics = statistics.get(1);
+        assert workingStatistics.getSuccessCount() == 2 : "Wrong success count.";
+        assert workingStatistics.getFailureCount() == 0 : "Wrong failure count.";
+        assert workingStatistics.getBytesServed() == 24 : "Wrong byte count.";
+        assert workingStatistics.getTotalTime(TimeUnit.NANOSECONDS) > 0 : "Time not recorded.";
+    }
+
+
+    /**
+     * Once a strategy has failed it should not be tried again until the back-off
+     * period has expired.
+     */
+    @Test
+    public void testBackOff() throws InterruptedException
+    {
+        FailingSeedGenerator failing = new FailingSeedGenerator(Integer.MAX_VALUE);
+        DefaultSeedGenerator generator = new DefaultSeedGenerator(60000, failing, new SecureRandomSeedGenerator());
+        for (int i = 0; i < 5; i++)
+        {
+            generator.generateSeed(4);
+        }
+        assert failing.calls == 1 : "Failed generator should be skipped: " + failing.calls + " calls.";
+        assert generator.getStatistics().get(0).isBackingOff() : "Failed generator should be backing off.";
+
+        FailingSeedGenerator recovering = new FailingSeedGenerator(1);
+        generator = new DefaultSeedGenerator(1, recovering, new SecureRandomSeedGenerator());
+        generator.generateSeed(4);
+        Thread.sleep(10);
+        generator.generateSeed(4);
+        assert recovering.calls == 2 : "Generator should be retried after back-off: " + recovering.calls + " calls.";
+        assert !generator.getStatistics().get(0).isBackingOff() : "Generator has recovered.";
+        assert generator.getStatistics().get(0).getSuccessCount() == 1 : "Wrong success count.";
+    }
+
+
+    /**
+     * Doubling a long back-off period must not overflow, otherwise a strategy that
+     * keeps failing would stop being skipped.
+     */
+    @Test
+    public void testLongBackOff()
+    {
+        long backOffMillis = 10L * 365 * 24 * 60 * 60 * 1000; // Ten years.
+        long backOffNanos = TimeUnit.MILLISECONDS.toNanos(backOffMillis);
+        assert DefaultSeedGenerator.getBackOffDelay(backOffNanos, 1) == backOffNanos : "Wrong initial delay.";
+        assert DefaultSeedGenerator.getBackOffDelay(backOffNanos, 2) == 2 * backOffNanos : "Delay should double.";
+        for (int failures = 1; failures < 100; failures++)
+        {
+            long delay = DefaultSeedGenerator.getBackOffDelay(backOffNanos, failures);
+            assert delay > 0 && delay <= Long.MAX_VALUE >> 1 : "Invalid delay: " + delay;
+        }
+
+        FailingSeedGenerator failing = new FailingSeedGenerator(Integer.MAX_VALUE);
+        DefaultSeedGenerator generator = new DefaultSeedGenerator(backOffMillis, failing);
+        for (int i = 0; i < 10; i++)
+        {
+            try
+            {
+                generator.generateSeed(4);
+                assert false : "Expected IllegalStateException.";
+            }
+            catch (IllegalStateException ex)
+            {
+                // Expected, the only generator failed.
+            }
+        }
+        assert generator.getStatistics().get(0).isBackingOff() : "Failed generator should be backing off.";
+    }
+
+
+    /**
+     * If every strategy fails, any that are backing off should be tried rather
+     * than giving up.
+     */
+    @Test
+    public void testAllBackingOff()
+    {
+        FailingSeedGenerator recovering = new FailingSeedGenerator(1);
+        DefaultSeedGenerator generator = new DefaultSeedGenerator(60000, recovering);
+        try
+        {
+            generator.generateSeed(4);
+            assert false : "Expected IllegalStateException.";
+        }
+        catch (IllegalStateException ex)
+        {
+            // Expected, the only generator failed.
+        }
+        assert generator.generateSeed(4).length == 4 : "Wrong seed length.";
+        assert recovering.calls == 2 : "Generator should be tried even though it is backing off.";
+    }
+
+
+    @Test
+    public void testParseGenerators()
+    {
+        SeedGenerator[] generators = DefaultSeedGenerator.parseGenerators(
+            "SecureRandomSeedGenerator, org.uncommons.maths.random.DevURandomSeedGenerator");
+        assert generators.length == 2 : "Wrong number of generators: " + generators.length;
+        assert generators[0] instanceof SecureRandomSeedGenerator : "Wrong generator: " + generators[0];
+        assert generators[1] instanceof DevURandomSeedGenerator : "Wrong generator: " + generators[1];
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testParseInvalidGenerator()
+    {
+        DefaultSeedGenerator.parseGenerators("java.lang.String");
+    }
+
+
+    /**
+     * A generator whose constructor throws should be rejected in the same way as
+     * one that can't be found.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testGeneratorConstructorFails()
+    {
+        DefaultSeedGenerator.parseGenerators(BrokenSeedGenerator.class.getName());
+    }
+
+
+    /**
+     * Invalid configuration properties must not prevent the default instance from
+     * being created, or the class would be unusable for the life of the JVM.
+     */
+    @Test
+    public void testInvalidProperties()
+    {
+        DefaultSeedGenerator generator = DefaultSeedGenerator.createInstance("NoSuchSeedGenerator", "soon");
+        List<DefaultSeedGenerator.SourceStatistics> statistics = generator.getStatistics();
+        assert statistics.size() == 4 : "Should use the default generators: " + statistics;
+        assert statistics.get(0).getGenerator() instanceof DevURandomSeedGenerator
+            : "Should use the default generators: " + statistics;
+        assert generator.generateSeed(4).length == 4 : "Wrong seed length.";
+
+        generator = DefaultSeedGenerator.createInstance("java.lang.String", "-1");
+        assert generator.getStatistics().size() == 4 : "Should use the default generators.";
+    }
+
+
+    /**
+     * Valid configuration properties should determine the strategies used.
+     */
+    @Test
+    public void testProperties()
+    {
+        FailingSeedGeneratorStub.calls = 0;
+        DefaultSeedGenerator generator = DefaultSeedGenerator.createInstance(
+            FailingSeedGeneratorStub.class.getName() + ",SecureRandomSeedGenerator", "60000");
+        List<DefaultSeedGenerator.SourceStatistics> statistics = generator.getStatistics();
+        assert statistics.size() == 2 : "Wrong number of generators: " + statistics;
+        generator.generateSeed(4);
+        generator.generateSeed(4);
+        assert FailingSeedGeneratorStub.calls == 1 : "Back-off period not applied.";
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNoGenerators()
+    {
+        new DefaultSeedGenerator(0);
+    }
+
+
+    /**
+     * Fails a fixed number of times and then succeeds.
+     */
+    private static final class FailingSeedGenerator implements SeedGenerator
+    {
+        private final int failures;
+        private int calls = 0;
+
+        FailingSeedGenerator(int failures)
+        {
+            this.failures = failures;
+        }
+
+
+        public byte[] generateSeed(int length) throws SeedException
+        {
+            if (calls++ < failures)
+            {
+                throw new SeedException("Failure " + calls);
+            }
+            return new byte[length];
+        }
+    }
+
+
+    /**
+     * Always fails.  Public, with a public constructor, so that it can be created
+     * from its class name.
+     */
+    public static final class FailingSeedGeneratorStub implements SeedGenerator
+    {
+        private static int calls = 0;
+
+        public byte[] generateSeed(int length) throws SeedException
+        {
+            ++calls;
+            throw new SeedException("Always fails.");
+        }
+    }
+
+
+    public static final class BrokenSeedGenerator implements SeedGenerator
+    {
+        public BrokenSeedGenerator()
+        {
+            throw new IllegalStateException("Can't be created.");
+        }
+
+
+        public byte[] generateSeed(int length)
+        {
+            return new byte[length];
+        }
     }
 
 
@@ -59,9 +314,9 @@ public class DefaultSeedGeneratorTest
         @Override
         public void checkRead(String file)
         {
-            if (file.equals("/dev/random"))
+            if (file.equals("/dev/random") || file.equals("/dev/urandom"))
             {
-                throw new SecurityException("Test not permitted to access /dev/random");
+                throw new SecurityException("Test not permitted to access " + file);
             }
         }
 
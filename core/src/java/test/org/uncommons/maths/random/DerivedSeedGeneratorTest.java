@@ -0,0 +1,129 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link DerivedSeedGenerator} class.
+ * @author Daniel Dyer
+ */
+public class DerivedSeedGeneratorTest
+{
+    private final byte[] masterSeed = DefaultSeedGenerator.getInstance().generateSeed(16);
+
+
+    /**
+     * The same master seed and index must always produce the same seed, including
+     * from a separate generator instance (e.g. on another node).
+     */
+    @Test
+    public void testReproducibility()
+    {
+        DerivedSeedGenerator generator = new DerivedSeedGenerator(masterSeed);
+        DerivedSeedGenerator duplicate = new DerivedSeedGenerator(masterSeed);
+        assert Arrays.equals(generator.deriveSeed(42, 16), generator.deriveSeed(42, 16))
+            : "Same index should give the same seed.";
+        assert Arrays.equals(generator.deriveSeed(42, 16), duplicate.deriveSeed(42, 16))
+            : "Same master seed should give the same seed.";
+        assert !Arrays.equals(generator.deriveSeed(42, 16), generator.deriveSeed(43, 16))
+            : "Different indices should give different seeds.";
+        byte[] otherMaster = masterSeed.clone();
+        otherMaster[15] ^= 1;
+        assert !Arrays.equals(generator.deriveSeed(42, 16), new DerivedSeedGenerator(otherMaster).deriveSeed(42, 16))
+            : "Different master seeds should give different seeds.";
+    }
+
+
+    /**
+     * When used as a plain {@link SeedGenerator}, seeds should be handed out for
+     * successive indices starting at zero.
+     */
+    @Test
+    public void testGenerateSeed() throws SeedException
+    {
+        DerivedSeedGenerator generator = new DerivedSeedGenerator(masterSeed);
+        DerivedSeedGenerator duplicate = new DerivedSeedGenerator(masterSeed);
+        for (int i = 0; i < 10; i++)
+        {
+            assert Arrays.equals(generator.generateSeed(16), duplicate.deriveSeed(i, 16))
+                : "Wrong seed for index " + i;
+        }
+        MersenneTwisterRNG rng1 = new MersenneTwisterRNG(new DerivedSeedGenerator(masterSeed));
+        MersenneTwisterRNG rng2 = new MersenneTwisterRNG(new DerivedSeedGenerator(masterSeed));
+        assert RNGTestUtils.testEquivalence(rng1, rng2, 1000) : "RNGs with derived seeds should be equivalent.";
+    }
+
+
+    /**
+     * Seeds may be longer or shorter than the master seed and must be filled completely.
+     */
+    @Test
+    public void testSeedLengths()
+    {
+        DerivedSeedGenerator generator = new DerivedSeedGenerator(new byte[3]);
+        Set<Byte> values = new HashSet<Byte>();
+        for (byte b : generator.deriveSeed(0, 1000))
+        {
+            values.add(b);
+        }
+        // Every byte value is expected, but any significant shortfall indicates a problem.
+        assert values.size() > 200 : "Seed is not well distributed: " + values.size() + " distinct values.";
+        assert generator.deriveSeed(0, 5).length == 5 : "Wrong seed length.";
+        assert generator.deriveSeed(0, 0).length == 0 : "Wrong seed length.";
+    }
+
+
+    /**
+     * Children must be reproducible, and must not reproduce the seeds of their parent
+     * or of their siblings.
+     */
+    @Test
+    public void testChildren()
+    {
+        DerivedSeedGenerator generator = new DerivedSeedGenerator(masterSeed);
+        Set<String> seeds = new HashSet<String>();
+        for (int i = 0; i < 100; i++)
+        {
+            seeds.add(Arrays.toString(generator.deriveSeed(i, 16)));
+            DerivedSeedGenerator child = generator.child(i);
+            assert Arrays.equals(child.deriveSeed(0, 16), generator.child(i).deriveSeed(0, 16))
+                : "Children should be reproducible.";
+            for (int j = 0; j < 100; j++)
+            {
+                seeds.add(Arrays.toString(child.deriveSeed(j, 16)));
+            }
+        }
+        assert seeds.size() == 10100 : "Duplicate seeds: " + (10100 - seeds.size());
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testEmptyMasterSeed()
+    {
+        new DerivedSeedGenerator(new byte[0]);
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNegativeLength()
+    {
+        new DerivedSeedGenerator(masterSeed).deriveSeed(0, -1);
+    }
+}
@@ -0,0 +1,73 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.io.File;
+import java.util.Arrays;
+import org.testng.Reporter;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the seed generator that reads data from /dev/urandom (on
+ * platforms that provide it).
+ * @author Daniel Dyer
+ */
+public class DevURandomSeedGeneratorTest
+{
+    @Test
+    public void testGenerator()
+    {
+        SeedGenerator generator = new DevURandomSeedGenerator();
+        try
+        {
+            byte[] seed = generator.generateSeed(32);
+            assert seed.length == 32 : "Failed to generate seed of correct length";
+        }
+        catch (SeedException ex)
+        {
+            // This exception is OK, but only if we are running on a platform that
+            // does not provide /dev/urandom.
+            assert !new File("/dev/urandom").exists() : "Seed generator failed even though /dev/urandom exists.";
+            Reporter.log("/dev/urandom does not exist on this platform.");
+        }
+    }
+
+
+    /**
+     * Requests that span several reads from the device must be filled completely,
+     * and successive seeds (including those from different instances, which share
+     * a buffer) must not repeat any data.
+     */
+    @Test
+    public void testSuccessiveSeeds() throws SeedException
+    {
+        if (!new File("/dev/urandom").exists())
+        {
+            Reporter.log("/dev/urandom does not exist on this platform.");
+            return;
+        }
+        byte[] first = new DevURandomSeedGenerator().generateSeed(5000);
+        byte[] second = new DevURandomSeedGenerator().generateSeed(5000);
+        assert first.length == 5000 && second.length == 5000 : "Failed to generate seeds of correct length";
+        assert !Arrays.equals(first, second) : "Successive seeds are identical.";
+        boolean filled = false;
+        for (int i = 4000; i < first.length; i++)
+        {
+            filled |= first[i] != 0;
+        }
+        assert filled : "End of seed was not filled.";
+    }
+}
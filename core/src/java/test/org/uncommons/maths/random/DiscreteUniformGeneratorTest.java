@@ -60,4 +60,33 @@ public class DiscreteUniformGeneratorTest
             : "Observed mean outside acceptable range: " + data.getMedian();
     }
 
+
+    /**
+     * The full range of int values is too big for {@link java.util.Random#nextInt(int)}
+     * but should be supported.
+     */
+    @Test(groups = "non-deterministic")
+    public void testFullRange()
+    {
+        DiscreteUniformGenerator generator = new DiscreteUniformGenerator(Integer.MIN_VALUE,
+                                                                          Integer.MAX_VALUE,
+                                                                          new MersenneTwisterRNG());
+        int negative = 0;
+        final int iterations = 10000;
+        for (int i = 0; i < iterations; i++)
+        {
+            if (generator.nextInt() < 0)
+            {
+                negative++;
+            }
+        }
+        assert Math.abs(negative - iterations / 2) < 300 : "Too many or too few negative values: " + negative;
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvertedRange()
+    {
+        new DiscreteUniformGenerator(10, 9, new MersenneTwisterRNG());
+    }
 }
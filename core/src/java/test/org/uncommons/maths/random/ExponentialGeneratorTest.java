@@ -57,6 +57,17 @@ public class ExponentialGeneratorTest
 
 
     
+    @Test(groups = "non-deterministic")
+    public void testZigguratDistribution()
+    {
+        final double rate = 3.2d;
+        NumberGenerator<Double> generator = new ExponentialGenerator(rate,
+                                                                     rng,
+                                                                     ExponentialGenerator.Method.ZIGGURAT);
+        checkDistribution(generator, rate);
+    }
+
+
     private void checkDistribution(NumberGenerator<Double> generator,
                                    double rate)
     {
@@ -0,0 +1,107 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.util.Random;
+import org.testng.annotations.Test;
+import org.uncommons.maths.Maths;
+import org.uncommons.maths.number.AdjustableNumberGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.statistics.DataSet;
+
+/**
+ * Unit test for the gamma number generator.
+ * @author Daniel Dyer
+ */
+public class GammaGeneratorTest
+{
+    private final Random rng = new MersenneTwisterRNG();
+
+
+    /**
+     * Check that the observed mean and standard deviation are consistent
+     * with the specified distribution parameters.
+     */
+    @Test(groups = "non-deterministic")
+    public void testDistribution()
+    {
+        final double shape = 2.5;
+        final double scale = 3;
+        NumberGenerator<Double> generator = new GammaGenerator(shape, scale, rng);
+        checkDistribution(generator, shape * scale, Math.sqrt(shape) * scale);
+    }
+
+
+    /**
+     * Shapes less than one are handled differently, so check them too.
+     */
+    @Test(groups = "non-deterministic")
+    public void testSmallShapeDistribution()
+    {
+        final double shape = 0.5;
+        final double scale = 2;
+        NumberGenerator<Double> generator = new GammaGenerator(shape, scale, rng);
+        checkDistribution(generator, shape * scale, Math.sqrt(shape) * scale);
+    }
+
+
+    @Test(groups = "non-deterministic")
+    public void testDynamicParameters()
+    {
+        AdjustableNumberGenerator<Double> shapeGenerator = new AdjustableNumberGenerator<Double>(2.5d);
+        AdjustableNumberGenerator<Double> scaleGenerator = new AdjustableNumberGenerator<Double>(3d);
+        NumberGenerator<Double> generator = new GammaGenerator(shapeGenerator, scaleGenerator, rng);
+        checkDistribution(generator, 7.5, Math.sqrt(2.5) * 3);
+
+        // Adjust parameters and ensure that the generator output conforms to this
+        // new distribution.
+        shapeGenerator.setValue(9d);
+        scaleGenerator.setValue(0.5d);
+        checkDistribution(generator, 4.5, 1.5);
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testShapeTooLow()
+    {
+        new GammaGenerator(0d, 1d, rng);
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testScaleTooLow()
+    {
+        new GammaGenerator(1d, 0d, rng);
+    }
+
+    private void checkDistribution(NumberGenerator<Double> generator,
+                                   double expectedMean,
+                                   double expectedStandardDeviation)
+    {
+        final int iterations = 100000;
+        DataSet data = new DataSet(iterations);
+        for (int i = 0; i < iterations; i++)
+        {
+            double value = generator.nextValue();
+            assert value > 0 : "Value must be positive: " + value;
+            data.addValue(value);
+        }
+        assert Maths.approxEquals(data.getArithmeticMean(), expectedMean, 0.02)
+                : "Observed mean outside acceptable range: " + data.getArithmeticMean();
+        assert Maths.approxEquals(data.getSampleStandardDeviation(), expectedStandardDeviation, 0.02)
+                : "Observed standard deviation outside acceptable range: " + data.getSampleStandardDeviation();
+    }
+}
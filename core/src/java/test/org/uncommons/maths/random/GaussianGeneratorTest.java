@@ -70,6 +70,66 @@ public class GaussianGeneratorTest
     }
 
 
+    @Test(groups = "non-deterministic")
+    public void testZigguratDistribution()
+    {
+        final double mean = 147;
+        final double standardDeviation = 17;
+        NumberGenerator<Double> generator = new GaussianGenerator(mean,
+                                                                  standardDeviation,
+                                                                  rng,
+                                                                  GaussianGenerator.Method.ZIGGURAT);
+        checkDistribution(generator, mean, standardDeviation);
+    }
+
+
+    /**
+     * Values more than 3.65 standard deviations from the mean come from a separate
+     * code path in the Ziggurat sampler, so make sure that the tails have roughly
+     * the right weight.  About 0.27% of values should lie beyond 3 standard deviations.
+     */
+    @Test(groups = "non-deterministic")
+    public void testZigguratTails()
+    {
+        NumberGenerator<Double> generator = new GaussianGenerator(0, 1, rng, GaussianGenerator.Method.ZIGGURAT);
+        final int iterations = 100000;
+        int beyondThree = 0;
+        int inTail = 0;
+        for (int i = 0; i < iterations; i++)
+        {
+            double value = Math.abs(generator.nextValue());
+            if (value > 3)
+            {
+                ++beyondThree;
+                if (value > 3.6541528853610088)
+                {
+                    ++inTail;
+                }
+            }
+        }
+        // Expected counts are 270 and 25.8 respectively.
+        assert beyondThree > 200 && beyondThree < 340 : "Wrong number of values beyond 3 SDs: " + beyondThree;
+        assert inTail > 8 && inTail < 50 : "Wrong number of values in the tail: " + inTail;
+    }
+
+
+    /**
+     * The primitive and boxed methods must produce the same sequence.
+     */
+    @Test
+    public void testPrimitiveValues()
+    {
+        MersenneTwisterRNG rng1 = new MersenneTwisterRNG();
+        MersenneTwisterRNG rng2 = new MersenneTwisterRNG(rng1.getSeed());
+        GaussianGenerator boxed = new GaussianGenerator(147, 17, rng1);
+        GaussianGenerator primitive = new GaussianGenerator(147, 17, rng2);
+        for (int i = 0; i < 100; i++)
+        {
+            assert boxed.nextValue() == primitive.nextDouble() : "Primitive value does not match boxed value.";
+        }
+    }
+
+
     private void checkDistribution(NumberGenerator<Double> generator,
                                    double expectedMean,
                                    double expectedStandardDeviation)
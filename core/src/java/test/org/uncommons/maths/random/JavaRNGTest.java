@@ -16,7 +16,9 @@
 package org.uncommons.maths.random;
 
 import java.security.GeneralSecurityException;
+import java.util.Random;
 import org.testng.annotations.Test;
+import org.uncommons.maths.binary.BinaryUtils;
 
 /**
  * Unit test for the JDK RNG.
@@ -39,6 +41,53 @@ public class JavaRNGTest
     }
 
 
+    /**
+     * JavaRNG must produce the same sequences as {@link Random} with the equivalent
+     * seed, including for bounded ints.
+     */
+    @Test
+    public void testCompatibility()
+    {
+        JavaRNG rng = new JavaRNG();
+        Random random = new Random(BinaryUtils.convertBytesToLong(rng.getSeed(), 0));
+        for (int i = 0; i < 1000; i++)
+        {
+            int bound = i + 1;
+            assert rng.nextInt(bound) == random.nextInt(bound) : "Bounded values do not match Random.";
+            assert rng.nextInt() == random.nextInt() : "Values do not match Random.";
+        }
+    }
+
+
+    /**
+     * Bulk generation must produce the same values as individual calls.
+     */
+    @Test
+    public void testBulkGeneration()
+    {
+        JavaRNG rng = new JavaRNG();
+        JavaRNG duplicateRNG = new JavaRNG(rng.getSeed());
+        int[] ints = new int[20];
+        long[] longs = new long[20];
+        double[] doubles = new double[20];
+        rng.nextInts(ints);
+        rng.nextLongs(longs);
+        rng.nextDoubles(doubles);
+        for (int value : ints)
+        {
+            assert value == duplicateRNG.nextInt() : "Bulk ints do not match individual values.";
+        }
+        for (long value : longs)
+        {
+            assert value == duplicateRNG.nextLong() : "Bulk longs do not match individual values.";
+        }
+        for (double value : doubles)
+        {
+            assert value == duplicateRNG.nextDouble() : "Bulk doubles do not match individual values.";
+        }
+    }
+
+
     /**
      * Make sure that the RNG does not accept seeds that are too small since
      * this could affect the distribution of the output.
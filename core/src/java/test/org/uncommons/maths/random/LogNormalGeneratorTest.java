@@ -0,0 +1,96 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.util.Random;
+import org.testng.annotations.Test;
+import org.uncommons.maths.Maths;
+import org.uncommons.maths.number.AdjustableNumberGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.statistics.DataSet;
+
+/**
+ * Unit test for the log-normal number generator.
+ * @author Daniel Dyer
+ */
+public class LogNormalGeneratorTest
+{
+    private final Random rng = new MersenneTwisterRNG();
+
+
+    /**
+     * Check that the observed mean and standard deviation are consistent
+     * with the specified distribution parameters.
+     */
+    @Test(groups = "non-deterministic")
+    public void testDistribution()
+    {
+        checkDistribution(new LogNormalGenerator(1.5, 0.25, rng), 1.5, 0.25);
+    }
+
+
+    @Test(groups = "non-deterministic")
+    public void testDynamicParameters()
+    {
+        AdjustableNumberGenerator<Double> muGenerator = new AdjustableNumberGenerator<Double>(1.5d);
+        AdjustableNumberGenerator<Double> sigmaGenerator = new AdjustableNumberGenerator<Double>(0.25d);
+        NumberGenerator<Double> generator = new LogNormalGenerator(muGenerator, sigmaGenerator, rng);
+        checkDistribution(generator, 1.5, 0.25);
+
+        // Adjust parameters and ensure that the generator output conforms to this
+        // new distribution.
+        muGenerator.setValue(-1d);
+        sigmaGenerator.setValue(0.1d);
+        checkDistribution(generator, -1, 0.1);
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testSigmaTooLow()
+    {
+        new LogNormalGenerator(0d, 0d, rng);
+    }
+
+
+    private void checkDistribution(NumberGenerator<Double> generator,
+                                   double mu,
+                                   double sigma)
+    {
+        double variance = sigma * sigma;
+        checkMoments(generator,
+                     Math.exp(mu + variance / 2),
+                     Math.sqrt((Math.exp(variance) - 1) * Math.exp(2 * mu + variance)));
+    }
+
+
+    private void checkMoments(NumberGenerator<Double> generator,
+                              double expectedMean,
+                              double expectedStandardDeviation)
+    {
+        final int iterations = 100000;
+        DataSet data = new DataSet(iterations);
+        for (int i = 0; i < iterations; i++)
+        {
+            double value = generator.nextValue();
+            assert value > 0 : "Value must be positive: " + value;
+            data.addValue(value);
+        }
+        assert Maths.approxEquals(data.getArithmeticMean(), expectedMean, 0.02)
+                : "Observed mean outside acceptable range: " + data.getArithmeticMean();
+        assert Maths.approxEquals(data.getSampleStandardDeviation(), expectedStandardDeviation, 0.02)
+                : "Observed standard deviation outside acceptable range: " + data.getSampleStandardDeviation();
+    }
+}
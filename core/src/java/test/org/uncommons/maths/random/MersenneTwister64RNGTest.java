@@ -0,0 +1,187 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import org.testng.Reporter;
+import org.testng.annotations.Test;
+import org.uncommons.maths.Maths;
+
+/**
+ * Unit test for the 64-bit Mersenne Twister RNG.
+ * @author Daniel Dyer
+ */
+public class MersenneTwister64RNGTest
+{
+    /**
+     * Check the output against the reference values published with the original
+     * C implementation (mt19937-64.c seeded with init_by_array64 {0x12345, 0x23456,
+     * 0x34567, 0x45678}).
+     */
+    @Test
+    public void testReferenceOutput()
+    {
+        byte[] seed = new byte[32];
+        long[] key = {0x12345L, 0x23456L, 0x34567L, 0x45678L};
+        for (int i = 0; i < key.length; i++)
+        {
+            for (int j = 0; j < 8; j++)
+            {
+                seed[i * 8 + j] = (byte) (key[i] >>> (56 - 8 * j));
+            }
+        }
+        MersenneTwister64RNG rng = new MersenneTwister64RNG(seed);
+        String[] expected = {"7266447313870364031",
+                             "4946485549665804864",
+                             "16945909448695747420",
+                             "16394063075524226720",
+                             "4873882236456199058"};
+        for (String value : expected)
+        {
+            long actual = rng.nextLong();
+            assert actual == new BigInteger(value).longValue() : "Unexpected output: " + actual;
+        }
+    }
+
+
+    /**
+     * Test to ensure that two distinct RNGs with the same seed return the
+     * same sequence of numbers.
+     */
+    @Test
+    public void testRepeatability()
+    {
+        MersenneTwister64RNG rng = new MersenneTwister64RNG();
+        // Create second RNG using same seed.
+        MersenneTwister64RNG duplicateRNG = new MersenneTwister64RNG(rng.getSeed());
+        assert RNGTestUtils.testEquivalence(rng, duplicateRNG, 1000) : "Generated sequences do not match.";
+    }
+
+
+    /**
+     * Bulk generation of longs and doubles must consume the native 64-bit output
+     * in the same way as individual calls.
+     */
+    @Test
+    public void testBulkLongsAndDoubles()
+    {
+        MersenneTwister64RNG rng = new MersenneTwister64RNG();
+        MersenneTwister64RNG duplicateRNG = new MersenneTwister64RNG(rng.getSeed());
+        long[] longs = new long[1000];
+        rng.nextLongs(longs);
+        for (long value : longs)
+        {
+            assert value == duplicateRNG.nextLong() : "Bulk longs do not match individual values.";
+        }
+        double[] doubles = new double[1000];
+        rng.nextDoubles(doubles);
+        for (double value : doubles)
+        {
+            assert value == duplicateRNG.nextDouble() : "Bulk doubles do not match individual values.";
+            assert value >= 0 && value < 1 : "Double out of range: " + value;
+        }
+    }
+
+
+    @Test
+    public void testCheckpoint()
+    {
+        MersenneTwister64RNG rng = new MersenneTwister64RNG();
+        assert RNGTestUtils.testCheckpoint(rng, new MersenneTwister64RNG()) : "Output mismatch after restoring state.";
+    }
+
+
+    /**
+     * Test to ensure that the output from the RNG is broadly as expected.  This will not
+     * detect the subtle statistical anomalies that would be picked up by Diehard, but it
+     * provides a simple check for major problems with the output.
+     */
+    @Test(groups = "non-deterministic",
+          dependsOnMethods = "testRepeatability")
+    public void testDistribution() throws SeedException
+    {
+        MersenneTwister64RNG rng = new MersenneTwister64RNG(DefaultSeedGenerator.getInstance());
+        double pi = RNGTestUtils.calculateMonteCarloValueForPi(rng, 100000);
+        Reporter.log("Monte Carlo value for Pi: " + pi);
+        assert Maths.approxEquals(pi, Math.PI, 0.01) : "Monte Carlo value for Pi is outside acceptable range: " + pi;
+    }
+
+
+    /**
+     * Test to ensure that the output from the RNG is broadly as expected.  This will not
+     * detect the subtle statistical anomalies that would be picked up by Diehard, but it
+     * provides a simple check for major problems with the output.
+     */
+    @Test(groups = "non-deterministic",
+          dependsOnMethods = "testRepeatability")
+    public void testStandardDeviation()
+    {
+        MersenneTwister64RNG rng = new MersenneTwister64RNG();
+        // Expected standard deviation for a uniformly distributed population of values in the range 0..n
+        // approaches n/sqrt(12).
+        int n = 100;
+        double observedSD = RNGTestUtils.calculateSampleStandardDeviation(rng, n, 10000);
+        double expectedSD = 100 / Math.sqrt(12);
+        Reporter.log("Expected SD: " + expectedSD + ", observed SD: " + observedSD);
+        assert Maths.approxEquals(observedSD, expectedSD, 0.02) : "Standard deviation is outside acceptable range: " + observedSD;
+    }
+
+
+    /**
+     * Make sure that the RNG does not accept seeds that are too small since
+     * this could affect the distribution of the output.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidSeedSize()
+    {
+        new MersenneTwister64RNG(new byte[16]); // Need 32 bytes, should cause an IllegalArgumentException.
+    }
+
+
+    /**
+     * RNG must not accept a null seed otherwise it will not be properly initialised.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNullSeed() throws GeneralSecurityException
+    {
+        new MersenneTwister64RNG((byte[]) null);
+    }
+
+
+    @Test
+    public void testSerializable() throws IOException, ClassNotFoundException
+    {
+        // Serialise an RNG.
+        MersenneTwister64RNG rng = new MersenneTwister64RNG();
+        ByteArrayOutputStream byteOutStream = new ByteArrayOutputStream();
+        ObjectOutputStream objectOutStream = new ObjectOutputStream(byteOutStream);
+        objectOutStream.writeObject(rng);
+
+        // Read the RNG back-in.
+        ObjectInputStream objectInStream = new ObjectInputStream(new ByteArrayInputStream(byteOutStream.toByteArray()));
+        MersenneTwister64RNG rng2 = (MersenneTwister64RNG) objectInStream.readObject();
+        assert rng != rng2 : "Deserialised RNG should be distinct object.";
+
+        // Both RNGs should generate the same sequence.
+        assert RNGTestUtils.testEquivalence(rng, rng2, 20) : "Output mismatch after serialisation.";
+    }
+}
@@ -45,6 +45,95 @@ public class MersenneTwisterRNGTest
     }
 
 
+    /**
+     * The Mersenne Twister generates its output in blocks of 624 values and has its
+     * own implementation of bulk generation.  Make sure that it produces the same
+     * values as individual calls, including when a range spans several blocks.
+     */
+    @Test
+    public void testBulkIntsSpanningBlocks()
+    {
+        MersenneTwisterRNG rng = new MersenneTwisterRNG();
+        MersenneTwisterRNG duplicateRNG = new MersenneTwisterRNG(rng.getSeed());
+        int[] values = new int[2000];
+        rng.nextInts(values, 0, 7);
+        rng.nextInts(values, 7, 1500);
+        rng.nextInts(values, 1500, 2000);
+        for (int value : values)
+        {
+            assert value == duplicateRNG.nextInt() : "Bulk values do not match individual values.";
+        }
+    }
+
+
+    /**
+     * Jumping ahead must give the same result as generating and discarding the
+     * same number of values, wherever the RNG is within its current block of output.
+     */
+    @Test
+    public void testJump()
+    {
+        MersenneTwisterRNG rng = new MersenneTwisterRNG();
+        MersenneTwisterRNG duplicateRNG = new MersenneTwisterRNG(rng.getSeed());
+        for (int power = 0; power <= 20; power += 4)
+        {
+            rng.jump(power);
+            for (int i = 0; i < 1 << power; i++)
+            {
+                duplicateRNG.nextInt();
+            }
+            assert RNGTestUtils.testEquivalence(rng, duplicateRNG, 100) : "Mismatch after jump of 2^" + power;
+        }
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNegativeJump()
+    {
+        new MersenneTwisterRNG().jump(-1);
+    }
+
+
+    /**
+     * A split-off RNG continues from the parent's position and the parent jumps ahead.
+     */
+    @Test
+    public void testSplit()
+    {
+        MersenneTwisterRNG rng = new MersenneTwisterRNG();
+        MersenneTwisterRNG duplicateRNG = new MersenneTwisterRNG(rng.getSeed());
+        rng.nextInt();
+        duplicateRNG.nextInt();
+
+        MersenneTwisterRNG child = rng.split();
+        assert RNGTestUtils.testEquivalence(child, duplicateRNG, 1000) : "Child should continue parent's stream.";
+
+        MersenneTwisterRNG expectedParent = new MersenneTwisterRNG(rng.getSeed());
+        expectedParent.nextInt();
+        expectedParent.jump(64);
+        assert RNGTestUtils.testEquivalence(rng, expectedParent, 1000) : "Parent should have jumped ahead.";
+    }
+
+
+    @Test
+    public void testSplitNotThreadSafe()
+    {
+        MersenneTwisterRNG rng = new MersenneTwisterRNG(DefaultSeedGenerator.getInstance().generateSeed(16), false);
+        MersenneTwisterRNG duplicateRNG = new MersenneTwisterRNG(rng.getSeed());
+        MersenneTwisterRNG child = rng.split();
+        assert !child.isThreadSafe() : "Child should not be thread-safe if the parent is not.";
+        assert RNGTestUtils.testEquivalence(child, duplicateRNG, 1000) : "Child should continue parent's stream.";
+    }
+
+
+    @Test
+    public void testCheckpoint()
+    {
+        MersenneTwisterRNG rng = new MersenneTwisterRNG();
+        assert RNGTestUtils.testCheckpoint(rng, new MersenneTwisterRNG()) : "Output mismatch after restoring state.";
+    }
+
+
     /**
      * Test to ensure that the output from the RNG is broadly as expected.  This will not
      * detect the subtle statistical anomalies that would be picked up by Diehard, but it
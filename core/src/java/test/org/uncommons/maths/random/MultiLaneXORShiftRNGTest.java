@@ -0,0 +1,190 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import org.testng.Reporter;
+import org.testng.annotations.Test;
+import org.uncommons.maths.Maths;
+
+/**
+ * Unit test for the multi-lane XOR shift RNG.
+ * @author Daniel Dyer
+ */
+public class MultiLaneXORShiftRNGTest
+{
+    /**
+     * Each lane should produce the same sequence as a {@link XORShiftRNG} seeded with
+     * the next five values from a {@link SplitMix64RNG}, and the lanes should be
+     * interleaved in order.
+     */
+    @Test
+    public void testLanes()
+    {
+        MultiLaneXORShiftRNG rng = new MultiLaneXORShiftRNG();
+        SplitMix64RNG expander = new SplitMix64RNG(rng.getSeed());
+        XORShiftRNG[] lanes = new XORShiftRNG[MultiLaneXORShiftRNG.LANES];
+        for (int i = 0; i < lanes.length; i++)
+        {
+            ByteBuffer laneSeed = ByteBuffer.allocate(20);
+            for (int j = 0; j < 5; j++)
+            {
+                laneSeed.putInt(expander.nextInt());
+            }
+            lanes[i] = new XORShiftRNG(laneSeed.array());
+        }
+        for (int step = 0; step < 10; step++)
+        {
+            for (XORShiftRNG lane : lanes)
+            {
+                assert rng.nextInt() == lane.nextInt() : "Lane output mismatch at step " + step;
+            }
+        }
+    }
+
+
+    /**
+     * Values generated in bulk must be the same as values generated one at a time,
+     * including when a bulk request starts or ends part of the way through a state update.
+     */
+    @Test
+    public void testBulkEquivalence()
+    {
+        MultiLaneXORShiftRNG rng = new MultiLaneXORShiftRNG();
+        MultiLaneXORShiftRNG duplicateRNG = new MultiLaneXORShiftRNG(rng.getSeed());
+        rng.nextInt();
+        duplicateRNG.nextInt();
+
+        int[] ints = new int[1000];
+        rng.nextInts(ints, 3, 997);
+        for (int i = 3; i < 997; i++)
+        {
+            assert ints[i] == duplicateRNG.nextInt() : "Bulk int mismatch at index " + i;
+        }
+
+        double[] doubles = new double[700];
+        rng.nextDoubles(doubles, 1, 699);
+        for (int i = 1; i < 699; i++)
+        {
+            assert doubles[i] == duplicateRNG.nextDouble() : "Bulk double mismatch at index " + i;
+        }
+        assert rng.nextLong() == duplicateRNG.nextLong() : "RNGs out of step after bulk generation.";
+    }
+
+
+    /**
+     * Test to ensure that two distinct RNGs with the same seed return the
+     * same sequence of numbers.
+     */
+    @Test
+    public void testRepeatability()
+    {
+        MultiLaneXORShiftRNG rng = new MultiLaneXORShiftRNG();
+        // Create second RNG using same seed.
+        MultiLaneXORShiftRNG duplicateRNG = new MultiLaneXORShiftRNG(rng.getSeed());
+        assert RNGTestUtils.testEquivalence(rng, duplicateRNG, 1000) : "Generated sequences do not match.";
+    }
+
+
+    @Test
+    public void testCheckpoint()
+    {
+        MultiLaneXORShiftRNG rng = new MultiLaneXORShiftRNG();
+        assert RNGTestUtils.testCheckpoint(rng, new MultiLaneXORShiftRNG()) : "Output mismatch after restoring state.";
+    }
+
+
+    /**
+     * Test to ensure that the output from the RNG is broadly as expected.  This will not
+     * detect the subtle statistical anomalies that would be picked up by Diehard, but it
+     * provides a simple check for major problems with the output.
+     */
+    @Test(groups = "non-deterministic",
+          dependsOnMethods = "testRepeatability")
+    public void testDistribution() throws SeedException
+    {
+        MultiLaneXORShiftRNG rng = new MultiLaneXORShiftRNG(DefaultSeedGenerator.getInstance());
+        double pi = RNGTestUtils.calculateMonteCarloValueForPi(rng, 100000);
+        Reporter.log("Monte Carlo value for Pi: " + pi);
+        assert Maths.approxEquals(pi, Math.PI, 0.01) : "Monte Carlo value for Pi is outside acceptable range: " + pi;
+    }
+
+
+    /**
+     * Test to ensure that the output from the RNG is broadly as expected.  This will not
+     * detect the subtle statistical anomalies that would be picked up by Diehard, but it
+     * provides a simple check for major problems with the output.
+     */
+    @Test(groups = "non-deterministic",
+          dependsOnMethods = "testRepeatability")
+    public void testStandardDeviation()
+    {
+        MultiLaneXORShiftRNG rng = new MultiLaneXORShiftRNG();
+        // Expected standard deviation for a uniformly distributed population of values in the range 0..n
+        // approaches n/sqrt(12).
+        int n = 100;
+        double observedSD = RNGTestUtils.calculateSampleStandardDeviation(rng, n, 10000);
+        double expectedSD = 100 / Math.sqrt(12);
+        Reporter.log("Expected SD: " + expectedSD + ", observed SD: " + observedSD);
+        assert Maths.approxEquals(observedSD, expectedSD, 0.02) : "Standard deviation is outside acceptable range: " + observedSD;
+    }
+
+
+    /**
+     * Make sure that the RNG does not accept seeds that are too small since
+     * this could affect the distribution of the output.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidSeedSize()
+    {
+        new MultiLaneXORShiftRNG(new byte[4]); // Need 8 bytes, should cause an IllegalArgumentException.
+    }
+
+
+    /**
+     * RNG must not accept a null seed otherwise it will not be properly initialised.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNullSeed()
+    {
+        new MultiLaneXORShiftRNG((byte[]) null);
+    }
+
+
+    @Test
+    public void testSerializable() throws IOException, ClassNotFoundException
+    {
+        // Serialise an RNG.
+        MultiLaneXORShiftRNG rng = new MultiLaneXORShiftRNG();
+        rng.nextInt(); // Serialise part of the way through a state update.
+        ByteArrayOutputStream byteOutStream = new ByteArrayOutputStream();
+        ObjectOutputStream objectOutStream = new ObjectOutputStream(byteOutStream);
+        objectOutStream.writeObject(rng);
+
+        // Read the RNG back-in.
+        ObjectInputStream objectInStream = new ObjectInputStream(new ByteArrayInputStream(byteOutStream.toByteArray()));
+        MultiLaneXORShiftRNG rng2 = (MultiLaneXORShiftRNG) objectInStream.readObject();
+        assert rng != rng2 : "Deserialised RNG should be distinct object.";
+
+        // Both RNGs should generate the same sequence.
+        assert RNGTestUtils.testEquivalence(rng, rng2, 20) : "Output mismatch after serialisation.";
+    }
+}
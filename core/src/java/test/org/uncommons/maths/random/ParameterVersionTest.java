@@ -0,0 +1,63 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import org.testng.annotations.Test;
+import org.uncommons.maths.number.AdjustableNumberGenerator;
+import org.uncommons.maths.number.ConstantGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+
+/**
+ * Unit test for combining the versions of distribution parameters.
+ * @author Daniel Dyer
+ */
+public class ParameterVersionTest
+{
+    @Test
+    public void testVersionedParameters()
+    {
+        AdjustableNumberGenerator<Double> first = new AdjustableNumberGenerator<Double>(1d);
+        AdjustableNumberGenerator<Integer> second = new AdjustableNumberGenerator<Integer>(1);
+        ParameterVersion version = new ParameterVersion(first, second, new ConstantGenerator<Double>(2d));
+        long initial = version.current();
+        assert initial != ParameterVersion.UNVERSIONED : "Parameters should be versioned.";
+        assert version.current() == initial : "Version should not change unless parameters change.";
+        first.setValue(2d);
+        long afterFirst = version.current();
+        assert afterFirst != initial : "Version should change when parameter changes.";
+        second.setValue(2);
+        assert version.current() != afterFirst : "Version should change when parameter changes.";
+    }
+
+
+    /**
+     * If any of the parameters is not versioned, the combination must not be
+     * versioned.
+     */
+    @Test
+    public void testUnversionedParameter()
+    {
+        NumberGenerator<Double> unversioned = new NumberGenerator<Double>()
+        {
+            public Double nextValue()
+            {
+                return 1d;
+            }
+        };
+        ParameterVersion version = new ParameterVersion(new ConstantGenerator<Double>(2d), unversioned);
+        assert version.current() == ParameterVersion.UNVERSIONED : "Parameters should not be versioned.";
+    }
+}
@@ -0,0 +1,191 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import org.testng.Reporter;
+import org.testng.annotations.Test;
+import org.uncommons.maths.Maths;
+
+/**
+ * Unit test for the Philox counter-based RNG.
+ * @author Daniel Dyer
+ */
+public class PhiloxRNGTest
+{
+    /**
+     * Check the Philox function against the all-zero known-answer test vector from the
+     * reference implementation (Random123).
+     */
+    @Test
+    public void testKnownAnswer()
+    {
+        int[] output = new int[4];
+        PhiloxRNG.philox(0, 0, 0, output);
+        assert output[0] == 0x6627e8d5 : "Wrong output: " + Integer.toHexString(output[0]);
+        assert output[1] == 0xe169c58d : "Wrong output: " + Integer.toHexString(output[1]);
+        assert output[2] == 0xbc57ac4c : "Wrong output: " + Integer.toHexString(output[2]);
+        assert output[3] == 0x9b00dbd8 : "Wrong output: " + Integer.toHexString(output[3]);
+
+        // The RNG's first block is generated from a counter of zero.
+        PhiloxRNG rng = new PhiloxRNG(new byte[8]);
+        for (int value : output)
+        {
+            assert rng.nextInt() == value : "RNG output does not match Philox function.";
+        }
+    }
+
+
+    /**
+     * Check the Philox function with a non-zero key and counter.  This is the pi-digits
+     * vector from the reference implementation, but with the upper 64 bits of the counter
+     * set to zero since this RNG only uses the lower 64 bits.  The expected output was
+     * generated from the reference algorithm.
+     */
+    @Test
+    public void testKnownAnswerNonZero()
+    {
+        int[] output = new int[4];
+        PhiloxRNG.philox(0x85a308d3243f6a88L, 0xa4093822, 0x299f31d0, output);
+        assert output[0] == 0xe69c9c31 : "Wrong output: " + Integer.toHexString(output[0]);
+        assert output[1] == 0xb5a3d762 : "Wrong output: " + Integer.toHexString(output[1]);
+        assert output[2] == 0xe733bfc1 : "Wrong output: " + Integer.toHexString(output[2]);
+        assert output[3] == 0x341a787c : "Wrong output: " + Integer.toHexString(output[3]);
+    }
+
+
+    /**
+     * Test to ensure that two distinct RNGs with the same seed return the
+     * same sequence of numbers.
+     */
+    @Test
+    public void testRepeatability()
+    {
+        PhiloxRNG rng = new PhiloxRNG();
+        // Create second RNG using same seed.
+        PhiloxRNG duplicateRNG = new PhiloxRNG(rng.getSeed());
+        assert RNGTestUtils.testEquivalence(rng, duplicateRNG, 1000) : "Generated sequences do not match.";
+    }
+
+
+    @Test
+    public void testSeek()
+    {
+        PhiloxRNG rng = new PhiloxRNG();
+        assert rng.getPosition() == 0 : "Initial position should be zero.";
+        assert RNGTestUtils.testSeek(rng, new PhiloxRNG(rng.getSeed())) : "Output mismatch after seek.";
+
+        rng.seek(Long.MAX_VALUE - 1);
+        assert rng.getPosition() == Long.MAX_VALUE - 1 : "Wrong position after seek.";
+        rng.nextInt();
+        assert rng.getPosition() == Long.MAX_VALUE : "Wrong position after seek.";
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNegativeSeek()
+    {
+        new PhiloxRNG().seek(-1);
+    }
+
+
+    @Test
+    public void testCheckpoint()
+    {
+        PhiloxRNG rng = new PhiloxRNG();
+        assert RNGTestUtils.testCheckpoint(rng, new PhiloxRNG()) : "Output mismatch after restoring state.";
+    }
+
+
+    /**
+     * Test to ensure that the output from the RNG is broadly as expected.  This will not
+     * detect the subtle statistical anomalies that would be picked up by Diehard, but it
+     * provides a simple check for major problems with the output.
+     */
+    @Test(groups = "non-deterministic",
+          dependsOnMethods = "testRepeatability")
+    public void testDistribution() throws SeedException
+    {
+        PhiloxRNG rng = new PhiloxRNG(DefaultSeedGenerator.getInstance());
+        double pi = RNGTestUtils.calculateMonteCarloValueForPi(rng, 100000);
+        Reporter.log("Monte Carlo value for Pi: " + pi);
+        assert Maths.approxEquals(pi, Math.PI, 0.01) : "Monte Carlo value for Pi is outside acceptable range: " + pi;
+    }
+
+
+    /**
+     * Test to ensure that the output from the RNG is broadly as expected.  This will not
+     * detect the subtle statistical anomalies that would be picked up by Diehard, but it
+     * provides a simple check for major problems with the output.
+     */
+    @Test(groups = "non-deterministic",
+          dependsOnMethods = "testRepeatability")
+    public void testStandardDeviation()
+    {
+        PhiloxRNG rng = new PhiloxRNG();
+        // Expected standard deviation for a uniformly distributed population of values in the range 0..n
+        // approaches n/sqrt(12).
+        int n = 100;
+        double observedSD = RNGTestUtils.calculateSampleStandardDeviation(rng, n, 10000);
+        double expectedSD = 100 / Math.sqrt(12);
+        Reporter.log("Expected SD: " + expectedSD + ", observed SD: " + observedSD);
+        assert Maths.approxEquals(observedSD, expectedSD, 0.02) : "Standard deviation is outside acceptable range: " + observedSD;
+    }
+
+
+    /**
+     * Make sure that the RNG does not accept seeds that are too small since
+     * this could affect the distribution of the output.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidSeedSize()
+    {
+        new PhiloxRNG(new byte[]{1, 2, 3, 4}); // Need 8 bytes, should cause an IllegalArgumentException.
+    }
+
+
+    /**
+     * RNG must not accept a null seed otherwise it will not be properly initialised.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNullSeed()
+    {
+        new PhiloxRNG((byte[]) null);
+    }
+
+
+    @Test
+    public void testSerializable() throws IOException, ClassNotFoundException
+    {
+        // Serialise an RNG.
+        PhiloxRNG rng = new PhiloxRNG();
+        ByteArrayOutputStream byteOutStream = new ByteArrayOutputStream();
+        ObjectOutputStream objectOutStream = new ObjectOutputStream(byteOutStream);
+        objectOutStream.writeObject(rng);
+
+        // Read the RNG back-in.
+        ObjectInputStream objectInStream = new ObjectInputStream(new ByteArrayInputStream(byteOutStream.toByteArray()));
+        PhiloxRNG rng2 = (PhiloxRNG) objectInStream.readObject();
+        assert rng != rng2 : "Deserialised RNG should be distinct object.";
+
+        // Both RNGs should generate the same sequence.
+        assert RNGTestUtils.testEquivalence(rng, rng2, 20) : "Output mismatch after serialisation.";
+    }
+}
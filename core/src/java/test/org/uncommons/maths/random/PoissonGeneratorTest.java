@@ -44,6 +44,32 @@ public class PoissonGeneratorTest
     }
 
 
+    /**
+     * Large means use a different algorithm (PTRS), so check that it also
+     * produces values with the right mean and standard deviation.
+     */
+    @Test(groups = "non-deterministic")
+    public void testLargeMeanDistribution()
+    {
+        final double mean = 10000;
+        NumberGenerator<Integer> generator = new PoissonGenerator(mean, rng);
+        checkDistribution(generator, mean);
+    }
+
+
+    /**
+     * Check a mean just above the threshold at which the algorithm switches,
+     * where the rejection method is at its least accurate.
+     */
+    @Test(groups = "non-deterministic")
+    public void testThresholdMeanDistribution()
+    {
+        final double mean = 10;
+        NumberGenerator<Integer> generator = new PoissonGenerator(mean, rng);
+        checkDistribution(generator, mean);
+    }
+
+
     @Test(groups = "non-deterministic")
     public void testDynamicParameters()
     {
@@ -15,6 +15,7 @@
 // ============================================================================
 package org.uncommons.maths.random;
 
+import java.util.Arrays;
 import java.util.Random;
 import org.uncommons.maths.statistics.DataSet;
 
@@ -54,6 +55,167 @@ final class RNGTestUtils
     }
 
 
+    /**
+     * Test that a seekable RNG produces the same values after seeking to a position
+     * as another RNG (with the same seed) produces after generating that many values.
+     * Positions within and at the boundaries of blocks are all checked.
+     * @param rng The RNG that will seek.
+     * @param duplicateRNG An RNG with the same seed that has not yet been used.
+     * @return true if the output after each seek matches, false otherwise.
+     */
+    public static <T extends Random & SeekableRNG> boolean testSeek(T rng, T duplicateRNG)
+    {
+        int[] expected = new int[100];
+        for (int i = 0; i < expected.length; i++)
+        {
+            if (duplicateRNG.getPosition() != i)
+            {
+                return false;
+            }
+            expected[i] = duplicateRNG.nextInt();
+        }
+        // Seek backwards as well as forwards.
+        for (int position = expected.length - 10; position >= 0; position -= 3)
+        {
+            rng.seek(position);
+            for (int i = position; i < position + 10; i++)
+            {
+                if (rng.getPosition() != i || rng.nextInt() != expected[i])
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Test that an RNG's saved state can be restored, both into the same RNG and into
+     * another RNG of the same type, and that restored RNGs continue exactly where the
+     * original left off.  The state is saved while a Gaussian value is cached.
+     * @param rng The RNG to checkpoint.
+     * @param other Another RNG of the same type, with a different seed.
+     * @return true if the output after restoring the state matches, false otherwise.
+     */
+    public static <T extends Random & RepeatableRNG & CheckpointableRNG> boolean testCheckpoint(T rng,
+                                                                                             T other)
+    {
+        rng.nextGaussian(); // Leaves the second value of the pair cached.
+        for (int i = 0; i < 1001; i++)
+        {
+            rng.nextInt();
+        }
+        byte[] state = rng.getState();
+        double expectedGaussian = rng.nextGaussian();
+        int[] expected = new int[1000];
+        for (int i = 0; i < expected.length; i++)
+        {
+            expected[i] = rng.nextInt();
+        }
+
+        other.setState(state);
+        rng.setState(state);
+        if (!Arrays.equals(rng.getSeed(), other.getSeed())
+            || other.nextGaussian() != expectedGaussian
+            || rng.nextGaussian() != expectedGaussian)
+        {
+            return false;
+        }
+        for (int value : expected)
+        {
+            if (other.nextInt() != value || rng.nextInt() != value)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Calculates the state of an F<sub>2</sub>-linear RNG after 2<sup>power</sup> steps by
+     * repeatedly squaring the matrix of its transition function.  This provides an
+     * independent check of RNGs' jump functions.
+     * @param state The initial state.
+     * @param power The base 2 logarithm of the number of steps.
+     * @param transition A single step of the RNG.
+     * @return The state after 2<sup>power</sup> steps.
+     */
+    public static long[] jumpLinear(long[] state, int power, LinearTransition transition)
+    {
+        int bits = state.length * 64;
+        // Column i of the matrix is the image of the state with only bit i set.
+        long[][] matrix = new long[bits][];
+        for (int i = 0; i < bits; i++)
+        {
+            matrix[i] = new long[state.length];
+            matrix[i][i >> 6] = 1L << i;
+            transition.step(matrix[i]);
+        }
+        for (int p = 0; p < power; p++)
+        {
+            long[][] squared = new long[bits][];
+            for (int i = 0; i < bits; i++)
+            {
+                squared[i] = multiply(matrix, matrix[i]);
+            }
+            matrix = squared;
+        }
+        return multiply(matrix, state);
+    }
+
+
+    private static long[] multiply(long[][] matrix, long[] vector)
+    {
+        long[] result = new long[vector.length];
+        for (int i = 0; i < matrix.length; i++)
+        {
+            if ((vector[i >> 6] & (1L << i)) != 0)
+            {
+                for (int j = 0; j < result.length; j++)
+                {
+                    result[j] ^= matrix[i][j];
+                }
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Converts an array of longs into a big-endian seed.
+     * @param values The values to convert.
+     * @return An array of 8 bytes per value.
+     */
+    public static byte[] toSeed(long... values)
+    {
+        byte[] seed = new byte[values.length * 8];
+        for (int i = 0; i < values.length; i++)
+        {
+            for (int j = 0; j < 8; j++)
+            {
+                seed[i * 8 + j] = (byte) (values[i] >>> (56 - 8 * j));
+            }
+        }
+        return seed;
+    }
+
+
+    /**
+     * The state transition function of an RNG, for use with
+     * {@link RNGTestUtils#jumpLinear(long[], int, LinearTransition)}.
+     */
+    public interface LinearTransition
+    {
+        /**
+         * Advances the state by one step.
+         * @param state The state, which is modified in place.
+         */
+        void step(long[] state);
+    }
+
+
     /**
      * This is a rudimentary check to ensure that the output of a given RNG
      * is approximately uniformly distributed.  If the RNG output is not
@@ -15,15 +15,43 @@
 // ============================================================================
 package org.uncommons.maths.random;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.Test;
 
 /**
  * Unit test for the seed generator that connects to random.org to get seed
- * data.
+ * data.  Most of the tests use a local server in place of random.org, so that
+ * they are not affected by network problems.
  * @author Daniel Dyer
  */
 public class RandomDotOrgSeedGeneratorTest
 {
+    private StubServer server;
+
+
+    @AfterMethod
+    public void stopServer() throws IOException
+    {
+        if (server != null)
+        {
+            server.close();
+            server = null;
+        }
+    }
+
+
     @Test
     public void testGenerator() throws SeedException
     {
@@ -45,4 +73,190 @@ public class RandomDotOrgSeedGeneratorTest
         byte[] seed = generator.generateSeed(2560);
         assert seed.length == 2560 : "Failed to generate seed of correct length";        
     }
+
+
+    /**
+     * Bytes must be used in the order in which they are received, and must not
+     * be used more than once.
+     */
+    @Test
+    public void testLocalServer() throws Exception
+    {
+        server = new StubServer(StubServer.Mode.NORMAL);
+        RandomDotOrgSeedGenerator generator = server.createGenerator(1000);
+        for (int i = 0; i < 10; i++)
+        {
+            checkSequence(generator.generateSeed(100), i * 100);
+        }
+        assert server.requests.get() <= 2 : "Data should be cached: " + server.requests.get() + " requests.";
+    }
+
+
+    /**
+     * Requests for more bytes than random.org will serve at once must be split up.
+     */
+    @Test
+    public void testLocalLargeRequest() throws Exception
+    {
+        server = new StubServer(StubServer.Mode.NORMAL);
+        RandomDotOrgSeedGenerator generator = server.createGenerator(1000);
+        checkSequence(generator.generateSeed(40000), 0);
+        assert server.maxRequestSize.get() <= 16384 : "Request too large: " + server.maxRequestSize.get();
+    }
+
+
+    @Test
+    public void testAsync() throws Exception
+    {
+        server = new StubServer(StubServer.Mode.NORMAL);
+        Future<byte[]> seed = server.createGenerator(1000).generateSeedAsync(32);
+        checkSequence(seed.get(5, TimeUnit.SECONDS), 0);
+    }
+
+
+    /**
+     * A server that accepts the connection but never responds must not make the
+     * caller wait indefinitely.
+     */
+    @Test
+    public void testTimeout() throws Exception
+    {
+        server = new StubServer(StubServer.Mode.SILENT);
+        RandomDotOrgSeedGenerator generator = server.createGenerator(200);
+        long start = System.nanoTime();
+        try
+        {
+            generator.generateSeed(16);
+            assert false : "Expected SeedException.";
+        }
+        catch (SeedException ex)
+        {
+            long elapsedMillis = (System.nanoTime() - start) / 1000000;
+            assert elapsedMillis < 5000 : "Timeout took too long: " + elapsedMillis + "ms";
+        }
+    }
+
+
+    @Test
+    public void testInsufficientData() throws Exception
+    {
+        server = new StubServer(StubServer.Mode.SHORT);
+        try
+        {
+            server.createGenerator(1000).generateSeedAsync(16).get(5, TimeUnit.SECONDS);
+            assert false : "Expected SeedException.";
+        }
+        catch (ExecutionException ex)
+        {
+            assert ex.getCause() instanceof SeedException : "Wrong exception: " + ex.getCause();
+        }
+    }
+
+
+    private static void checkSequence(byte[] seed, int start)
+    {
+        for (int i = 0; i < seed.length; i++)
+        {
+            assert seed[i] == (byte) (start + i) : "Wrong data at index " + i;
+        }
+    }
+
+
+    /**
+     * Minimal HTTP server that imitates random.org's binary interface.  The bytes
+     * served form a sequence (0, 1, 2, ...) that continues across requests, so that
+     * tests can check which data was used.
+     */
+    private static final class StubServer implements Runnable
+    {
+        private static final Pattern REQUEST = Pattern.compile("GET /cgi-bin/randbyte\\?nbytes=(\\d+)&format=f .*");
+
+        enum Mode {NORMAL, SILENT, SHORT}
+
+        private final Mode mode;
+        private final ServerSocket socket;
+        private final AtomicInteger requests = new AtomicInteger(0);
+        private final AtomicInteger maxRequestSize = new AtomicInteger(0);
+        private int next = 0;
+
+        StubServer(Mode mode) throws IOException
+        {
+            this.mode = mode;
+            this.socket = new ServerSocket(0);
+            Thread thread = new Thread(this, "StubServer");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+
+        RandomDotOrgSeedGenerator createGenerator(int timeout)
+        {
+            return new RandomDotOrgSeedGenerator("http://localhost:" + socket.getLocalPort(), timeout, timeout);
+        }
+
+
+        public void run()
+        {
+            try
+            {
+                while (true)
+                {
+                    Socket connection = socket.accept();
+                    try
+                    {
+                        respond(connection);
+                    }
+                    finally
+                    {
+                        // Leave silent connections open so that the client has to time out.
+                        if (mode != Mode.SILENT)
+                        {
+                            connection.close();
+                        }
+                    }
+                }
+            }
+            catch (IOException ex)
+            {
+                // Server has been closed.
+            }
+        }
+
+
+        private void respond(Socket connection) throws IOException
+        {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), "US-ASCII"));
+            String requestLine = reader.readLine();
+            Matcher matcher = REQUEST.matcher(requestLine == null ? "" : requestLine);
+            if (mode == Mode.SILENT || !matcher.matches())
+            {
+                return;
+            }
+            for (String line = reader.readLine(); line != null && line.length() > 0; line = reader.readLine())
+            {
+                // Skip headers.
+            }
+            int numberOfBytes = Integer.parseInt(matcher.group(1));
+            requests.incrementAndGet();
+            if (numberOfBytes > maxRequestSize.get())
+            {
+                maxRequestSize.set(numberOfBytes);
+            }
+            byte[] body = new byte[mode == Mode.SHORT ? numberOfBytes / 2 : numberOfBytes];
+            for (int i = 0; i < body.length; i++)
+            {
+                body[i] = (byte) next++;
+            }
+            OutputStream output = connection.getOutputStream();
+            output.write(("HTTP/1.0 200 OK\r\nContent-Type: application/octet-stream\r\n\r\n").getBytes("US-ASCII"));
+            output.write(body);
+            output.flush();
+        }
+
+
+        void close() throws IOException
+        {
+            socket.close();
+        }
+    }
 }
@@ -0,0 +1,166 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import org.testng.Reporter;
+import org.testng.annotations.Test;
+import org.uncommons.maths.Maths;
+
+/**
+ * Unit test for the SplitMix64 RNG.
+ * @author Daniel Dyer
+ */
+public class SplitMix64RNGTest
+{
+    /**
+     * Check the output against the reference implementation, seeded with zero.
+     */
+    @Test
+    public void testReferenceOutput()
+    {
+        SplitMix64RNG rng = new SplitMix64RNG(new byte[8]);
+        assert rng.nextLong() == 0xE220A8397B1DCDAFL : "Unexpected output.";
+        assert rng.nextLong() == 0x6E789E6AA1B965F4L : "Unexpected output.";
+        assert rng.nextLong() == 0x06C45D188009454FL : "Unexpected output.";
+        assert rng.nextLong() == 0xF88BB8A8724C81ECL : "Unexpected output.";
+    }
+
+
+    /**
+     * Advancing must give the same result as generating and discarding the same number
+     * of values, and a negative distance must move the RNG backwards.
+     */
+    @Test
+    public void testAdvance()
+    {
+        SplitMix64RNG rng = new SplitMix64RNG();
+        SplitMix64RNG duplicateRNG = new SplitMix64RNG(rng.getSeed());
+        for (int i = 0; i < 1000; i++)
+        {
+            duplicateRNG.nextLong();
+        }
+        rng.advance(1000);
+        assert RNGTestUtils.testEquivalence(rng, duplicateRNG, 100) : "Mismatch after advancing.";
+
+        SplitMix64RNG expectedRNG = new SplitMix64RNG(rng.getSeed());
+        rng.advance(-1100);
+        assert RNGTestUtils.testEquivalence(rng, expectedRNG, 100) : "Mismatch after moving backwards.";
+    }
+
+
+
+    /**
+     * Test to ensure that two distinct RNGs with the same seed return the
+     * same sequence of numbers.
+     */
+    @Test
+    public void testRepeatability()
+    {
+        SplitMix64RNG rng = new SplitMix64RNG();
+        // Create second RNG using same seed.
+        SplitMix64RNG duplicateRNG = new SplitMix64RNG(rng.getSeed());
+        assert RNGTestUtils.testEquivalence(rng, duplicateRNG, 1000) : "Generated sequences do not match.";
+    }
+
+
+    @Test
+    public void testCheckpoint()
+    {
+        SplitMix64RNG rng = new SplitMix64RNG();
+        assert RNGTestUtils.testCheckpoint(rng, new SplitMix64RNG()) : "Output mismatch after restoring state.";
+    }
+
+
+    /**
+     * Test to ensure that the output from the RNG is broadly as expected.  This will not
+     * detect the subtle statistical anomalies that would be picked up by Diehard, but it
+     * provides a simple check for major problems with the output.
+     */
+    @Test(groups = "non-deterministic",
+          dependsOnMethods = "testRepeatability")
+    public void testDistribution() throws SeedException
+    {
+        SplitMix64RNG rng = new SplitMix64RNG(DefaultSeedGenerator.getInstance());
+        double pi = RNGTestUtils.calculateMonteCarloValueForPi(rng, 100000);
+        Reporter.log("Monte Carlo value for Pi: " + pi);
+        assert Maths.approxEquals(pi, Math.PI, 0.01) : "Monte Carlo value for Pi is outside acceptable range: " + pi;
+    }
+
+
+    /**
+     * Test to ensure that the output from the RNG is broadly as expected.  This will not
+     * detect the subtle statistical anomalies that would be picked up by Diehard, but it
+     * provides a simple check for major problems with the output.
+     */
+    @Test(groups = "non-deterministic",
+          dependsOnMethods = "testRepeatability")
+    public void testStandardDeviation()
+    {
+        SplitMix64RNG rng = new SplitMix64RNG();
+        // Expected standard deviation for a uniformly distributed population of values in the range 0..n
+        // approaches n/sqrt(12).
+        int n = 100;
+        double observedSD = RNGTestUtils.calculateSampleStandardDeviation(rng, n, 10000);
+        double expectedSD = 100 / Math.sqrt(12);
+        Reporter.log("Expected SD: " + expectedSD + ", observed SD: " + observedSD);
+        assert Maths.approxEquals(observedSD, expectedSD, 0.02) : "Standard deviation is outside acceptable range: " + observedSD;
+    }
+
+
+    /**
+     * Make sure that the RNG does not accept seeds that are too small since
+     * this could affect the distribution of the output.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidSeedSize()
+    {
+        new SplitMix64RNG(new byte[4]); // Need 8 bytes, should cause an IllegalArgumentException.
+    }
+
+
+    /**
+     * RNG must not accept a null seed otherwise it will not be properly initialised.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNullSeed()
+    {
+        new SplitMix64RNG((byte[]) null);
+    }
+
+
+    @Test
+    public void testSerializable() throws IOException, ClassNotFoundException
+    {
+        // Serialise an RNG.
+        SplitMix64RNG rng = new SplitMix64RNG();
+        ByteArrayOutputStream byteOutStream = new ByteArrayOutputStream();
+        ObjectOutputStream objectOutStream = new ObjectOutputStream(byteOutStream);
+        objectOutStream.writeObject(rng);
+
+        // Read the RNG back-in.
+        ObjectInputStream objectInStream = new ObjectInputStream(new ByteArrayInputStream(byteOutStream.toByteArray()));
+        SplitMix64RNG rng2 = (SplitMix64RNG) objectInStream.readObject();
+        assert rng != rng2 : "Deserialised RNG should be distinct object.";
+
+        // Both RNGs should generate the same sequence.
+        assert RNGTestUtils.testEquivalence(rng, rng2, 20) : "Output mismatch after serialisation.";
+    }
+}
@@ -0,0 +1,82 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.util.Random;
+import org.testng.annotations.Test;
+import org.uncommons.maths.Maths;
+import org.uncommons.maths.number.AdjustableNumberGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.statistics.DataSet;
+
+/**
+ * Unit test for the Student's t-distribution number generator.
+ * @author Daniel Dyer
+ */
+public class StudentsTGeneratorTest
+{
+    private final Random rng = new MersenneTwisterRNG();
+
+
+    /**
+     * Check that the observed mean and standard deviation are consistent
+     * with the specified distribution parameters.
+     */
+    @Test(groups = "non-deterministic")
+    public void testDistribution()
+    {
+        final double nu = 10;
+        checkDistribution(new StudentsTGenerator(nu, rng), 0, Math.sqrt(nu / (nu - 2)));
+    }
+
+
+    @Test(groups = "non-deterministic")
+    public void testDynamicParameters()
+    {
+        AdjustableNumberGenerator<Double> nuGenerator = new AdjustableNumberGenerator<Double>(10d);
+        NumberGenerator<Double> generator = new StudentsTGenerator(nuGenerator, rng);
+        checkDistribution(generator, 0, Math.sqrt(10d / 8));
+
+        // Adjust parameters and ensure that the generator output conforms to this
+        // new distribution.
+        nuGenerator.setValue(30d);
+        checkDistribution(generator, 0, Math.sqrt(30d / 28));
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testDegreesOfFreedomTooLow()
+    {
+        new StudentsTGenerator(0d, rng);
+    }
+
+    private void checkDistribution(NumberGenerator<Double> generator,
+                                   double expectedMean,
+                                   double expectedStandardDeviation)
+    {
+        final int iterations = 100000;
+        DataSet data = new DataSet(iterations);
+        for (int i = 0; i < iterations; i++)
+        {
+            double value = generator.nextValue();
+            data.addValue(value);
+        }
+        assert Math.abs(data.getArithmeticMean() - expectedMean) < 0.02
+                : "Observed mean outside acceptable range: " + data.getArithmeticMean();
+        assert Maths.approxEquals(data.getSampleStandardDeviation(), expectedStandardDeviation, 0.02)
+                : "Observed standard deviation outside acceptable range: " + data.getSampleStandardDeviation();
+    }
+}
@@ -0,0 +1,110 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link ThreadLocalRNG} class.
+ * @author Daniel Dyer
+ */
+public class ThreadLocalRNGTest
+{
+    private final byte[] masterSeed = DefaultSeedGenerator.getInstance().generateSeed(16);
+
+
+    /**
+     * Each thread should get its own RNG, and should get the same one every time.
+     */
+    @Test
+    public void testOneRNGPerThread() throws InterruptedException
+    {
+        final ThreadLocalRNG<MersenneTwisterRNG> threadLocalRNG
+            = new ThreadLocalRNG<MersenneTwisterRNG>(MersenneTwisterRNG.class, masterSeed);
+        final MersenneTwisterRNG rng = threadLocalRNG.get();
+        assert threadLocalRNG.get() == rng : "Same thread should always get the same RNG.";
+        assert !rng.isThreadSafe() : "Thread-local RNGs should not lock.";
+
+        final MersenneTwisterRNG[] otherRNG = new MersenneTwisterRNG[1];
+        Thread thread = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                otherRNG[0] = threadLocalRNG.get();
+            }
+        });
+        thread.start();
+        thread.join();
+        assert otherRNG[0] != null && otherRNG[0] != rng : "Different threads should get different RNGs.";
+        assert !Arrays.equals(rng.getSeed(), otherRNG[0].getSeed()) : "Different threads should get different seeds.";
+    }
+
+
+    /**
+     * RNGs for a given ordinal must be reproducible from the same master seed,
+     * but RNGs for different ordinals must not be equivalent.
+     */
+    @Test
+    public void testDeterministicSeeding()
+    {
+        ThreadLocalRNG<XORShiftRNG> threadLocalRNG = new ThreadLocalRNG<XORShiftRNG>(XORShiftRNG.class,
+                                                                                     new byte[20]);
+        ThreadLocalRNG<XORShiftRNG> duplicate = new ThreadLocalRNG<XORShiftRNG>(XORShiftRNG.class,
+                                                                                new byte[20]);
+        assert RNGTestUtils.testEquivalence(threadLocalRNG.createRNG(3), duplicate.createRNG(3), 1000)
+            : "RNGs for the same ordinal should be equivalent.";
+        assert !RNGTestUtils.testEquivalence(threadLocalRNG.createRNG(3), threadLocalRNG.createRNG(4), 10)
+            : "RNGs for different ordinals should not be equivalent.";
+        // The thread ordinals are assigned in the order of the first call to get().
+        assert RNGTestUtils.testEquivalence(threadLocalRNG.get(), duplicate.createRNG(0), 1000)
+            : "First thread should have ordinal zero.";
+    }
+
+
+    /**
+     * A master seed that is the wrong length for the type of RNG should result in
+     * the same exception as seeding that RNG directly.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidSeedSize()
+    {
+        new ThreadLocalRNG<MersenneTwisterRNG>(MersenneTwisterRNG.class, new byte[8]).get();
+    }
+
+
+    /**
+     * RNG types that can't be seeded with a byte array should be rejected up front.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRNGWithoutSeedConstructor()
+    {
+        new ThreadLocalRNG<NoSeedRNG>(NoSeedRNG.class, masterSeed);
+    }
+
+
+    /**
+     * Dummy RNG type that does not have the required seed constructor.
+     */
+    public static final class NoSeedRNG extends Random implements RepeatableRNG
+    {
+        public byte[] getSeed()
+        {
+            return new byte[0];
+        }
+    }
+}
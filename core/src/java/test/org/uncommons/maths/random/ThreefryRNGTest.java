@@ -0,0 +1,215 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import org.testng.Reporter;
+import org.testng.annotations.Test;
+import org.uncommons.maths.Maths;
+
+/**
+ * Unit test for the Threefry counter-based RNG.
+ * @author Daniel Dyer
+ */
+public class ThreefryRNGTest
+{
+    /**
+     * Check the Threefry function against the all-zero known-answer test vector from the
+     * reference implementation (Random123).
+     */
+    @Test
+    public void testKnownAnswer()
+    {
+        long[] output = new long[4];
+        long[] keySchedule = {0, 0, 0, 0, 0x1BD11BDAA9FC1A22L};
+        ThreefryRNG.threefry(0, keySchedule, output);
+        assert output[0] == 0x09218ebde6c85537L : "Wrong output: " + Long.toHexString(output[0]);
+        assert output[1] == 0x55941f5266d86105L : "Wrong output: " + Long.toHexString(output[1]);
+        assert output[2] == 0x4bd25e16282434dcL : "Wrong output: " + Long.toHexString(output[2]);
+        assert output[3] == 0xee29ec846bd2e40bL : "Wrong output: " + Long.toHexString(output[3]);
+
+        // The RNG's first block is generated from a counter of zero.
+        ThreefryRNG rng = new ThreefryRNG(new byte[32]);
+        for (long value : output)
+        {
+            assert rng.nextLong() == value : "RNG output does not match Threefry function.";
+        }
+    }
+
+
+    /**
+     * Check the Threefry function with a non-zero key and counter.  This is the pi-digits
+     * vector from the reference implementation, but with all but the first word of the
+     * counter set to zero since this RNG only uses the lowest 64 bits.  The expected output
+     * was generated from the reference algorithm.
+     */
+    @Test
+    public void testKnownAnswerNonZero()
+    {
+        long[] output = new long[4];
+        long[] keySchedule = {0x452821e638d01377L, 0xbe5466cf34e90c6cL, 0xc0ac29b7c97c50ddL,
+                              0x3f84d5b5b5470917L, 0x1f85a0f1d9fe5cf3L};
+        ThreefryRNG.threefry(0x243f6a8885a308d3L, keySchedule, output);
+        assert output[0] == 0x5f3dce3e44e33969L : "Wrong output: " + Long.toHexString(output[0]);
+        assert output[1] == 0x324a2557ec6a812eL : "Wrong output: " + Long.toHexString(output[1]);
+        assert output[2] == 0x25d9e614a942d4ffL : "Wrong output: " + Long.toHexString(output[2]);
+        assert output[3] == 0x475b0e750366ad5eL : "Wrong output: " + Long.toHexString(output[3]);
+    }
+
+
+    /**
+     * Longs and doubles are taken from single 64-bit values when aligned, and from
+     * two halves otherwise, which must match the ints generated by another RNG.
+     */
+    @Test
+    public void testMixedOutput()
+    {
+        ThreefryRNG rng = new ThreefryRNG();
+        ThreefryRNG duplicateRNG = new ThreefryRNG(rng.getSeed());
+        for (int i = 0; i < 100; i++)
+        {
+            int value = rng.nextInt();
+            assert value == duplicateRNG.nextInt() : "Mismatched int.";
+            long longValue = rng.nextLong();
+            long expected = ((long) duplicateRNG.nextInt() << 32) | (duplicateRNG.nextInt() & 0xFFFFFFFFL);
+            assert longValue == expected : "Mismatched long.";
+        }
+        assert rng.getPosition() == 300 : "Wrong position: " + rng.getPosition();
+    }
+
+
+    /**
+     * Test to ensure that two distinct RNGs with the same seed return the
+     * same sequence of numbers.
+     */
+    @Test
+    public void testRepeatability()
+    {
+        ThreefryRNG rng = new ThreefryRNG();
+        // Create second RNG using same seed.
+        ThreefryRNG duplicateRNG = new ThreefryRNG(rng.getSeed());
+        assert RNGTestUtils.testEquivalence(rng, duplicateRNG, 1000) : "Generated sequences do not match.";
+    }
+
+
+    @Test
+    public void testSeek()
+    {
+        ThreefryRNG rng = new ThreefryRNG();
+        assert rng.getPosition() == 0 : "Initial position should be zero.";
+        assert RNGTestUtils.testSeek(rng, new ThreefryRNG(rng.getSeed())) : "Output mismatch after seek.";
+
+        rng.seek(Long.MAX_VALUE - 1);
+        assert rng.getPosition() == Long.MAX_VALUE - 1 : "Wrong position after seek.";
+        rng.nextInt();
+        assert rng.getPosition() == Long.MAX_VALUE : "Wrong position after seek.";
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNegativeSeek()
+    {
+        new ThreefryRNG().seek(-1);
+    }
+
+
+    @Test
+    public void testCheckpoint()
+    {
+        ThreefryRNG rng = new ThreefryRNG();
+        assert RNGTestUtils.testCheckpoint(rng, new ThreefryRNG()) : "Output mismatch after restoring state.";
+    }
+
+
+    /**
+     * Test to ensure that the output from the RNG is broadly as expected.  This will not
+     * detect the subtle statistical anomalies that would be picked up by Diehard, but it
+     * provides a simple check for major problems with the output.
+     */
+    @Test(groups = "non-deterministic",
+          dependsOnMethods = "testRepeatability")
+    public void testDistribution() throws SeedException
+    {
+        ThreefryRNG rng = new ThreefryRNG(DefaultSeedGenerator.getInstance());
+        double pi = RNGTestUtils.calculateMonteCarloValueForPi(rng, 100000);
+        Reporter.log("Monte Carlo value for Pi: " + pi);
+        assert Maths.approxEquals(pi, Math.PI, 0.01) : "Monte Carlo value for Pi is outside acceptable range: " + pi;
+    }
+
+
+    /**
+     * Test to ensure that the output from the RNG is broadly as expected.  This will not
+     * detect the subtle statistical anomalies that would be picked up by Diehard, but it
+     * provides a simple check for major problems with the output.
+     */
+    @Test(groups = "non-deterministic",
+          dependsOnMethods = "testRepeatability")
+    public void testStandardDeviation()
+    {
+        ThreefryRNG rng = new ThreefryRNG();
+        // Expected standard deviation for a uniformly distributed population of values in the range 0..n
+        // approaches n/sqrt(12).
+        int n = 100;
+        double observedSD = RNGTestUtils.calculateSampleStandardDeviation(rng, n, 10000);
+        double expectedSD = 100 / Math.sqrt(12);
+        Reporter.log("Expected SD: " + expectedSD + ", observed SD: " + observedSD);
+        assert Maths.approxEquals(observedSD, expectedSD, 0.02) : "Standard deviation is outside acceptable range: " + observedSD;
+    }
+
+
+    /**
+     * Make sure that the RNG does not accept seeds that are too small since
+     * this could affect the distribution of the output.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidSeedSize()
+    {
+        new ThreefryRNG(new byte[16]); // Need 32 bytes, should cause an IllegalArgumentException.
+    }
+
+
+    /**
+     * RNG must not accept a null seed otherwise it will not be properly initialised.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNullSeed()
+    {
+        new ThreefryRNG((byte[]) null);
+    }
+
+
+    @Test
+    public void testSerializable() throws IOException, ClassNotFoundException
+    {
+        // Serialise an RNG.
+        ThreefryRNG rng = new ThreefryRNG();
+        ByteArrayOutputStream byteOutStream = new ByteArrayOutputStream();
+        ObjectOutputStream objectOutStream = new ObjectOutputStream(byteOutStream);
+        objectOutStream.writeObject(rng);
+
+        // Read the RNG back-in.
+        ObjectInputStream objectInStream = new ObjectInputStream(new ByteArrayInputStream(byteOutStream.toByteArray()));
+        ThreefryRNG rng2 = (ThreefryRNG) objectInStream.readObject();
+        assert rng != rng2 : "Deserialised RNG should be distinct object.";
+
+        // Both RNGs should generate the same sequence.
+        assert RNGTestUtils.testEquivalence(rng, rng2, 20) : "Output mismatch after serialisation.";
+    }
+}
@@ -0,0 +1,102 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.util.Random;
+import org.testng.annotations.Test;
+import org.uncommons.maths.Maths;
+import org.uncommons.maths.number.AdjustableNumberGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.statistics.DataSet;
+
+/**
+ * Unit test for the Weibull number generator.
+ * @author Daniel Dyer
+ */
+public class WeibullGeneratorTest
+{
+    private final Random rng = new MersenneTwisterRNG();
+
+
+    /**
+     * Check that the observed mean and standard deviation are consistent
+     * with the specified distribution parameters.
+     */
+    @Test(groups = "non-deterministic")
+    public void testDistribution()
+    {
+        checkDistribution(new WeibullGenerator(1.5, 2, rng), 1.5, 2);
+    }
+
+
+    @Test(groups = "non-deterministic")
+    public void testDynamicParameters()
+    {
+        AdjustableNumberGenerator<Double> shapeGenerator = new AdjustableNumberGenerator<Double>(1.5d);
+        AdjustableNumberGenerator<Double> scaleGenerator = new AdjustableNumberGenerator<Double>(2d);
+        NumberGenerator<Double> generator = new WeibullGenerator(shapeGenerator, scaleGenerator, rng);
+        checkDistribution(generator, 1.5, 2);
+
+        // Adjust parameters and ensure that the generator output conforms to this
+        // new distribution.
+        shapeGenerator.setValue(5d);
+        scaleGenerator.setValue(0.5d);
+        checkDistribution(generator, 5, 0.5);
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testShapeTooLow()
+    {
+        new WeibullGenerator(0d, 1d, rng);
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testScaleTooLow()
+    {
+        new WeibullGenerator(1d, 0d, rng);
+    }
+
+
+    private void checkDistribution(NumberGenerator<Double> generator,
+                                   double shape,
+                                   double scale)
+    {
+        double mean = scale * Math.exp(Maths.logGamma(1 + 1 / shape));
+        double variance = scale * scale * Math.exp(Maths.logGamma(1 + 2 / shape)) - mean * mean;
+        checkMoments(generator, mean, Math.sqrt(variance));
+    }
+
+
+    private void checkMoments(NumberGenerator<Double> generator,
+                              double expectedMean,
+                              double expectedStandardDeviation)
+    {
+        final int iterations = 100000;
+        DataSet data = new DataSet(iterations);
+        for (int i = 0; i < iterations; i++)
+        {
+            double value = generator.nextValue();
+            assert value >= 0 : "Value must be non-negative: " + value;
+            data.addValue(value);
+        }
+        assert Maths.approxEquals(data.getArithmeticMean(), expectedMean, 0.02)
+                : "Observed mean outside acceptable range: " + data.getArithmeticMean();
+        assert Maths.approxEquals(data.getSampleStandardDeviation(), expectedStandardDeviation, 0.02)
+                : "Observed standard deviation outside acceptable range: " + data.getSampleStandardDeviation();
+    }
+}
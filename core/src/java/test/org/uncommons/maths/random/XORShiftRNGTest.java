@@ -47,6 +47,14 @@ public class XORShiftRNGTest
     }
 
 
+    @Test
+    public void testCheckpoint()
+    {
+        XORShiftRNG rng = new XORShiftRNG();
+        assert RNGTestUtils.testCheckpoint(rng, new XORShiftRNG()) : "Output mismatch after restoring state.";
+    }
+
+
     /**
      * Test to ensure that the output from the RNG is broadly as expected.  This will not
      * detect the subtle statistical anomalies that would be picked up by Diehard, but it
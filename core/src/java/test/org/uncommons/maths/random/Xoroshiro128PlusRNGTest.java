@@ -0,0 +1,188 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import org.testng.Reporter;
+import org.testng.annotations.Test;
+import org.uncommons.maths.Maths;
+
+/**
+ * Unit test for the xoroshiro128+ RNG.
+ * @author Daniel Dyer
+ */
+public class Xoroshiro128PlusRNGTest
+{
+    /**
+     * Check the jump functions against the result of squaring the transition matrix.
+     */
+    @Test
+    public void testJump()
+    {
+        Xoroshiro128PlusRNG rng = new Xoroshiro128PlusRNG();
+        long[] state = seedToState(rng.getSeed());
+
+        rng.jump();
+        long[] jumped = RNGTestUtils.jumpLinear(state, 64, TRANSITION);
+        Xoroshiro128PlusRNG expectedRNG = new Xoroshiro128PlusRNG(RNGTestUtils.toSeed(jumped));
+        assert RNGTestUtils.testEquivalence(rng, expectedRNG, 100) : "Jump does not match expected state.";
+
+        rng = new Xoroshiro128PlusRNG(rng.getSeed());
+        rng.longJump();
+        jumped = RNGTestUtils.jumpLinear(state, 96, TRANSITION);
+        expectedRNG = new Xoroshiro128PlusRNG(RNGTestUtils.toSeed(jumped));
+        assert RNGTestUtils.testEquivalence(rng, expectedRNG, 100) : "Long jump does not match expected state.";
+    }
+
+
+    /**
+     * The seed is the state, which must not be all zeros.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testZeroSeed()
+    {
+        new Xoroshiro128PlusRNG(new byte[16]);
+    }
+
+
+    private static long[] seedToState(byte[] seed)
+    {
+        long[] state = new long[2];
+        for (int i = 0; i < state.length; i++)
+        {
+            state[i] = AbstractRNG.seedToLong(seed, i * 8);
+        }
+        return state;
+    }
+
+
+    /**
+     * Independent implementation of the state transition (without output).
+     */
+    private static final RNGTestUtils.LinearTransition TRANSITION = new RNGTestUtils.LinearTransition()
+    {
+        public void step(long[] state)
+        {
+            long s0 = state[0];
+            long s1 = state[1] ^ s0;
+            state[0] = Long.rotateLeft(s0, 24) ^ s1 ^ (s1 << 16);
+            state[1] = Long.rotateLeft(s1, 37);
+        }
+    };
+
+
+
+    /**
+     * Test to ensure that two distinct RNGs with the same seed return the
+     * same sequence of numbers.
+     */
+    @Test
+    public void testRepeatability()
+    {
+        Xoroshiro128PlusRNG rng = new Xoroshiro128PlusRNG();
+        // Create second RNG using same seed.
+        Xoroshiro128PlusRNG duplicateRNG = new Xoroshiro128PlusRNG(rng.getSeed());
+        assert RNGTestUtils.testEquivalence(rng, duplicateRNG, 1000) : "Generated sequences do not match.";
+    }
+
+
+    @Test
+    public void testCheckpoint()
+    {
+        Xoroshiro128PlusRNG rng = new Xoroshiro128PlusRNG();
+        assert RNGTestUtils.testCheckpoint(rng, new Xoroshiro128PlusRNG()) : "Output mismatch after restoring state.";
+    }
+
+
+    /**
+     * Test to ensure that the output from the RNG is broadly as expected.  This will not
+     * detect the subtle statistical anomalies that would be picked up by Diehard, but it
+     * provides a simple check for major problems with the output.
+     */
+    @Test(groups = "non-deterministic",
+          dependsOnMethods = "testRepeatability")
+    public void testDistribution() throws SeedException
+    {
+        Xoroshiro128PlusRNG rng = new Xoroshiro128PlusRNG(DefaultSeedGenerator.getInstance());
+        double pi = RNGTestUtils.calculateMonteCarloValueForPi(rng, 100000);
+        Reporter.log("Monte Carlo value for Pi: " + pi);
+        assert Maths.approxEquals(pi, Math.PI, 0.01) : "Monte Carlo value for Pi is outside acceptable range: " + pi;
+    }
+
+
+    /**
+     * Test to ensure that the output from the RNG is broadly as expected.  This will not
+     * detect the subtle statistical anomalies that would be picked up by Diehard, but it
+     * provides a simple check for major problems with the output.
+     */
+    @Test(groups = "non-deterministic",
+          dependsOnMethods = "testRepeatability")
+    public void testStandardDeviation()
+    {
+        Xoroshiro128PlusRNG rng = new Xoroshiro128PlusRNG();
+        // Expected standard deviation for a uniformly distributed population of values in the range 0..n
+        // approaches n/sqrt(12).
+        int n = 100;
+        double observedSD = RNGTestUtils.calculateSampleStandardDeviation(rng, n, 10000);
+        double expectedSD = 100 / Math.sqrt(12);
+        Reporter.log("Expected SD: " + expectedSD + ", observed SD: " + observedSD);
+        assert Maths.approxEquals(observedSD, expectedSD, 0.02) : "Standard deviation is outside acceptable range: " + observedSD;
+    }
+
+
+    /**
+     * Make sure that the RNG does not accept seeds that are too small since
+     * this could affect the distribution of the output.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidSeedSize()
+    {
+        new Xoroshiro128PlusRNG(new byte[8]); // Need 16 bytes, should cause an IllegalArgumentException.
+    }
+
+
+    /**
+     * RNG must not accept a null seed otherwise it will not be properly initialised.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNullSeed()
+    {
+        new Xoroshiro128PlusRNG((byte[]) null);
+    }
+
+
+    @Test
+    public void testSerializable() throws IOException, ClassNotFoundException
+    {
+        // Serialise an RNG.
+        Xoroshiro128PlusRNG rng = new Xoroshiro128PlusRNG();
+        ByteArrayOutputStream byteOutStream = new ByteArrayOutputStream();
+        ObjectOutputStream objectOutStream = new ObjectOutputStream(byteOutStream);
+        objectOutStream.writeObject(rng);
+
+        // Read the RNG back-in.
+        ObjectInputStream objectInStream = new ObjectInputStream(new ByteArrayInputStream(byteOutStream.toByteArray()));
+        Xoroshiro128PlusRNG rng2 = (Xoroshiro128PlusRNG) objectInStream.readObject();
+        assert rng != rng2 : "Deserialised RNG should be distinct object.";
+
+        // Both RNGs should generate the same sequence.
+        assert RNGTestUtils.testEquivalence(rng, rng2, 20) : "Output mismatch after serialisation.";
+    }
+}
@@ -0,0 +1,191 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.random;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import org.testng.Reporter;
+import org.testng.annotations.Test;
+import org.uncommons.maths.Maths;
+
+/**
+ * Unit test for the xoshiro256** RNG.
+ * @author Daniel Dyer
+ */
+public class Xoshiro256StarStarRNGTest
+{
+    /**
+     * Check the jump functions against the result of squaring the transition matrix.
+     */
+    @Test
+    public void testJump()
+    {
+        Xoshiro256StarStarRNG rng = new Xoshiro256StarStarRNG();
+        long[] state = seedToState(rng.getSeed());
+
+        rng.jump();
+        long[] jumped = RNGTestUtils.jumpLinear(state, 128, TRANSITION);
+        Xoshiro256StarStarRNG expectedRNG = new Xoshiro256StarStarRNG(RNGTestUtils.toSeed(jumped));
+        assert RNGTestUtils.testEquivalence(rng, expectedRNG, 100) : "Jump does not match expected state.";
+
+        rng = new Xoshiro256StarStarRNG(rng.getSeed());
+        rng.longJump();
+        jumped = RNGTestUtils.jumpLinear(state, 192, TRANSITION);
+        expectedRNG = new Xoshiro256StarStarRNG(RNGTestUtils.toSeed(jumped));
+        assert RNGTestUtils.testEquivalence(rng, expectedRNG, 100) : "Long jump does not match expected state.";
+    }
+
+
+    /**
+     * The seed is the state, which must not be all zeros.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testZeroSeed()
+    {
+        new Xoshiro256StarStarRNG(new byte[32]);
+    }
+
+
+    private static long[] seedToState(byte[] seed)
+    {
+        long[] state = new long[4];
+        for (int i = 0; i < state.length; i++)
+        {
+            state[i] = AbstractRNG.seedToLong(seed, i * 8);
+        }
+        return state;
+    }
+
+
+    /**
+     * Independent implementation of the state transition (without output).
+     */
+    private static final RNGTestUtils.LinearTransition TRANSITION = new RNGTestUtils.LinearTransition()
+    {
+        public void step(long[] state)
+        {
+            long t = state[1] << 17;
+            state[2] ^= state[0];
+            state[3] ^= state[1];
+            state[1] ^= state[2];
+            state[0] ^= state[3];
+            state[2] ^= t;
+            state[3] = Long.rotateLeft(state[3], 45);
+        }
+    };
+
+
+
+    /**
+     * Test to ensure that two distinct RNGs with the same seed return the
+     * same sequence of numbers.
+     */
+    @Test
+    public void testRepeatability()
+    {
+        Xoshiro256StarStarRNG rng = new Xoshiro256StarStarRNG();
+        // Create second RNG using same seed.
+        Xoshiro256StarStarRNG duplicateRNG = new Xoshiro256StarStarRNG(rng.getSeed());
+        assert RNGTestUtils.testEquivalence(rng, duplicateRNG, 1000) : "Generated sequences do not match.";
+    }
+
+
+    @Test
+    public void testCheckpoint()
+    {
+        Xoshiro256StarStarRNG rng = new Xoshiro256StarStarRNG();
+        assert RNGTestUtils.testCheckpoint(rng, new Xoshiro256StarStarRNG()) : "Output mismatch after restoring state.";
+    }
+
+
+    /**
+     * Test to ensure that the output from the RNG is broadly as expected.  This will not
+     * detect the subtle statistical anomalies that would be picked up by Diehard, but it
+     * provides a simple check for major problems with the output.
+     */
+    @Test(groups = "non-deterministic",
+          dependsOnMethods = "testRepeatability")
+    public void testDistribution() throws SeedException
+    {
+        Xoshiro256StarStarRNG rng = new Xoshiro256StarStarRNG(DefaultSeedGenerator.getInstance());
+        double pi = RNGTestUtils.calculateMonteCarloValueForPi(rng, 100000);
+        Reporter.log("Monte Carlo value for Pi: " + pi);
+        assert Maths.approxEquals(pi, Math.PI, 0.01) : "Monte Carlo value for Pi is outside acceptable range: " + pi;
+    }
+
+
+    /**
+     * Test to ensure that the output from the RNG is broadly as expected.  This will not
+     * detect the subtle statistical anomalies that would be picked up by Diehard, but it
+     * provides a simple check for major problems with the output.
+     */
+    @Test(groups = "non-deterministic",
+          dependsOnMethods = "testRepeatability")
+    public void testStandardDeviation()
+    {
+        Xoshiro256StarStarRNG rng = new Xoshiro256StarStarRNG();
+        // Expected standard deviation for a uniformly distributed population of values in the range 0..n
+        // approaches n/sqrt(12).
+        int n = 100;
+        double observedSD = RNGTestUtils.calculateSampleStandardDeviation(rng, n, 10000);
+        double expectedSD = 100 / Math.sqrt(12);
+        Reporter.log("Expected SD: " + expectedSD + ", observed SD: " + observedSD);
+        assert Maths.approxEquals(observedSD, expectedSD, 0.02) : "Standard deviation is outside acceptable range: " + observedSD;
+    }
+
+
+    /**
+     * Make sure that the RNG does not accept seeds that are too small since
+     * this could affect the distribution of the output.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidSeedSize()
+    {
+        new Xoshiro256StarStarRNG(new byte[16]); // Need 32 bytes, should cause an IllegalArgumentException.
+    }
+
+
+    /**
+     * RNG must not accept a null seed otherwise it will not be properly initialised.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNullSeed()
+    {
+        new Xoshiro256StarStarRNG((byte[]) null);
+    }
+
+
+    @Test
+    public void testSerializable() throws IOException, ClassNotFoundException
+    {
+        // Serialise an RNG.
+        Xoshiro256StarStarRNG rng = new Xoshiro256StarStarRNG();
+        ByteArrayOutputStream byteOutStream = new ByteArrayOutputStream();
+        ObjectOutputStream objectOutStream = new ObjectOutputStream(byteOutStream);
+        objectOutStream.writeObject(rng);
+
+        // Read the RNG back-in.
+        ObjectInputStream objectInStream = new ObjectInputStream(new ByteArrayInputStream(byteOutStream.toByteArray()));
+        Xoshiro256StarStarRNG rng2 = (Xoshiro256StarStarRNG) objectInStream.readObject();
+        assert rng != rng2 : "Deserialised RNG should be distinct object.";
+
+        // Both RNGs should generate the same sequence.
+        assert RNGTestUtils.testEquivalence(rng, rng2, 20) : "Output mismatch after serialisation.";
+    }
+}
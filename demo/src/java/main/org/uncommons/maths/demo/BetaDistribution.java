@@ -0,0 +1,97 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.demo;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.uncommons.maths.Maths;
+import org.uncommons.maths.random.BetaGenerator;
+
+/**
+ * @author Daniel Dyer
+ */
+class BetaDistribution extends ProbabilityDistribution
+{
+    private final double alpha;
+    private final double beta;
+
+
+    public BetaDistribution(double alpha, double beta)
+    {
+        this.alpha = alpha;
+        this.beta = beta;
+    }
+
+
+    protected BetaGenerator createValueGenerator(Random rng)
+    {
+        return new BetaGenerator(alpha, beta, rng);
+    }
+
+
+    public Map<Double, Double> getExpectedValues()
+    {
+        Map<Double, Double> values = new HashMap<Double, Double>();
+        double lower = 0;
+        double upper = 1;
+        int points = 40;
+        double interval = (upper - lower) / points;
+        for (int i = 0; i < points; i++)
+        {
+            // Use the mid-point of each interval, which avoids evaluating the
+            // density at the ends of the range, where it may be infinite.
+            double x = lower + (i + 0.5) * interval;
+            values.put(x, getExpectedProbability(x));
+        }
+        return values;
+    }
+
+
+    /**
+     * This is the probability density function for the Beta
+     * distribution.
+     */
+    private double getExpectedProbability(double x)
+    {
+        double logBeta = Maths.logGamma(alpha) + Maths.logGamma(beta) - Maths.logGamma(alpha + beta);
+        return Math.exp((alpha - 1) * Math.log(x) + (beta - 1) * Math.log(1 - x) - logBeta);
+    }
+
+
+    public double getExpectedMean()
+    {
+        return alpha / (alpha + beta);
+    }
+
+
+    public double getExpectedStandardDeviation()
+    {
+        return Math.sqrt(alpha * beta / (Math.pow(alpha + beta, 2) * (alpha + beta + 1)));
+    }
+
+
+    public String getDescription()
+    {
+        return "Beta Distribution (\u03b1 = " + alpha + ", \u03b2 = " + beta + ")";
+    }
+
+
+    public boolean isDiscrete()
+    {
+        return false;
+    }
+}
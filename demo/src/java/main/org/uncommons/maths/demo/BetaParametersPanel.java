@@ -0,0 +1,51 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.demo;
+
+import java.awt.BorderLayout;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JSpinner;
+import javax.swing.SpinnerNumberModel;
+import javax.swing.SpringLayout;
+import org.uncommons.swing.SpringUtilities;
+
+/**
+ * @author Daniel Dyer
+ */
+class BetaParametersPanel extends ParametersPanel
+{
+    private final SpinnerNumberModel alphaNumberModel = new SpinnerNumberModel(2.0d, 0.1d, 100.0d, 0.1d);
+    private final SpinnerNumberModel betaNumberModel = new SpinnerNumberModel(5.0d, 0.1d, 100.0d, 0.1d);
+
+    public BetaParametersPanel()
+    {
+        JPanel wrapper = new JPanel(new SpringLayout());
+        wrapper.add(new JLabel("Alpha: "));
+        wrapper.add(new JSpinner(alphaNumberModel));
+        wrapper.add(new JLabel("Beta: "));
+        wrapper.add(new JSpinner(betaNumberModel));
+        SpringUtilities.makeCompactGrid(wrapper, 4, 1, 6, 6, 6, 6);
+        add(wrapper, BorderLayout.NORTH);
+    }
+
+
+    public BetaDistribution createProbabilityDistribution()
+    {
+        return new BetaDistribution(alphaNumberModel.getNumber().doubleValue(),
+                                    betaNumberModel.getNumber().doubleValue());
+    }
+}
@@ -0,0 +1,95 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.demo;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.uncommons.maths.Maths;
+import org.uncommons.maths.random.ChiSquaredGenerator;
+
+/**
+ * @author Daniel Dyer
+ */
+class ChiSquaredDistribution extends ProbabilityDistribution
+{
+    private final int degreesOfFreedom;
+
+
+    public ChiSquaredDistribution(int degreesOfFreedom)
+    {
+        this.degreesOfFreedom = degreesOfFreedom;
+    }
+
+
+    protected ChiSquaredGenerator createValueGenerator(Random rng)
+    {
+        return new ChiSquaredGenerator(degreesOfFreedom, rng);
+    }
+
+
+    public Map<Double, Double> getExpectedValues()
+    {
+        Map<Double, Double> values = new HashMap<Double, Double>();
+        double lower = 0;
+        double upper = getExpectedMean() + 5 * getExpectedStandardDeviation();
+        int points = 40;
+        double interval = (upper - lower) / points;
+        for (int i = 0; i < points; i++)
+        {
+            // Use the mid-point of each interval, which avoids evaluating the
+            // density at the ends of the range, where it may be infinite.
+            double x = lower + (i + 0.5) * interval;
+            values.put(x, getExpectedProbability(x));
+        }
+        return values;
+    }
+
+
+    /**
+     * This is the probability density function for the Chi-Squared
+     * distribution.
+     */
+    private double getExpectedProbability(double x)
+    {
+        double k = degreesOfFreedom / 2d;
+        return Math.exp((k - 1) * Math.log(x) - x / 2 - Maths.logGamma(k) - k * Math.log(2));
+    }
+
+
+    public double getExpectedMean()
+    {
+        return degreesOfFreedom;
+    }
+
+
+    public double getExpectedStandardDeviation()
+    {
+        return Math.sqrt(2d * degreesOfFreedom);
+    }
+
+
+    public String getDescription()
+    {
+        return "Chi-Squared Distribution (k = " + degreesOfFreedom + ")";
+    }
+
+
+    public boolean isDiscrete()
+    {
+        return false;
+    }
+}
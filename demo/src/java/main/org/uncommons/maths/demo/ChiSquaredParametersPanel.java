@@ -0,0 +1,47 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.demo;
+
+import java.awt.BorderLayout;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JSpinner;
+import javax.swing.SpinnerNumberModel;
+import javax.swing.SpringLayout;
+import org.uncommons.swing.SpringUtilities;
+
+/**
+ * @author Daniel Dyer
+ */
+class ChiSquaredParametersPanel extends ParametersPanel
+{
+    private final SpinnerNumberModel degreesOfFreedomNumberModel = new SpinnerNumberModel(4, 1, 100, 1);
+
+    public ChiSquaredParametersPanel()
+    {
+        JPanel wrapper = new JPanel(new SpringLayout());
+        wrapper.add(new JLabel("Degrees of Freedom: "));
+        wrapper.add(new JSpinner(degreesOfFreedomNumberModel));
+        SpringUtilities.makeCompactGrid(wrapper, 2, 1, 6, 6, 6, 6);
+        add(wrapper, BorderLayout.NORTH);
+    }
+
+
+    public ChiSquaredDistribution createProbabilityDistribution()
+    {
+        return new ChiSquaredDistribution(degreesOfFreedomNumberModel.getNumber().intValue());
+    }
+}
@@ -37,11 +37,17 @@ class DistributionPanel extends JPanel
     private final JComboBox distributionCombo = new JComboBox();
 
     {
+        parameterPanels.put("Beta", new BetaParametersPanel());
         parameterPanels.put("Binomial", new BinomialParametersPanel());
+        parameterPanels.put("Chi-Squared", new ChiSquaredParametersPanel());
         parameterPanels.put("Exponential", new ExponentialParametersPanel());
+        parameterPanels.put("Gamma", new GammaParametersPanel());
         parameterPanels.put("Gaussian", new GaussianParametersPanel());
+        parameterPanels.put("Log-Normal", new LogNormalParametersPanel());
         parameterPanels.put("Poisson", new PoissonParametersPanel());
+        parameterPanels.put("Student's t", new StudentsTParametersPanel());
         parameterPanels.put("Uniform", new UniformParametersPanel());
+        parameterPanels.put("Weibull", new WeibullParametersPanel());
     }
 
     
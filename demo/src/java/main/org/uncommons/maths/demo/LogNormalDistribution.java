@@ -0,0 +1,96 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.demo;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.uncommons.maths.random.LogNormalGenerator;
+
+/**
+ * @author Daniel Dyer
+ */
+class LogNormalDistribution extends ProbabilityDistribution
+{
+    private final double mu;
+    private final double sigma;
+
+
+    public LogNormalDistribution(double mu, double sigma)
+    {
+        this.mu = mu;
+        this.sigma = sigma;
+    }
+
+
+    protected LogNormalGenerator createValueGenerator(Random rng)
+    {
+        return new LogNormalGenerator(mu, sigma, rng);
+    }
+
+
+    public Map<Double, Double> getExpectedValues()
+    {
+        Map<Double, Double> values = new HashMap<Double, Double>();
+        double lower = 0;
+        double upper = Math.exp(mu + 3 * sigma);
+        int points = 40;
+        double interval = (upper - lower) / points;
+        for (int i = 0; i < points; i++)
+        {
+            // Use the mid-point of each interval, which avoids evaluating the
+            // density at the ends of the range, where it may be infinite.
+            double x = lower + (i + 0.5) * interval;
+            values.put(x, getExpectedProbability(x));
+        }
+        return values;
+    }
+
+
+    /**
+     * This is the probability density function for the Log-Normal
+     * distribution.
+     */
+    private double getExpectedProbability(double x)
+    {
+        double z = (Math.log(x) - mu) / sigma;
+        return Math.exp(-z * z / 2) / (x * sigma * Math.sqrt(2 * Math.PI));
+    }
+
+
+    public double getExpectedMean()
+    {
+        return Math.exp(mu + sigma * sigma / 2);
+    }
+
+
+    public double getExpectedStandardDeviation()
+    {
+        return Math.sqrt((Math.exp(sigma * sigma) - 1) * Math.exp(2 * mu + sigma * sigma));
+    }
+
+
+    public String getDescription()
+    {
+        return "Log-Normal Distribution (\u03bc = " + mu + ", \u03c3 = " + sigma + ")";
+    }
+
+
+    public boolean isDiscrete()
+    {
+        return false;
+    }
+}
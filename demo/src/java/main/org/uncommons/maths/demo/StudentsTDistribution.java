@@ -0,0 +1,96 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.demo;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.uncommons.maths.Maths;
+import org.uncommons.maths.random.StudentsTGenerator;
+
+/**
+ * @author Daniel Dyer
+ */
+class StudentsTDistribution extends ProbabilityDistribution
+{
+    private final int degreesOfFreedom;
+
+
+    public StudentsTDistribution(int degreesOfFreedom)
+    {
+        this.degreesOfFreedom = degreesOfFreedom;
+    }
+
+
+    protected StudentsTGenerator createValueGenerator(Random rng)
+    {
+        return new StudentsTGenerator(degreesOfFreedom, rng);
+    }
+
+
+    public Map<Double, Double> getExpectedValues()
+    {
+        Map<Double, Double> values = new HashMap<Double, Double>();
+        double lower = -4 * getExpectedStandardDeviation();
+        double upper = 4 * getExpectedStandardDeviation();
+        int points = 40;
+        double interval = (upper - lower) / points;
+        for (int i = 0; i < points; i++)
+        {
+            // Use the mid-point of each interval, which avoids evaluating the
+            // density at the ends of the range, where it may be infinite.
+            double x = lower + (i + 0.5) * interval;
+            values.put(x, getExpectedProbability(x));
+        }
+        return values;
+    }
+
+
+    /**
+     * This is the probability density function for the Student's t
+     * distribution.
+     */
+    private double getExpectedProbability(double x)
+    {
+        double nu = degreesOfFreedom;
+        double logCoefficient = Maths.logGamma((nu + 1) / 2) - Maths.logGamma(nu / 2) - 0.5 * Math.log(nu * Math.PI);
+        return Math.exp(logCoefficient - ((nu + 1) / 2) * Math.log(1 + x * x / nu));
+    }
+
+
+    public double getExpectedMean()
+    {
+        return 0;
+    }
+
+
+    public double getExpectedStandardDeviation()
+    {
+        return Math.sqrt(degreesOfFreedom / (degreesOfFreedom - 2d));
+    }
+
+
+    public String getDescription()
+    {
+        return "Student's t-Distribution (\u03bd = " + degreesOfFreedom + ")";
+    }
+
+
+    public boolean isDiscrete()
+    {
+        return false;
+    }
+}
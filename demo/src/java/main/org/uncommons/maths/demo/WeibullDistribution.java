@@ -0,0 +1,97 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.demo;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.uncommons.maths.Maths;
+import org.uncommons.maths.random.WeibullGenerator;
+
+/**
+ * @author Daniel Dyer
+ */
+class WeibullDistribution extends ProbabilityDistribution
+{
+    private final double shape;
+    private final double scale;
+
+
+    public WeibullDistribution(double shape, double scale)
+    {
+        this.shape = shape;
+        this.scale = scale;
+    }
+
+
+    protected WeibullGenerator createValueGenerator(Random rng)
+    {
+        return new WeibullGenerator(shape, scale, rng);
+    }
+
+
+    public Map<Double, Double> getExpectedValues()
+    {
+        Map<Double, Double> values = new HashMap<Double, Double>();
+        double lower = 0;
+        double upper = getExpectedMean() + 4 * getExpectedStandardDeviation();
+        int points = 40;
+        double interval = (upper - lower) / points;
+        for (int i = 0; i < points; i++)
+        {
+            // Use the mid-point of each interval, which avoids evaluating the
+            // density at the ends of the range, where it may be infinite.
+            double x = lower + (i + 0.5) * interval;
+            values.put(x, getExpectedProbability(x));
+        }
+        return values;
+    }
+
+
+    /**
+     * This is the probability density function for the Weibull
+     * distribution.
+     */
+    private double getExpectedProbability(double x)
+    {
+        double z = x / scale;
+        return (shape / scale) * Math.pow(z, shape - 1) * Math.exp(-Math.pow(z, shape));
+    }
+
+
+    public double getExpectedMean()
+    {
+        return scale * Math.exp(Maths.logGamma(1 + 1 / shape));
+    }
+
+
+    public double getExpectedStandardDeviation()
+    {
+        return scale * Math.sqrt(Math.exp(Maths.logGamma(1 + 2 / shape)) - Math.exp(2 * Maths.logGamma(1 + 1 / shape)));
+    }
+
+
+    public String getDescription()
+    {
+        return "Weibull Distribution (k = " + shape + ", \u03bb = " + scale + ")";
+    }
+
+
+    public boolean isDiscrete()
+    {
+        return false;
+    }
+}
@@ -0,0 +1,51 @@
+// ============================================================================
+//   Copyright 2006-2014 Daniel W. Dyer
+//
+//   Licensed under the Apache License, Version 2.0 (the "License");
+//   you may not use this file except in compliance with the License.
+//   You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//   Unless required by applicable law or agreed to in writing, software
+//   distributed under the License is distributed on an "AS IS" BASIS,
+//   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//   See the License for the specific language governing permissions and
+//   limitations under the License.
+// ============================================================================
+package org.uncommons.maths.demo;
+
+import java.awt.BorderLayout;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JSpinner;
+import javax.swing.SpinnerNumberModel;
+import javax.swing.SpringLayout;
+import org.uncommons.swing.SpringUtilities;
+
+/**
+ * @author Daniel Dyer
+ */
+class WeibullParametersPanel extends ParametersPanel
+{
+    private final SpinnerNumberModel shapeNumberModel = new SpinnerNumberModel(1.5d, 0.1d, 20.0d, 0.1d);
+    private final SpinnerNumberModel scaleNumberModel = new SpinnerNumberModel(1.0d, 0.1d, 100.0d, 0.1d);
+
+    public WeibullParametersPanel()
+    {
+        JPanel wrapper = new JPanel(new SpringLayout());
+        wrapper.add(new JLabel("Shape: "));
+        wrapper.add(new JSpinner(shapeNumberModel));
+        wrapper.add(new JLabel("Scale: "));
+        wrapper.add(new JSpinner(scaleNumberModel));
+        SpringUtilities.makeCompactGrid(wrapper, 4, 1, 6, 6, 6, 6);
+        add(wrapper, BorderLayout.NORTH);
+    }
+
+
+    public WeibullDistribution createProbabilityDistribution()
+    {
+        return new WeibullDistribution(shapeNumberModel.getNumber().doubleValue(),
+                                       scaleNumberModel.getNumber().doubleValue());
+    }
+}